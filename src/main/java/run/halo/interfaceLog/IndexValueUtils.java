@@ -0,0 +1,62 @@
+package run.halo.interfaceLog;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Date;
+
+/**
+ * 索引值工具。Halo 的索引值是字符串，数字统一补零到固定位数，
+ * 这样字符串顺序与数值顺序一致，范围查询和排序都可以直接使用。
+ */
+public final class IndexValueUtils {
+
+    private static final int NUMBER_WIDTH = 19;
+
+    /**
+     * 早期接口和索引使用的时间格式，按东八区解析。
+     */
+    private static final DateTimeFormatter LEGACY_TIME_FORMATTER =
+        DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss").withZone(ZoneId.of("Asia/Shanghai"));
+
+    private IndexValueUtils() {
+    }
+
+    public static String padNumber(Long value) {
+        return padNumber(value == null ? 0L : value);
+    }
+
+    public static String padNumber(long value) {
+        String digits = Long.toString(Math.max(value, 0));
+        return "0".repeat(NUMBER_WIDTH - digits.length()) + digits;
+    }
+
+    /**
+     * 时间统一按毫秒时间戳建索引，与时区无关。
+     */
+    public static String padTime(Date time) {
+        return time == null ? null : padNumber(time.getTime());
+    }
+
+    /**
+     * 解析查询条件中的时间，支持毫秒时间戳、ISO-8601 和旧的 "yyyy-MM-dd HH:mm:ss"（东八区）格式。
+     */
+    public static long parseTime(String value) {
+        String text = value.trim();
+        if (!text.isEmpty() && text.chars().allMatch(Character::isDigit)) {
+            return Long.parseLong(text);
+        }
+        try {
+            return OffsetDateTime.parse(text).toInstant().toEpochMilli();
+        } catch (DateTimeParseException ignored) {
+            // 继续尝试旧格式
+        }
+        return LocalDateTime.parse(text, LEGACY_TIME_FORMATTER)
+            .atZone(LEGACY_TIME_FORMATTER.getZone())
+            .toInstant()
+            .toEpochMilli();
+    }
+}
@@ -7,13 +7,15 @@ import run.halo.app.extension.SchemeManager;
 import run.halo.app.extension.index.IndexSpec;
 import run.halo.app.plugin.BasePlugin;
 import run.halo.app.plugin.PluginContext;
+import run.halo.interfaceLog.extension.InterfaceLogDetailInfo;
 import run.halo.interfaceLog.extension.InterfaceLogInfo;
+import run.halo.interfaceLog.extension.InterfaceLogRollup;
 import run.halo.interfaceLog.extension.InterfaceLogRuleInfo;
+import run.halo.interfaceLog.extension.InterfaceLogSettingInfo;
 import run.halo.interfaceLog.extension.RetentionDurationInfo;
+import run.halo.interfaceLog.writer.InterfaceLogWriter;
 
-import java.text.SimpleDateFormat;
-import java.util.Date;
-import java.util.TimeZone;
+import java.time.Duration;
 
 import static run.halo.app.extension.index.IndexAttributeFactory.simpleAttribute;
 
@@ -30,18 +32,35 @@ public class InterfaceLogPlugin extends BasePlugin {
 
     private final SchemeManager schemeManager;
     private final ApplicationEventPublisher eventPublisher;
+    private final InterfaceLogWriter interfaceLogWriter;
 
     public InterfaceLogPlugin(PluginContext pluginContext, SchemeManager schemeManager,
-        ApplicationEventPublisher eventPublisher) {
+        ApplicationEventPublisher eventPublisher, InterfaceLogWriter interfaceLogWriter) {
         super(pluginContext);
         this.schemeManager = schemeManager;
         this.eventPublisher = eventPublisher;
+        this.interfaceLogWriter = interfaceLogWriter;
     }
 
     @Override
     public void start() {
         schemeManager.register(RetentionDurationInfo.class);
         schemeManager.register(InterfaceLogRuleInfo.class);
+        schemeManager.register(InterfaceLogSettingInfo.class);
+        schemeManager.register(InterfaceLogDetailInfo.class);
+        schemeManager.register(InterfaceLogRollup.class, indexSpecs -> {
+                indexSpecs.add(new IndexSpec()
+                    .setName("spec.resolution")
+                    .setIndexFunc(simpleAttribute(InterfaceLogRollup.class,
+                        rollup -> rollup.getSpec().getResolution()))
+                );
+                indexSpecs.add(new IndexSpec()
+                    .setName("spec.bucketStart")
+                    .setIndexFunc(simpleAttribute(InterfaceLogRollup.class, rollup ->
+                        IndexValueUtils.padNumber(rollup.getSpec().getBucketStart())))
+                );
+            }
+        );
         schemeManager.register(InterfaceLogInfo.class, indexSpecs -> {
                 indexSpecs.add(new IndexSpec()
                     .setName("spec.username")
@@ -65,22 +84,45 @@ public class InterfaceLogPlugin extends BasePlugin {
                     }))
                 );
                 indexSpecs.add(new IndexSpec()
-                    .setName("spec.accessTime")
+                    .setName("spec.responseStatus")
                     .setIndexFunc(simpleAttribute(InterfaceLogInfo.class, interfaceLogInfo -> {
-                        Date accessTime = interfaceLogInfo.getSpec().getAccessTime();
-                        SimpleDateFormat formatter = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
-                        formatter.setTimeZone(TimeZone.getTimeZone("Asia/Shanghai"));
-                        return accessTime == null ? null : formatter.format(accessTime);
+                        String responseStatus = interfaceLogInfo.getSpec().getResponseStatus();
+                        return responseStatus == null ? "" : responseStatus;
                     }))
                 );
+                indexSpecs.add(new IndexSpec()
+                    .setName("spec.accessTime")
+                    .setIndexFunc(simpleAttribute(InterfaceLogInfo.class, interfaceLogInfo ->
+                        IndexValueUtils.padTime(interfaceLogInfo.getSpec().getAccessTime())))
+                );
+                indexSpecs.add(new IndexSpec()
+                    .setName("spec.durationMicros")
+                    .setIndexFunc(simpleAttribute(InterfaceLogInfo.class, interfaceLogInfo ->
+                        IndexValueUtils.padNumber(interfaceLogInfo.getSpec().getDurationMicros())))
+                );
+                indexSpecs.add(new IndexSpec()
+                    .setName("spec.requestBodySize")
+                    .setIndexFunc(simpleAttribute(InterfaceLogInfo.class, interfaceLogInfo ->
+                        IndexValueUtils.padNumber(interfaceLogInfo.getSpec().getRequestBodySize())))
+                );
+                indexSpecs.add(new IndexSpec()
+                    .setName("spec.responseBodySize")
+                    .setIndexFunc(simpleAttribute(InterfaceLogInfo.class, interfaceLogInfo ->
+                        IndexValueUtils.padNumber(interfaceLogInfo.getSpec().getResponseBodySize())))
+                );
             }
         );
     }
 
     @Override
     public void stop() {
+        // 先把队列中尚未落库的日志写完，再注销 scheme
+        interfaceLogWriter.flush(Duration.ofSeconds(10));
         schemeManager.unregister(Scheme.buildFromType(InterfaceLogInfo.class));
+        schemeManager.unregister(Scheme.buildFromType(InterfaceLogDetailInfo.class));
+        schemeManager.unregister(Scheme.buildFromType(InterfaceLogRollup.class));
         schemeManager.unregister(Scheme.buildFromType(InterfaceLogRuleInfo.class));
+        schemeManager.unregister(Scheme.buildFromType(InterfaceLogSettingInfo.class));
         schemeManager.unregister(Scheme.buildFromType(RetentionDurationInfo.class));
     }
 }
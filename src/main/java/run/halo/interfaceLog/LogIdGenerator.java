@@ -0,0 +1,76 @@
+package run.halo.interfaceLog;
+
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.security.SecureRandom;
+
+/**
+ * 插件创建扩展时使用的名称生成器。
+ * <p>格式为 {@code <13 位毫秒时间戳>-<4 位节点>-<8 位序号>}，节点和序号使用小写 Crockford Base32。
+ * 时间戳保持十进制，与早期直接使用 {@code System.currentTimeMillis()} 的名称按字符串排序时顺序一致，
+ * 因此按 {@code metadata.name} 排序即按时间排序。</p>
+ * <p>同一毫秒内序号递增；序号用尽或系统时钟回拨时沿用上一个时间戳继续递增，保证单节点内严格单调。</p>
+ */
+public final class LogIdGenerator {
+
+    private static final char[] ALPHABET = "0123456789abcdefghjkmnpqrstvwxyz".toCharArray();
+
+    private static final int NODE_CHARS = 4;
+
+    private static final int SEQUENCE_CHARS = 8;
+
+    private static final long MAX_SEQUENCE = (1L << (SEQUENCE_CHARS * 5)) - 1;
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private static final String NODE = encode(nodeId(), NODE_CHARS);
+
+    private static long lastMillis;
+
+    private static long sequence;
+
+    private LogIdGenerator() {
+    }
+
+    public static String nextId() {
+        long millis;
+        long seq;
+        synchronized (LogIdGenerator.class) {
+            long now = System.currentTimeMillis();
+            if (now > lastMillis) {
+                lastMillis = now;
+                // 每毫秒从随机位置开始，只用低半区，给同一毫秒内的递增留出空间
+                sequence = RANDOM.nextLong(MAX_SEQUENCE >>> 1);
+            } else if (sequence < MAX_SEQUENCE) {
+                sequence++;
+            } else {
+                lastMillis++;
+                sequence = 0;
+            }
+            millis = lastMillis;
+            seq = sequence;
+        }
+        return String.format("%013d", millis) + "-" + NODE + "-" + encode(seq, SEQUENCE_CHARS);
+    }
+
+    private static String encode(long value, int length) {
+        char[] chars = new char[length];
+        for (int i = length - 1; i >= 0; i--) {
+            chars[i] = ALPHABET[(int) (value & 31)];
+            value >>>= 5;
+        }
+        return new String(chars);
+    }
+
+    private static long nodeId() {
+        long node = RANDOM.nextInt();
+        try {
+            String host = InetAddress.getLocalHost().getHostName();
+            String runtime = ManagementFactory.getRuntimeMXBean().getName();
+            node = (host + "/" + runtime).hashCode();
+        } catch (Exception ignored) {
+            // 取不到主机信息时使用随机节点号
+        }
+        return node & ((1L << (NODE_CHARS * 5)) - 1);
+    }
+}
@@ -0,0 +1,17 @@
+package run.halo.interfaceLog.codec;
+
+/**
+ * 请求头、内容的存储编码。编码结果仍是字符串，可以直接放进扩展的字段里。
+ * 实现类注册为 Spring Bean 即可在设置中按名称选用。
+ */
+public interface BodyCodec {
+
+    /**
+     * 写入记录的编码标记
+     */
+    String name();
+
+    String encode(String value);
+
+    String decode(String value);
+}
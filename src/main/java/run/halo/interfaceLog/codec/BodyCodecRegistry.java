@@ -0,0 +1,93 @@
+package run.halo.interfaceLog.codec;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import run.halo.interfaceLog.extension.InterfaceLogDetailInfo;
+import run.halo.interfaceLog.extension.InterfaceLogSettingInfo;
+import run.halo.interfaceLog.service.InterfaceLogSettingService;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 按名称查找编码器，负责日志写入时压缩、打开详情时解压。
+ * 列表、搜索只读取摘要字段，不会经过这里。
+ */
+@Slf4j
+@Component
+public class BodyCodecRegistry {
+
+    private final Map<String, BodyCodec> codecs;
+
+    private final InterfaceLogSettingService settingService;
+
+    public BodyCodecRegistry(List<BodyCodec> codecs, InterfaceLogSettingService settingService) {
+        this.codecs = codecs.stream()
+            .collect(Collectors.toMap(BodyCodec::name, Function.identity(), (a, b) -> a));
+        this.settingService = settingService;
+    }
+
+    /**
+     * 请求头和内容总长度达到阈值时整条记录使用设置的编码器，并写入编码标记。
+     */
+    public void encode(InterfaceLogDetailInfo detail) {
+        InterfaceLogDetailInfo.InterfaceLogDetailInfoSpec spec = detail.getSpec();
+        if (spec.getBodyCodec() != null) {
+            return;
+        }
+        InterfaceLogSettingInfo.CompressionSetting setting =
+            settingService.getCurrentSetting().getCompression();
+        BodyCodec codec = codecs.get(setting.getCodec());
+        if (codec == null || IdentityBodyCodec.NAME.equals(codec.name())
+            || detailLength(spec) < setting.getThresholdChars()) {
+            return;
+        }
+        try {
+            String requestHeader = codec.encode(spec.getRequestHeader());
+            String requestBody = codec.encode(spec.getRequestBody());
+            String responseHeader = codec.encode(spec.getResponseHeader());
+            String responseBody = codec.encode(spec.getResponseBody());
+            spec.setRequestHeader(requestHeader)
+                .setRequestBody(requestBody)
+                .setResponseHeader(responseHeader)
+                .setResponseBody(responseBody)
+                .setBodyCodec(codec.name());
+        } catch (RuntimeException e) {
+            // 压缩失败时按原文保存
+            log.warn("Failed to encode interface log {} with {}",
+                detail.getMetadata().getName(), codec.name(), e);
+        }
+    }
+
+    /**
+     * 还原为原文，没有编码标记的旧记录原样返回。
+     */
+    public InterfaceLogDetailInfo decode(InterfaceLogDetailInfo detail) {
+        InterfaceLogDetailInfo.InterfaceLogDetailInfoSpec spec = detail.getSpec();
+        String codecName = spec.getBodyCodec();
+        if (codecName == null || IdentityBodyCodec.NAME.equals(codecName)) {
+            return detail;
+        }
+        BodyCodec codec = codecs.get(codecName);
+        if (codec == null) {
+            throw new IllegalStateException("Unknown body codec: " + codecName);
+        }
+        spec.setRequestHeader(codec.decode(spec.getRequestHeader()))
+            .setRequestBody(codec.decode(spec.getRequestBody()))
+            .setResponseHeader(codec.decode(spec.getResponseHeader()))
+            .setResponseBody(codec.decode(spec.getResponseBody()))
+            .setBodyCodec(null);
+        return detail;
+    }
+
+    private static long detailLength(InterfaceLogDetailInfo.InterfaceLogDetailInfoSpec spec) {
+        return length(spec.getRequestHeader()) + length(spec.getRequestBody())
+            + length(spec.getResponseHeader()) + length(spec.getResponseBody());
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+}
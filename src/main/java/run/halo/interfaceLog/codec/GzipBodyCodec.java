@@ -0,0 +1,53 @@
+package run.halo.interfaceLog.codec;
+
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * GZIP 压缩后再 Base64 编码。
+ */
+@Component
+public class GzipBodyCodec implements BodyCodec {
+
+    public static final String NAME = "gzip";
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public String encode(String value) {
+        if (value == null) {
+            return null;
+        }
+        ByteArrayOutputStream output = new ByteArrayOutputStream(value.length() / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(output)) {
+            gzip.write(value.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return Base64.getEncoder().encodeToString(output.toByteArray());
+    }
+
+    @Override
+    public String decode(String value) {
+        if (value == null) {
+            return null;
+        }
+        byte[] compressed = Base64.getDecoder().decode(value);
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return new String(gzip.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package run.halo.interfaceLog.codec;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * 不压缩，原样保存。
+ */
+@Component
+public class IdentityBodyCodec implements BodyCodec {
+
+    public static final String NAME = "identity";
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public String encode(String value) {
+        return value;
+    }
+
+    @Override
+    public String decode(String value) {
+        return value;
+    }
+}
@@ -10,8 +10,10 @@ import org.springframework.web.reactive.function.server.ServerResponse;
 import reactor.core.publisher.Mono;
 import run.halo.app.core.extension.endpoint.CustomEndpoint;
 import run.halo.app.extension.GroupVersion;
+import run.halo.interfaceLog.extension.InterfaceLogInfo;
 import run.halo.interfaceLog.request.InterfaceLogRequest;
 import run.halo.interfaceLog.service.InterfaceLogService;
+import run.halo.interfaceLog.vo.ClearJobVO;
 
 import java.util.ArrayList;
 
@@ -34,8 +36,14 @@ public class InterfaceLogEndpoint implements CustomEndpoint {
                 .DELETE("/interfaceLog/deleteAll",
                         this::deleteAll,
                         builder -> builder.operationId("deleteAllInterfaceLogs")
-                                .description("delete all interface logs.")
-                                .response(responseBuilder().implementation(Boolean.class))
+                                .description("Start clearing all interface logs in the background.")
+                                .response(responseBuilder().implementation(ClearJobVO.class))
+                                .tag(tag))
+                .GET("/interfaceLog/deleteAll/status",
+                        this::getDeleteAllJob,
+                        builder -> builder.operationId("getDeleteAllInterfaceLogsJob")
+                                .description("Get progress of the latest clear-all job.")
+                                .response(responseBuilder().implementation(ClearJobVO.class))
                                 .tag(tag))
                 .GET("/interfaceLog/users",
                         this::getAllUserInLog,
@@ -61,6 +69,12 @@ public class InterfaceLogEndpoint implements CustomEndpoint {
                                 .description("Get interface log by condition.")
                                 .response(responseBuilder().implementation(ArrayList.class))
                                 .tag(tag))
+                .GET("/interfaceLog/detail",
+                        this::getInterfaceLogDetail,
+                        builder -> builder.operationId("GetInterfaceLogDetail")
+                                .description("Get a single interface log with decoded headers and bodies.")
+                                .response(responseBuilder().implementation(InterfaceLogInfo.class))
+                                .tag(tag))
                 .GET("/interfaceLog/count",
                         this::count,
                         builder -> builder.operationId("GetAllClientIPInLog")
@@ -76,6 +90,14 @@ public class InterfaceLogEndpoint implements CustomEndpoint {
                 .onErrorResume(e -> ServerResponse.status(500).bodyValue(e.getMessage()));
     }
 
+    private Mono<ServerResponse> getInterfaceLogDetail(ServerRequest request) {
+        return Mono.justOrEmpty(request.queryParam("name"))
+                .flatMap(interfaceLogService::getInterfaceLogDetail)
+                .flatMap(i -> ServerResponse.ok().bodyValue(i))
+                .switchIfEmpty(Mono.defer(() -> ServerResponse.notFound().build()))
+                .onErrorResume(e -> ServerResponse.status(500).bodyValue(e.getMessage()));
+    }
+
     private Mono<ServerResponse> getInterfaceLogByCondition(ServerRequest serverRequest) {
         ObjectMapper objectMapper = new ObjectMapper();
         return DataBufferUtils.join(serverRequest.exchange().getRequest().getBody())
@@ -98,7 +120,9 @@ public class InterfaceLogEndpoint implements CustomEndpoint {
                     if (ObjectUtils.isEmpty(interfaceLogRequest.getUsername())
                             && ObjectUtils.isEmpty(interfaceLogRequest.getClientIp())
                             && ObjectUtils.isEmpty(interfaceLogRequest.getPath())
-                            && ObjectUtils.isEmpty(interfaceLogRequest.getAccessTimes())) {
+                            && ObjectUtils.isEmpty(interfaceLogRequest.getAccessTimes())
+                            && interfaceLogRequest.getMinDurationMillis() == null
+                            && interfaceLogRequest.getMaxDurationMillis() == null) {
                         return interfaceLogService.getAllInterfaceLog(interfaceLogRequest)
                                 .flatMap(i -> ServerResponse.ok().bodyValue(i));
                     } else {
@@ -120,6 +144,13 @@ public class InterfaceLogEndpoint implements CustomEndpoint {
                 .onErrorResume(e -> ServerResponse.status(500).bodyValue(e.getMessage()));
     }
 
+    private Mono<ServerResponse> getDeleteAllJob(ServerRequest request) {
+        return interfaceLogService.getDeleteAllJob()
+                .flatMap(i -> ServerResponse.ok().bodyValue(i))
+                .switchIfEmpty(ServerResponse.notFound().build())
+                .onErrorResume(e -> ServerResponse.status(500).bodyValue(e.getMessage()));
+    }
+
     private Mono<ServerResponse> getAllUserInLog(ServerRequest request) {
         return interfaceLogService.getAllUserInLog(request.queryParam("username").orElse(""))
                 .distinct()
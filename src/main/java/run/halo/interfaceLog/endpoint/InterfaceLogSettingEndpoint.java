@@ -0,0 +1,61 @@
+package run.halo.interfaceLog.endpoint;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+import run.halo.app.core.extension.endpoint.CustomEndpoint;
+import run.halo.app.extension.GroupVersion;
+import run.halo.interfaceLog.extension.InterfaceLogSettingInfo;
+import run.halo.interfaceLog.service.InterfaceLogSettingService;
+
+import static org.springdoc.core.fn.builders.apiresponse.Builder.responseBuilder;
+import static org.springdoc.webflux.core.fn.SpringdocRouteBuilder.route;
+
+@Component
+public class InterfaceLogSettingEndpoint implements CustomEndpoint {
+
+    private final InterfaceLogSettingService interfaceLogSettingService;
+
+    public InterfaceLogSettingEndpoint(InterfaceLogSettingService interfaceLogSettingService) {
+        this.interfaceLogSettingService = interfaceLogSettingService;
+    }
+
+    @Override
+    public RouterFunction<ServerResponse> endpoint() {
+        var tag = "InterfaceLogSettingV1alpha1";
+        return route()
+            .POST("/interfaceLogSetting/set", this::setSetting,
+                builder -> builder.operationId("setInterfaceLogSetting")
+                    .description("Set interface log setting.")
+                    .response(responseBuilder().implementation(Boolean.class))
+                    .tag(tag))
+            .GET("/interfaceLogSetting/get", this::getSetting,
+                builder -> builder.operationId("getInterfaceLogSetting")
+                    .description("Get interface log setting.")
+                    .response(responseBuilder().implementation(InterfaceLogSettingInfo.class))
+                    .tag(tag))
+            .build();
+    }
+
+    @Override
+    public GroupVersion groupVersion() {
+        return GroupVersion.parseAPIVersion("dailyActive.halo.run/v1alpha1");
+    }
+
+    private Mono<ServerResponse> setSetting(ServerRequest request) {
+        return request.bodyToMono(InterfaceLogSettingInfo.InterfaceLogSettingInfoSpec.class)
+            .flatMap(interfaceLogSettingService::setSetting)
+            .flatMap(result -> ServerResponse.ok().bodyValue(result))
+            .onErrorResume(IllegalArgumentException.class,
+                e -> ServerResponse.badRequest().bodyValue(e.getMessage()))
+            .onErrorResume(e -> ServerResponse.status(500).bodyValue(e.getMessage()));
+    }
+
+    private Mono<ServerResponse> getSetting(ServerRequest request) {
+        return interfaceLogSettingService.getSetting()
+            .flatMap(info -> ServerResponse.ok().bodyValue(info))
+            .onErrorResume(e -> ServerResponse.status(500).bodyValue(e.getMessage()));
+    }
+}
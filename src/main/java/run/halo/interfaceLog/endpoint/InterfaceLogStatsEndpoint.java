@@ -0,0 +1,167 @@
+package run.halo.interfaceLog.endpoint;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+import run.halo.app.core.extension.endpoint.CustomEndpoint;
+import run.halo.app.extension.GroupVersion;
+import run.halo.interfaceLog.filter.CaptureMemoryBudget;
+import run.halo.interfaceLog.param.RollupSeriesParam;
+import run.halo.interfaceLog.sampling.InterfaceLogSampler;
+import run.halo.interfaceLog.stats.InterfaceLogCounters;
+import run.halo.interfaceLog.stats.InterfaceLogHeavyHitters;
+import run.halo.interfaceLog.stats.InterfaceLogRollups;
+import run.halo.interfaceLog.vo.CaptureStatsVO;
+import run.halo.interfaceLog.vo.CountStatsVO;
+import run.halo.interfaceLog.vo.DropStatsVO;
+import run.halo.interfaceLog.vo.HeavyHittersVO;
+import run.halo.interfaceLog.vo.InterfaceLogWriterStatsVO;
+import run.halo.interfaceLog.vo.PersistenceStatsVO;
+import run.halo.interfaceLog.vo.RollupSeriesVO;
+import run.halo.interfaceLog.vo.SamplingStatsVO;
+import run.halo.interfaceLog.writer.InterfaceLogWriter;
+import run.halo.interfaceLog.writer.PersistenceScheduler;
+
+import static org.springdoc.core.fn.builders.apiresponse.Builder.responseBuilder;
+import static org.springdoc.webflux.core.fn.SpringdocRouteBuilder.route;
+
+@Component
+public class InterfaceLogStatsEndpoint implements CustomEndpoint {
+
+    private final InterfaceLogWriter interfaceLogWriter;
+
+    private final CaptureMemoryBudget captureMemoryBudget;
+
+    private final InterfaceLogSampler interfaceLogSampler;
+
+    private final PersistenceScheduler persistenceScheduler;
+
+    private final InterfaceLogCounters interfaceLogCounters;
+
+    private final InterfaceLogRollups interfaceLogRollups;
+
+    private final InterfaceLogHeavyHitters interfaceLogHeavyHitters;
+
+    public InterfaceLogStatsEndpoint(InterfaceLogWriter interfaceLogWriter,
+        CaptureMemoryBudget captureMemoryBudget, InterfaceLogSampler interfaceLogSampler,
+        PersistenceScheduler persistenceScheduler, InterfaceLogCounters interfaceLogCounters,
+        InterfaceLogRollups interfaceLogRollups,
+        InterfaceLogHeavyHitters interfaceLogHeavyHitters) {
+        this.interfaceLogWriter = interfaceLogWriter;
+        this.captureMemoryBudget = captureMemoryBudget;
+        this.interfaceLogSampler = interfaceLogSampler;
+        this.persistenceScheduler = persistenceScheduler;
+        this.interfaceLogCounters = interfaceLogCounters;
+        this.interfaceLogRollups = interfaceLogRollups;
+        this.interfaceLogHeavyHitters = interfaceLogHeavyHitters;
+    }
+
+    @Override
+    public RouterFunction<ServerResponse> endpoint() {
+        var tag = "InterfaceLogStatsV1alpha1";
+        return route()
+            .GET("/interfaceLogStats/writer", this::writerStats,
+                builder -> builder.operationId("getInterfaceLogWriterStats")
+                    .description("Get queue depth and flush latency of the log writer.")
+                    .response(responseBuilder().implementation(InterfaceLogWriterStatsVO.class))
+                    .tag(tag))
+            .GET("/interfaceLogStats/capture", this::captureStats,
+                builder -> builder.operationId("getInterfaceLogCaptureStats")
+                    .description("Get capture memory budget usage and degradation count.")
+                    .response(responseBuilder().implementation(CaptureStatsVO.class))
+                    .tag(tag))
+            .GET("/interfaceLogStats/sampling", this::samplingStats,
+                builder -> builder.operationId("getInterfaceLogSamplingStats")
+                    .description("Get observed request rate and current adaptive sampling rate.")
+                    .response(responseBuilder().implementation(SamplingStatsVO.class))
+                    .tag(tag))
+            .GET("/interfaceLogStats/persistence", this::persistenceStats,
+                builder -> builder.operationId("getInterfaceLogPersistenceStats")
+                    .description("Get active and queued tasks of the persistence executor.")
+                    .response(responseBuilder().implementation(PersistenceStatsVO.class))
+                    .tag(tag))
+            .GET("/interfaceLogStats/drops", this::dropStats,
+                builder -> builder.operationId("getInterfaceLogDropStats")
+                    .description("Get overload policy and per-reason drop counters.")
+                    .response(responseBuilder().implementation(DropStatsVO.class))
+                    .tag(tag))
+            .GET("/interfaceLogStats/counts", this::countStats,
+                builder -> builder.operationId("getInterfaceLogCountStats")
+                    .description("Get live log counters in total, per day and per status class.")
+                    .response(responseBuilder().implementation(CountStatsVO.class))
+                    .tag(tag))
+            .GET("/interfaceLogStats/series", this::series,
+                builder -> builder.operationId("getInterfaceLogSeries")
+                    .description("Get pre-aggregated log counts per minute, hour or day, "
+                        + "optionally filtered by path, status class, method and username.")
+                    .response(responseBuilder().implementation(RollupSeriesVO.class))
+                    .tag(tag))
+            .GET("/interfaceLogStats/topn", this::topN,
+                builder -> builder.operationId("getInterfaceLogTopN")
+                    .description("Get approximate top paths, client IPs or usernames "
+                        + "by request count in the last minutes.")
+                    .response(responseBuilder().implementation(HeavyHittersVO.class))
+                    .tag(tag))
+            .build();
+    }
+
+    @Override
+    public GroupVersion groupVersion() {
+        return GroupVersion.parseAPIVersion("dailyActive.halo.run/v1alpha1");
+    }
+
+    private Mono<ServerResponse> writerStats(ServerRequest request) {
+        return ServerResponse.ok().bodyValue(interfaceLogWriter.stats())
+            .onErrorResume(e -> ServerResponse.status(500).bodyValue(e.getMessage()));
+    }
+
+    private Mono<ServerResponse> captureStats(ServerRequest request) {
+        return ServerResponse.ok().bodyValue(captureMemoryBudget.stats())
+            .onErrorResume(e -> ServerResponse.status(500).bodyValue(e.getMessage()));
+    }
+
+    private Mono<ServerResponse> samplingStats(ServerRequest request) {
+        return ServerResponse.ok().bodyValue(interfaceLogSampler.stats())
+            .onErrorResume(e -> ServerResponse.status(500).bodyValue(e.getMessage()));
+    }
+
+    private Mono<ServerResponse> persistenceStats(ServerRequest request) {
+        return ServerResponse.ok().bodyValue(persistenceScheduler.stats())
+            .onErrorResume(e -> ServerResponse.status(500).bodyValue(e.getMessage()));
+    }
+
+    private Mono<ServerResponse> dropStats(ServerRequest request) {
+        return ServerResponse.ok().bodyValue(interfaceLogWriter.dropStats())
+            .onErrorResume(e -> ServerResponse.status(500).bodyValue(e.getMessage()));
+    }
+
+    private Mono<ServerResponse> countStats(ServerRequest request) {
+        return ServerResponse.ok().bodyValue(interfaceLogCounters.stats())
+            .onErrorResume(e -> ServerResponse.status(500).bodyValue(e.getMessage()));
+    }
+
+    private Mono<ServerResponse> series(ServerRequest request) {
+        return Mono.fromSupplier(() -> new RollupSeriesParam()
+                .setResolution(request.queryParam("resolution").orElse("DAY"))
+                .setFrom(request.queryParam("from").map(Long::valueOf).orElse(null))
+                .setTo(request.queryParam("to").map(Long::valueOf).orElse(null))
+                .setPath(request.queryParam("path").orElse(null))
+                .setStatusClass(request.queryParam("statusClass").orElse(null))
+                .setMethod(request.queryParam("method").orElse(null))
+                .setUsername(request.queryParam("username").orElse(null)))
+            .flatMap(interfaceLogRollups::series)
+            .flatMap(i -> ServerResponse.ok().bodyValue(i))
+            .onErrorResume(e -> ServerResponse.status(500).bodyValue(e.getMessage()));
+    }
+
+    private Mono<ServerResponse> topN(ServerRequest request) {
+        return Mono.fromSupplier(() -> interfaceLogHeavyHitters.top(
+                request.queryParam("field").orElse(InterfaceLogHeavyHitters.FIELD_PATH),
+                request.queryParam("minutes").map(Integer::valueOf).orElse(5),
+                request.queryParam("size").map(Integer::valueOf).orElse(10)))
+            .flatMap(i -> ServerResponse.ok().bodyValue(i))
+            .onErrorResume(e -> ServerResponse.status(500).bodyValue(e.getMessage()));
+    }
+}
@@ -37,6 +37,12 @@ public class RetentionDurationInfoEndpoint implements CustomEndpoint {
                     .description("Get retention duration info.")
                     .response(responseBuilder().implementation(RetentionDurationInfo.class))
                     .tag(tag))
+            .GET("/retentionDuration/status", this::getRetentionStatus,
+                builder -> builder.operationId("getRetentionStatus")
+                    .description("Get progress of the background retention purge.")
+                    .response(responseBuilder().implementation(
+                        RetentionDurationInfo.RetentionDurationInfoStatus.class))
+                    .tag(tag))
             .build();
     }
 
@@ -57,4 +63,10 @@ public class RetentionDurationInfoEndpoint implements CustomEndpoint {
             .flatMap(info -> ServerResponse.ok().bodyValue(info))
             .switchIfEmpty(ServerResponse.notFound().build());
     }
-} 
\ No newline at end of file
+
+    private Mono<ServerResponse> getRetentionStatus(ServerRequest request) {
+        return retentionDurationInfoService.getRetentionStatus()
+            .flatMap(status -> ServerResponse.ok().bodyValue(status))
+            .onErrorResume(e -> ServerResponse.status(500).bodyValue(e.getMessage()));
+    }
+}
@@ -0,0 +1,73 @@
+package run.halo.interfaceLog.extension;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import lombok.experimental.Accessors;
+import run.halo.app.extension.AbstractExtension;
+import run.halo.app.extension.GVK;
+import run.halo.app.extension.Metadata;
+
+import static io.swagger.v3.oas.annotations.media.Schema.RequiredMode.REQUIRED;
+
+/**
+ * 日志明细：请求头、响应头和内容。名称与对应的 {@link InterfaceLogInfo} 相同，
+ * 列表、搜索和清理只读取摘要，只有打开单条详情时才按名称读取明细。
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+@ToString(callSuper = true)
+@GVK(group = "dailyActive.halo.run", version = "v1alpha1", kind = "InterfaceLogDetailInfo",
+    singular = "interfaceLogDetailInfo", plural = "interfaceLogDetailInfos")
+@Accessors(chain = true)
+public class InterfaceLogDetailInfo extends AbstractExtension {
+
+    public InterfaceLogDetailInfo() {
+        this.spec = new InterfaceLogDetailInfoSpec();
+    }
+
+    @Schema(requiredMode = REQUIRED)
+    private InterfaceLogDetailInfoSpec spec;
+
+    /**
+     * 拆分前的旧记录把明细存在摘要里，读取时转换成明细统一处理。
+     */
+    @SuppressWarnings("deprecation")
+    public static InterfaceLogDetailInfo fromLegacy(InterfaceLogInfo interfaceLogInfo) {
+        InterfaceLogInfo.InterfaceLogInfoSpec legacy = interfaceLogInfo.getSpec();
+        InterfaceLogDetailInfo detail = new InterfaceLogDetailInfo();
+        detail.setMetadata(new Metadata());
+        detail.getMetadata().setName(interfaceLogInfo.getMetadata().getName());
+        detail.getSpec()
+            .setRequestHeader(legacy.getRequestHeader())
+            .setRequestBody(legacy.getRequestBody())
+            .setResponseHeader(legacy.getResponseHeader())
+            .setResponseBody(legacy.getResponseBody())
+            .setBodyCodec(legacy.getBodyCodec());
+        return detail;
+    }
+
+    @Data
+    @ToString
+    @AllArgsConstructor
+    @NoArgsConstructor
+    @Accessors(chain = true)
+    public static class InterfaceLogDetailInfoSpec {
+
+        private String requestHeader;
+
+        private String requestBody;
+
+        private String responseHeader;
+
+        private String responseBody;
+
+        /**
+         * 以上字段的编码方式，为空表示原文
+         */
+        private String bodyCodec;
+    }
+}
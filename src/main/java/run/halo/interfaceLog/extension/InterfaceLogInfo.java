@@ -16,6 +16,9 @@ import java.util.Map;
 
 import static io.swagger.v3.oas.annotations.media.Schema.RequiredMode.REQUIRED;
 
+/**
+ * 日志摘要，列表、搜索和清理只读取这部分；明细见 {@link InterfaceLogDetailInfo}。
+ */
 @Data
 @EqualsAndHashCode(callSuper = true)
 @ToString(callSuper = true)
@@ -44,21 +47,64 @@ public class InterfaceLogInfo extends AbstractExtension {
 
         private Date accessTime;
 
+        private Date endTime;
+
+        /**
+         * 处理耗时，单位微秒
+         */
+        private Long durationMicros;
+
         private String path;
 
         private String requestType;
 
+        /**
+         * 仅拆分前的旧记录使用，新记录保存在 {@link InterfaceLogDetailInfo} 中
+         */
+        @Deprecated
         private String requestHeader;
 
         private Map<String, String> requestParams = new HashMap<>();
 
+        /**
+         * 仅拆分前的旧记录使用，新记录保存在 {@link InterfaceLogDetailInfo} 中
+         */
+        @Deprecated
         private String requestBody;
 
+        private Long requestBodySize;
+
+        /**
+         * 仅拆分前的旧记录使用，新记录保存在 {@link InterfaceLogDetailInfo} 中
+         */
+        @Deprecated
         private String responseHeader;
 
+        /**
+         * 仅拆分前的旧记录使用，新记录保存在 {@link InterfaceLogDetailInfo} 中
+         */
+        @Deprecated
         private String responseBody;
 
+        private Long responseBodySize;
+
         private String responseStatus;
+
+        /**
+         * 这条记录代表的请求数，统计时按此放大
+         */
+        private Double sampleWeight = 1.0;
+
+        /**
+         * 尾部采集模式下未命中条件的请求只保存摘要，不含请求头、响应头和内容
+         */
+        private Boolean summaryOnly = false;
+
+        /**
+         * 仅拆分前的旧记录使用，新记录保存在 {@link InterfaceLogDetailInfo} 中
+         */
+        @Deprecated
+        private String bodyCodec;
     }
 }
 
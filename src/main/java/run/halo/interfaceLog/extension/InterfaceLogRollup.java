@@ -0,0 +1,76 @@
+package run.halo.interfaceLog.extension;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import lombok.experimental.Accessors;
+import run.halo.app.extension.AbstractExtension;
+import run.halo.app.extension.GVK;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static io.swagger.v3.oas.annotations.media.Schema.RequiredMode.REQUIRED;
+
+/**
+ * 一个时间桶内按路径、状态类别、请求方法和用户汇总的日志条数，
+ * 每个精度、每个桶一个对象，名称为 精度-桶开始时间。
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+@ToString(callSuper = true)
+@GVK(group = "dailyActive.halo.run", version = "v1alpha1", kind = "InterfaceLogRollup",
+    singular = "interfaceLogRollup", plural = "interfaceLogRollups")
+@Accessors(chain = true)
+public class InterfaceLogRollup extends AbstractExtension {
+
+    public InterfaceLogRollup() {
+        this.spec = new InterfaceLogRollupSpec();
+    }
+
+    @Schema(requiredMode = REQUIRED)
+    private InterfaceLogRollupSpec spec;
+
+    public static String nameOf(String resolution, long bucketStart) {
+        return resolution.toLowerCase() + "-" + bucketStart;
+    }
+
+    @Data
+    @ToString
+    @AllArgsConstructor
+    @NoArgsConstructor
+    @Accessors(chain = true)
+    public static class InterfaceLogRollupSpec {
+        /**
+         * MINUTE、HOUR 或 DAY
+         */
+        private String resolution;
+
+        /**
+         * 桶开始时间，毫秒时间戳
+         */
+        private Long bucketStart;
+
+        private List<RollupEntry> entries = new ArrayList<>();
+    }
+
+    @Data
+    @ToString
+    @AllArgsConstructor
+    @NoArgsConstructor
+    @Accessors(chain = true)
+    public static class RollupEntry {
+        private String path;
+
+        private String statusClass;
+
+        private String method;
+
+        private String username;
+
+        private Long count;
+    }
+}
@@ -10,6 +10,8 @@ import lombok.experimental.Accessors;
 import run.halo.app.extension.AbstractExtension;
 import run.halo.app.extension.GVK;
 
+import java.util.List;
+
 import static io.swagger.v3.oas.annotations.media.Schema.RequiredMode.REQUIRED;
 
 @Data
@@ -38,5 +40,17 @@ public class InterfaceLogRuleInfo extends AbstractExtension {
         private Boolean isInclude;
         private String rule;
         private String version;
+
+        /**
+         * 以下为可选的采集覆盖项，为空时使用全局设置
+         */
+        private Integer maxBodyBytes;
+        private List<String> allowContentTypes;
+        private List<String> denyContentTypes;
+
+        /**
+         * 采样率，取值 0~1，为空时全部记录
+         */
+        private Double sampleRate;
     }
 }
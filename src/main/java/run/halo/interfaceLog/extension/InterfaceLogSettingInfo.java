@@ -0,0 +1,213 @@
+package run.halo.interfaceLog.extension;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import lombok.experimental.Accessors;
+import run.halo.app.extension.AbstractExtension;
+import run.halo.app.extension.GVK;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static io.swagger.v3.oas.annotations.media.Schema.RequiredMode.REQUIRED;
+
+@Data
+@EqualsAndHashCode(callSuper = true)
+@ToString(callSuper = true)
+@GVK(group = "dailyActive.halo.run", version = "v1alpha1", kind = "InterfaceLogSettingInfo",
+    singular = "interfaceLogSettingInfo", plural = "interfaceLogSettingInfos")
+@Accessors(chain = true)
+public class InterfaceLogSettingInfo extends AbstractExtension {
+
+    public static final String NAME = "interface-log-setting";
+
+    public InterfaceLogSettingInfo() {
+        this.spec = new InterfaceLogSettingInfoSpec();
+    }
+
+    @Schema(requiredMode = REQUIRED)
+    private InterfaceLogSettingInfoSpec spec;
+
+    @Data
+    @ToString
+    @AllArgsConstructor
+    @NoArgsConstructor
+    @Accessors(chain = true)
+    public static class InterfaceLogSettingInfoSpec {
+
+        private WriterSetting writer = new WriterSetting();
+
+        private CaptureSetting capture = new CaptureSetting();
+
+        private SamplingSetting sampling = new SamplingSetting();
+
+        private PersistenceSetting persistence = new PersistenceSetting();
+
+        private CompressionSetting compression = new CompressionSetting();
+
+        private StorageSetting storage = new StorageSetting();
+    }
+
+    /**
+     * 异步批量写入日志的参数
+     */
+    @Data
+    @ToString
+    @NoArgsConstructor
+    @Accessors(chain = true)
+    public static class WriterSetting {
+
+        private Integer queueCapacity = 10000;
+
+        private Integer batchSize = 100;
+
+        private Long flushIntervalMillis = 1000L;
+
+        private Integer maxRetries = 3;
+
+        /**
+         * 队列积压时的处理方式：DROP_NEWEST、DROP_OLDEST、DROP_BODIES、BLOCK
+         */
+        private String overloadPolicy = "DROP_NEWEST";
+
+        /**
+         * BLOCK 策略下等待队列空位的最长时间
+         */
+        private Long blockTimeoutMillis = 200L;
+
+        /**
+         * DROP_BODIES 策略下队列占用超过该比例后只保存摘要
+         */
+        private Double bodyDropRatio = 0.8;
+    }
+
+    /**
+     * 请求、响应内容采集的参数
+     */
+    @Data
+    @ToString
+    @NoArgsConstructor
+    @Accessors(chain = true)
+    public static class CaptureSetting {
+
+        private Integer maxBodyBytes = 64 * 1024;
+
+        private String truncationMarker = "...[truncated]";
+
+        /**
+         * 非空时只采集这些类型的内容，支持 {@code text/*} 这样的通配
+         */
+        private List<String> allowContentTypes = new ArrayList<>();
+
+        private List<String> denyContentTypes = new ArrayList<>(List.of(
+            "multipart/*", "application/octet-stream", "application/zip", "application/pdf",
+            "image/*", "audio/*", "video/*", "font/*"));
+
+        /**
+         * 所有请求同时缓冲的内容总字节数上限，小于等于 0 表示不限制
+         */
+        private Long memoryBudgetBytes = 64L * 1024 * 1024;
+
+        /**
+         * 尾部采集：开启后只有状态码命中 tailStatuses 或耗时超过 slowThresholdMillis 的请求
+         * 才保存请求头、响应头和内容，其余只保存摘要
+         */
+        private Boolean tailMode = false;
+
+        /**
+         * 支持 5xx 这样的状态类别，也支持 429 这样的具体状态码
+         */
+        private List<String> tailStatuses = new ArrayList<>(List.of("4xx", "5xx"));
+
+        private Long slowThresholdMillis = 1000L;
+    }
+
+    /**
+     * 自适应采样：开启后把保存速率控制在每秒 maxRecordsPerSecond 条以内
+     */
+    @Data
+    @ToString
+    @NoArgsConstructor
+    @Accessors(chain = true)
+    public static class SamplingSetting {
+
+        private Boolean adaptive = false;
+
+        private Integer maxRecordsPerSecond = 100;
+    }
+
+    /**
+     * 日志序列化、持久化使用的专用线程池，不占用处理请求的事件循环线程
+     */
+    @Data
+    @ToString
+    @NoArgsConstructor
+    @Accessors(chain = true)
+    public static class PersistenceSetting {
+
+        /**
+         * auto：JDK 21 及以上使用虚拟线程，否则使用平台线程；virtual；fixed
+         */
+        private String executorType = "auto";
+
+        private Integer poolSize = 2;
+
+        /**
+         * 等待执行的任务数上限，超出时任务被拒绝并计入失败
+         */
+        private Integer maxQueuedTasks = 1000;
+    }
+
+    /**
+     * 请求头和内容的压缩存储，codec 为 identity 时不压缩
+     */
+    @Data
+    @ToString
+    @NoArgsConstructor
+    @Accessors(chain = true)
+    public static class CompressionSetting {
+
+        private String codec = "gzip";
+
+        /**
+         * 请求头和内容的总字符数达到该值才压缩，太短的内容压缩后反而更长
+         */
+        private Integer thresholdChars = 1024;
+    }
+
+    /**
+     * 日志存储后端，切换后端不会迁移已有日志
+     */
+    @Data
+    @ToString
+    @NoArgsConstructor
+    @Accessors(chain = true)
+    public static class StorageSetting {
+
+        /**
+         * extension 使用 Halo 扩展存储，segment 使用本地段文件
+         */
+        private String backend = "extension";
+
+        /**
+         * 段文件目录，为空时使用 Halo 工作目录下的 interface-log/segments
+         */
+        private String segmentDirectory = "";
+
+        private Integer segmentSizeBytes = 64 * 1024 * 1024;
+
+        /**
+         * 每多少条记录建立一个稀疏时间索引块
+         */
+        private Integer indexIntervalRecords = 64;
+
+        /**
+         * 分区粒度，DAY 或 HOUR，清理时整个分区一起删除
+         */
+        private String partitionGranularity = "DAY";
+    }
+}
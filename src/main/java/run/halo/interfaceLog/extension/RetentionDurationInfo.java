@@ -19,6 +19,9 @@ import static io.swagger.v3.oas.annotations.media.Schema.RequiredMode.REQUIRED;
     singular = "retentionDurationInfo", plural = "retentionDurationInfos")
 @Accessors(chain = true)
 public class RetentionDurationInfo extends AbstractExtension {
+
+    public static final String NAME = "interface-log-retention-duration";
+
     public RetentionDurationInfo() {
         this.spec = new RetentionDurationInfoSpec();
     }
@@ -26,6 +29,11 @@ public class RetentionDurationInfo extends AbstractExtension {
     @Schema(requiredMode = REQUIRED)
     private RetentionDurationInfo.RetentionDurationInfoSpec spec;
 
+    /**
+     * 后台清理的进度，由清理任务写入
+     */
+    private RetentionDurationInfo.RetentionDurationInfoStatus status;
+
     @Data
     @ToString
     @AllArgsConstructor
@@ -33,5 +41,78 @@ public class RetentionDurationInfo extends AbstractExtension {
     @Accessors(chain = true)
     public static class RetentionDurationInfoSpec {
         private Integer day;
+
+        /**
+         * 两次清理之间的间隔，一次清理会分批删完当时的全部过期日志
+         */
+        private Integer intervalSeconds = 300;
+
+        private Integer batchSize = 500;
+
+        /**
+         * 同时进行的删除请求数
+         */
+        private Integer concurrency = 4;
+
+        /**
+         * 每秒最多删除的条数，0 表示不限速
+         */
+        private Integer maxDeletesPerSecond = 200;
+
+        /**
+         * 最多保留的日志条数，0 表示不限制
+         */
+        private Long maxRecords = 0L;
+
+        /**
+         * 日志最多占用的字节数（估算），0 表示不限制
+         */
+        private Long maxStorageBytes = 0L;
+
+        /**
+         * 磁盘剩余空间低于该百分比时从最旧的日志开始删除，0 表示不检查
+         */
+        private Integer minFreeDiskPercent = 0;
+    }
+
+    @Data
+    @ToString
+    @NoArgsConstructor
+    @Accessors(chain = true)
+    public static class RetentionDurationInfoStatus {
+
+        /**
+         * 已清理到的访问时间（毫秒），重启后从这里继续，早于它的日志已删除
+         */
+        private Long checkpoint = 0L;
+
+        private Long lastRunAt;
+
+        private Long lastFinishedAt;
+
+        private Long lastRunDeleted = 0L;
+
+        private Long totalDeleted = 0L;
+
+        /**
+         * 最近一批结束时仍待删除的过期日志数估计
+         */
+        private Long backlog = 0L;
+
+        /**
+         * 最近一次运行时的日志条数和估算占用
+         */
+        private Long records;
+
+        private Long estimatedBytes;
+
+        /**
+         * 最近一次按条数、大小或磁盘空间清理的原因，没有超出限制时为空
+         */
+        private String lastEvictionReason;
+
+        private Boolean running = false;
+
+        private String lastError;
     }
 }
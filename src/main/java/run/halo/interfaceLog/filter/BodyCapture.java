@@ -0,0 +1,118 @@
+package run.halo.interfaceLog.filter;
+
+import org.springframework.core.io.buffer.DataBuffer;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * 旁路复制经过的 {@link DataBuffer}，只保留前 {@code limit} 个字节，不改变原缓冲区的读位置。
+ */
+public class BodyCapture {
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    private final CaptureMemoryBudget budget;
+
+    private int limit;
+
+    private String skippedReason;
+
+    private long reserved;
+
+    private boolean released;
+
+    private byte[] bytes = new byte[0];
+
+    private int length;
+
+    private long totalBytes;
+
+    public BodyCapture(int limit) {
+        this(limit, null);
+    }
+
+    public BodyCapture(int limit, CaptureMemoryBudget budget) {
+        this.limit = Math.max(limit, 0);
+        this.budget = budget;
+    }
+
+    public void append(DataBuffer buffer) {
+        int readable = buffer.readableByteCount();
+        totalBytes += readable;
+        int copy = Math.min(readable, limit - length);
+        if (copy <= 0) {
+            return;
+        }
+        if (!ensureCapacity(length + copy)) {
+            // 预算不足，停止复制，后续只统计字节数
+            limit = length;
+            budget.recordDegraded();
+            return;
+        }
+        buffer.toByteBuffer(buffer.readPosition(), ByteBuffer.wrap(bytes), length, copy);
+        length += copy;
+    }
+
+    /**
+     * 不再复制内容，只统计字节数，需在第一个缓冲区到达前调用。
+     */
+    public void skip(String reason) {
+        this.limit = 0;
+        this.skippedReason = reason;
+    }
+
+    /**
+     * 把占用的预算归还，可重复调用。
+     */
+    public synchronized void release() {
+        if (released) {
+            return;
+        }
+        released = true;
+        if (budget != null) {
+            budget.release(reserved);
+        }
+    }
+
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
+    public boolean isTruncated() {
+        return totalBytes > length;
+    }
+
+    public String asString(Charset charset) {
+        return new String(bytes, 0, length, charset);
+    }
+
+    /**
+     * 生成写入日志的文本：跳过的内容只记录类型和大小，超出上限的内容追加截断标记。
+     */
+    public String render(Charset charset, String truncationMarker) {
+        if (skippedReason != null) {
+            return totalBytes == 0 ? ""
+                : "[body omitted: " + skippedReason + ", " + totalBytes + " bytes]";
+        }
+        String text = asString(charset);
+        return isTruncated() ? text + truncationMarker : text;
+    }
+
+    private synchronized boolean ensureCapacity(int required) {
+        if (required <= bytes.length) {
+            return true;
+        }
+        int capacity = Math.min(
+            Math.max(required, Math.max(INITIAL_CAPACITY, bytes.length * 2)), limit);
+        if (budget != null) {
+            if (released || !budget.tryAcquire(capacity - bytes.length)) {
+                return false;
+            }
+            reserved += capacity - bytes.length;
+        }
+        bytes = Arrays.copyOf(bytes, capacity);
+        return true;
+    }
+}
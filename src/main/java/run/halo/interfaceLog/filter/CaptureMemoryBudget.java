@@ -0,0 +1,70 @@
+package run.halo.interfaceLog.filter;
+
+import org.springframework.stereotype.Component;
+import run.halo.interfaceLog.service.InterfaceLogSettingService;
+import run.halo.interfaceLog.vo.CaptureStatsVO;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 插件级的采集内存预算，所有请求、响应体缓冲共享。
+ * 预算用尽时新请求只记录元数据，已在采集中的内容停止继续复制。
+ */
+@Component
+public class CaptureMemoryBudget {
+
+    private final InterfaceLogSettingService settingService;
+
+    private final AtomicLong used = new AtomicLong();
+
+    private final LongAdder degraded = new LongAdder();
+
+    public CaptureMemoryBudget(InterfaceLogSettingService settingService) {
+        this.settingService = settingService;
+    }
+
+    public boolean tryAcquire(long bytes) {
+        long limit = limit();
+        if (limit <= 0) {
+            used.addAndGet(bytes);
+            return true;
+        }
+        while (true) {
+            long current = used.get();
+            if (current + bytes > limit) {
+                return false;
+            }
+            if (used.compareAndSet(current, current + bytes)) {
+                return true;
+            }
+        }
+    }
+
+    public void release(long bytes) {
+        if (bytes > 0) {
+            used.addAndGet(-bytes);
+        }
+    }
+
+    public boolean isExhausted() {
+        long limit = limit();
+        return limit > 0 && used.get() >= limit;
+    }
+
+    public void recordDegraded() {
+        degraded.increment();
+    }
+
+    public CaptureStatsVO stats() {
+        return new CaptureStatsVO()
+            .setBudgetBytes(limit())
+            .setUsedBytes(used.get())
+            .setDegraded(degraded.sum());
+    }
+
+    private long limit() {
+        Long limit = settingService.getCurrentSetting().getCapture().getMemoryBudgetBytes();
+        return limit == null ? 0 : limit;
+    }
+}
@@ -0,0 +1,117 @@
+package run.halo.interfaceLog.filter;
+
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import run.halo.interfaceLog.extension.InterfaceLogRuleInfo;
+import run.halo.interfaceLog.extension.InterfaceLogSettingInfo;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 单个请求生效的采集策略：规则上的覆盖项优先，其余取全局设置。
+ */
+public class CapturePolicy {
+
+    private static final Map<String, MediaType> MEDIA_TYPE_CACHE = new ConcurrentHashMap<>();
+
+    private final int maxBodyBytes;
+
+    private final String truncationMarker;
+
+    private final List<MediaType> allowContentTypes;
+
+    private final List<MediaType> denyContentTypes;
+
+    private final boolean tailMode;
+
+    private final List<String> tailStatuses;
+
+    private final long slowThresholdMillis;
+
+    public CapturePolicy(InterfaceLogSettingInfo.CaptureSetting setting,
+        InterfaceLogRuleInfo.InterfaceLogRuleInfoSpec rule) {
+        InterfaceLogRuleInfo.InterfaceLogRuleInfoSpec override =
+            rule == null ? new InterfaceLogRuleInfo.InterfaceLogRuleInfoSpec() : rule;
+        this.maxBodyBytes = Objects.requireNonNullElse(override.getMaxBodyBytes(),
+            setting.getMaxBodyBytes());
+        this.truncationMarker = Objects.requireNonNullElse(setting.getTruncationMarker(), "");
+        this.allowContentTypes = parse(Objects.requireNonNullElse(override.getAllowContentTypes(),
+            setting.getAllowContentTypes()));
+        this.denyContentTypes = parse(Objects.requireNonNullElse(override.getDenyContentTypes(),
+            setting.getDenyContentTypes()));
+        this.tailMode = Boolean.TRUE.equals(setting.getTailMode());
+        this.tailStatuses = Objects.requireNonNullElse(setting.getTailStatuses(), List.of());
+        this.slowThresholdMillis = Objects.requireNonNullElse(setting.getSlowThresholdMillis(),
+            Long.MAX_VALUE);
+    }
+
+    public int getMaxBodyBytes() {
+        return maxBodyBytes;
+    }
+
+    public String getTruncationMarker() {
+        return truncationMarker;
+    }
+
+    /**
+     * 未声明类型的内容照常采集；命中拒绝列表，或允许列表非空且未命中时不采集。
+     */
+    public boolean shouldCapture(MediaType contentType) {
+        if (contentType == null) {
+            return true;
+        }
+        if (denyContentTypes.stream().anyMatch(type -> type.includes(contentType))) {
+            return false;
+        }
+        return allowContentTypes.isEmpty()
+            || allowContentTypes.stream().anyMatch(type -> type.includes(contentType));
+    }
+
+    /**
+     * 是否保存完整的请求、响应明细。未开启尾部采集时总是保存。
+     */
+    public boolean shouldKeepDetail(Integer status, long elapsedMillis) {
+        if (!tailMode || elapsedMillis >= slowThresholdMillis) {
+            return true;
+        }
+        if (status == null) {
+            return false;
+        }
+        String code = String.valueOf(status);
+        return tailStatuses.stream().anyMatch(pattern -> matchesStatus(pattern, code));
+    }
+
+    private static boolean matchesStatus(String pattern, String code) {
+        if (pattern == null || pattern.length() != code.length()) {
+            return false;
+        }
+        for (int i = 0; i < pattern.length(); i++) {
+            char expected = Character.toLowerCase(pattern.charAt(i));
+            if (expected != 'x' && expected != code.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static List<MediaType> parse(List<String> types) {
+        if (types == null) {
+            return List.of();
+        }
+        return types.stream()
+            .map(type -> MEDIA_TYPE_CACHE.computeIfAbsent(type, CapturePolicy::parseOrNull))
+            .filter(Objects::nonNull)
+            .toList();
+    }
+
+    private static MediaType parseOrNull(String type) {
+        try {
+            return MediaType.parseMediaType(type);
+        } catch (InvalidMediaTypeException e) {
+            return null;
+        }
+    }
+}
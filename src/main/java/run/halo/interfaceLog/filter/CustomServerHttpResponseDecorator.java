@@ -1,52 +1,179 @@
 package run.halo.interfaceLog.filter;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.core.io.buffer.DataBuffer;
-import org.springframework.core.io.buffer.DataBufferUtils;
-import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
 import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import run.halo.app.extension.ReactiveExtensionClient;
 import run.halo.interfaceLog.SpringContextUtils;
+import run.halo.interfaceLog.extension.InterfaceLogDetailInfo;
 import run.halo.interfaceLog.extension.InterfaceLogInfo;
+import run.halo.interfaceLog.writer.InterfaceLogWriter;
+import run.halo.interfaceLog.writer.PendingInterfaceLog;
+
+import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+/**
+ * 响应体边转发边复制：每个 {@link DataBuffer} 到达后立即写给客户端，
+ * 只把不超过上限的部分复制进日志，过滤链结束后再交给写入器。
+ * 请求头序列化和内容解码推迟到持久化线程执行。
+ */
 public class CustomServerHttpResponseDecorator extends ServerHttpResponseDecorator {
 
-    private ReactiveExtensionClient client =
-        SpringContextUtils.getBean(ReactiveExtensionClient.class);
+    private static final Logger logger =
+        LoggerFactory.getLogger(CustomServerHttpResponseDecorator.class);
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private InterfaceLogWriter interfaceLogWriter =
+        SpringContextUtils.getBean(InterfaceLogWriter.class);
+
+    private final InterfaceLogCaptureContext context;
+
+    private final BodyCapture responseCapture;
+
+    private final AtomicBoolean completed = new AtomicBoolean(false);
+
+    private final AtomicBoolean submitted = new AtomicBoolean(false);
 
-    private InterfaceLogInfo interfaceLogInfo;
+    private volatile PendingInterfaceLog pendingLog;
 
     public CustomServerHttpResponseDecorator(ServerHttpResponse serverHttpResponse,
-        InterfaceLogInfo interfaceLogInfo) {
+        InterfaceLogCaptureContext context) {
         super(serverHttpResponse);
-        this.interfaceLogInfo = interfaceLogInfo;
+        this.context = context;
+        this.responseCapture = context.getResponseBody();
     }
 
     @Override
     public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
-        return DataBufferUtils.join(body)
-            .map(dataBuffer -> {
-                byte[] content = new byte[dataBuffer.readableByteCount()];
-                dataBuffer.read(content);
-                DataBufferUtils.release(dataBuffer);
-                return new String(content, StandardCharsets.UTF_8);
-            })
-            .defaultIfEmpty("")
-            .flatMap(tuple -> {
-                interfaceLogInfo.getSpec().setResponseBody(tuple);
-                interfaceLogInfo.getSpec()
-                    .setResponseHeader(getHeaders().toSingleValueMap().toString());
-                interfaceLogInfo.getSpec().setResponseStatus(
-                    getStatusCode() == null ? "UNKNOWN" : String.valueOf(getStatusCode().value()));
-                return client.create(interfaceLogInfo).thenReturn(tuple);
-            })
-            .flatMap(response -> {
-                byte[] bytes = response.getBytes(StandardCharsets.UTF_8);
-                DataBuffer dataBuffer = new DefaultDataBufferFactory().wrap(bytes);
-                return getDelegate().writeWith(Mono.just(dataBuffer));
-            });
+        checkContentType();
+        return getDelegate().writeWith(Flux.from(body).doOnNext(responseCapture::append))
+            .doFinally(signal -> complete());
+    }
+
+    @Override
+    public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+        checkContentType();
+        return getDelegate().writeAndFlushWith(Flux.from(body)
+                .map(chunk -> Flux.from(chunk).doOnNext(responseCapture::append)))
+            .doFinally(signal -> complete());
+    }
+
+    @Override
+    public Mono<Void> setComplete() {
+        return getDelegate().setComplete()
+            .doFinally(signal -> complete());
+    }
+
+    private void checkContentType() {
+        MediaType contentType = getHeaders().getContentType();
+        if (!context.getCapturePolicy().shouldCapture(contentType)) {
+            responseCapture.skip(contentType.toString());
+        }
+    }
+
+    /**
+     * 过滤链正常结束后提交日志，BLOCK 策略下返回的信号会等到日志入队或超时。
+     */
+    Mono<Void> submit() {
+        complete();
+        if (!submitted.compareAndSet(false, true)) {
+            return Mono.empty();
+        }
+        return interfaceLogWriter.submit(pendingLog);
+    }
+
+    /**
+     * 过滤链异常或取消时立即提交，不等待。
+     */
+    void submitNow() {
+        complete();
+        if (submitted.compareAndSet(false, true)) {
+            interfaceLogWriter.enqueue(pendingLog);
+        }
+    }
+
+    /**
+     * 响应写完或过滤链结束时调用，只生效一次，记录耗时、状态并生成待写入的日志。
+     */
+    void complete() {
+        if (!completed.compareAndSet(false, true)) {
+            return;
+        }
+        long elapsedNanos = System.nanoTime() - context.getStartNanos();
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+        InterfaceLogInfo interfaceLogInfo = context.getInterfaceLogInfo();
+        InterfaceLogInfo.InterfaceLogInfoSpec spec = interfaceLogInfo.getSpec();
+        HttpStatusCode statusCode = getStatusCode();
+        BodyCapture requestCapture = context.getRequestBody();
+        spec.setEndTime(new Date());
+        spec.setDurationMicros(TimeUnit.NANOSECONDS.toMicros(elapsedNanos));
+        spec.setResponseStatus(statusCode == null ? "UNKNOWN" : String.valueOf(statusCode.value()));
+        spec.setRequestBodySize(requestCapture.getTotalBytes());
+        spec.setResponseBodySize(responseCapture.getTotalBytes());
+
+        CapturePolicy capturePolicy = context.getCapturePolicy();
+        if (!capturePolicy.shouldKeepDetail(statusCode == null ? null : statusCode.value(),
+            elapsedMillis)) {
+            // 成功且不慢的请求只保存摘要
+            spec.setSummaryOnly(true);
+            context.release();
+            pendingLog = PendingInterfaceLog.of(interfaceLogInfo);
+            return;
+        }
+        // 事件循环上只保留请求头、响应头的快照，序列化和解码交给持久化线程
+        HttpHeaders requestHeaders = snapshot(context.getRequestHeaders());
+        HttpHeaders responseHeaders = snapshot(getHeaders());
+        Charset responseCharset = charset();
+        pendingLog = new PendingInterfaceLog(interfaceLogInfo, detailInfo -> {
+            String truncationMarker = capturePolicy.getTruncationMarker();
+            InterfaceLogDetailInfo.InterfaceLogDetailInfoSpec detail = detailInfo.getSpec();
+            detail.setRequestHeader(generateRequestHeader(requestHeaders));
+            detail.setRequestBody(
+                requestCapture.render(context.getRequestCharset(), truncationMarker));
+            detail.setResponseHeader(responseHeaders.toSingleValueMap().toString());
+            detail.setResponseBody(responseCapture.render(responseCharset, truncationMarker));
+        }, context::release);
+    }
+
+    private HttpHeaders snapshot(HttpHeaders headers) {
+        if (headers == null) {
+            return null;
+        }
+        HttpHeaders copy = new HttpHeaders();
+        copy.putAll(headers);
+        return copy;
+    }
+
+    private String generateRequestHeader(HttpHeaders headers) {
+        if (headers == null) {
+            return "{}";
+        }
+        try {
+            return OBJECT_MAPPER.writeValueAsString(headers);
+        } catch (JsonProcessingException e) {
+            logger.error("Error converting headers to JSON", e);
+            return "{}";
+        }
+    }
+
+    private Charset charset() {
+        return Optional.ofNullable(getHeaders().getContentType())
+            .map(MediaType::getCharset)
+            .orElse(StandardCharsets.UTF_8);
     }
 }
@@ -1,44 +1,25 @@
 package run.halo.interfaceLog.filter;
 
 import org.springframework.core.io.buffer.DataBuffer;
-import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
-import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Flux;
-import reactor.core.publisher.Mono;
-import run.halo.interfaceLog.extension.InterfaceLogInfo;
 
+/**
+ * 请求体只读一次：下游读取时原样透传每个 {@link DataBuffer}，同时旁路复制到采集上下文，
+ * 不再提前 join 或转成字符串。
+ */
 public class GenerateInterfaceLogInfoServerHttpRequestDecorator extends ServerHttpRequestDecorator {
-    private final ServerWebExchange exchange;
-    private final InterfaceLogInfo interfaceLogInfo;
-    private Mono<String> cachedBody;
+    private final InterfaceLogCaptureContext context;
 
-    public GenerateInterfaceLogInfoServerHttpRequestDecorator(ServerWebExchange exchange,
-        InterfaceLogInfo interfaceLogInfo) {
-        super(exchange.getRequest());
-        this.exchange = exchange;
-        this.interfaceLogInfo = interfaceLogInfo;
-        cacheBody();
-    }
-
-    private void cacheBody() {
-        cachedBody = DataBufferUtils.join(super.getBody())
-            .map(dataBuffer -> {
-                byte[] content = new byte[dataBuffer.readableByteCount()];
-                dataBuffer.read(content);
-                DataBufferUtils.release(dataBuffer);
-                String bodyContent = new String(content);
-                interfaceLogInfo.getSpec().setRequestBody(bodyContent);
-                return bodyContent;
-            })
-            .cache();
+    public GenerateInterfaceLogInfoServerHttpRequestDecorator(ServerHttpRequest request,
+        InterfaceLogCaptureContext context) {
+        super(request);
+        this.context = context;
     }
 
     @Override
     public Flux<DataBuffer> getBody() {
-        return cachedBody.map(dataBuffer -> exchange.getResponse()
-            .bufferFactory()
-            .wrap(dataBuffer.getBytes()))
-            .flatMapMany(Flux::just);
+        return super.getBody().doOnNext(context.getRequestBody()::append);
     }
 }
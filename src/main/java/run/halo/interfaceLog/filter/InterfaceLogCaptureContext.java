@@ -0,0 +1,56 @@
+package run.halo.interfaceLog.filter;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.http.HttpHeaders;
+import run.halo.interfaceLog.extension.InterfaceLogInfo;
+
+import java.nio.charset.Charset;
+
+/**
+ * 单个请求的采集状态，由请求、响应两个装饰器共享。
+ * 请求体、响应体都以原始字节暂存，只有在日志真正写入时才解码为文本。
+ */
+@Getter
+public class InterfaceLogCaptureContext {
+
+    private final InterfaceLogInfo interfaceLogInfo;
+
+    private final BodyCapture requestBody;
+
+    private final BodyCapture responseBody;
+
+    private final Charset requestCharset;
+
+    private final CapturePolicy capturePolicy;
+
+    private final long startNanos = System.nanoTime();
+
+    /**
+     * 请求头在请求结束、确定要保存明细后才序列化
+     */
+    @Setter
+    private HttpHeaders requestHeaders;
+
+    public InterfaceLogCaptureContext(InterfaceLogInfo interfaceLogInfo,
+        CapturePolicy capturePolicy, Charset requestCharset, CaptureMemoryBudget budget) {
+        this.interfaceLogInfo = interfaceLogInfo;
+        this.capturePolicy = capturePolicy;
+        this.requestBody = new BodyCapture(capturePolicy.getMaxBodyBytes(), budget);
+        this.responseBody = new BodyCapture(capturePolicy.getMaxBodyBytes(), budget);
+        this.requestCharset = requestCharset;
+    }
+
+    /**
+     * 预算耗尽时整个请求退化为只记录元数据。
+     */
+    public void metadataOnly() {
+        requestBody.skip("capture memory budget exhausted");
+        responseBody.skip("capture memory budget exhausted");
+    }
+
+    public void release() {
+        requestBody.release();
+        responseBody.release();
+    }
+}
@@ -1,13 +1,14 @@
 package run.halo.interfaceLog.filter;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.core.io.buffer.DataBufferUtils;
-import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
 import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.web.server.context.ServerSecurityContextRepository;
 import org.springframework.stereotype.Component;
 import org.springframework.web.server.ServerWebExchange;
@@ -15,11 +16,18 @@ import org.springframework.web.server.WebFilterChain;
 import reactor.core.publisher.Mono;
 import run.halo.app.extension.Metadata;
 import run.halo.app.security.AdditionalWebFilter;
+import run.halo.interfaceLog.LogIdGenerator;
 import run.halo.interfaceLog.extension.InterfaceLogInfo;
+import run.halo.interfaceLog.extension.InterfaceLogRuleInfo;
 import run.halo.interfaceLog.matcher.PathMatcher;
+import run.halo.interfaceLog.sampling.InterfaceLogSampler;
+import run.halo.interfaceLog.service.InterfaceLogSettingService;
+import run.halo.interfaceLog.stats.InterfaceLogHeavyHitters;
 
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
@@ -32,39 +40,82 @@ public class InterfaceLogFilter implements AdditionalWebFilter {
 
     Logger logger = LoggerFactory.getLogger(InterfaceLogFilter.class);
 
+    static final String VISITOR = "visitor";
+
     private final ServerSecurityContextRepository serverSecurityContextRepository;
 
     private final PathMatcher pathMatcher;
 
+    private final InterfaceLogSettingService settingService;
+
+    private final CaptureMemoryBudget captureMemoryBudget;
+
+    private final InterfaceLogSampler sampler;
+
+    private final InterfaceLogHeavyHitters heavyHitters;
+
     public InterfaceLogFilter(ServerSecurityContextRepository serverSecurityContextRepository,
-                              PathMatcher pathMatcher) {
+                              PathMatcher pathMatcher,
+                              InterfaceLogSettingService settingService,
+                              CaptureMemoryBudget captureMemoryBudget,
+                              InterfaceLogSampler sampler,
+                              InterfaceLogHeavyHitters heavyHitters) {
         this.serverSecurityContextRepository = serverSecurityContextRepository;
         this.pathMatcher = pathMatcher;
+        this.settingService = settingService;
+        this.captureMemoryBudget = captureMemoryBudget;
+        this.sampler = sampler;
+        this.heavyHitters = heavyHitters;
     }
 
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
-        return pathMatcher.matches(exchange.getRequest().getPath().value())
-                .flatMap(result -> {
-                    if (!result) {
-                        return chain.filter(exchange);
-                    }
-                    return processLog(exchange, chain);
-                });
+        InterfaceLogRuleInfo.InterfaceLogRuleInfoSpec rule =
+                pathMatcher.match(exchange.getRequest().getPath().value());
+        if (rule == null) {
+            return chain.filter(exchange);
+        }
+        // 未被采样的请求不做任何采集
+        double sampleWeight = sampler.sample(rule);
+        if (sampleWeight == InterfaceLogSampler.NOT_SAMPLED) {
+            return chain.filter(exchange);
+        }
+        return processLog(exchange, chain, rule, sampleWeight);
     }
 
-    private Mono<Void> processLog(ServerWebExchange exchange, WebFilterChain chain) {
+    private Mono<Void> processLog(ServerWebExchange exchange, WebFilterChain chain,
+                                  InterfaceLogRuleInfo.InterfaceLogRuleInfoSpec rule,
+                                  double sampleWeight) {
+        CapturePolicy capturePolicy =
+                new CapturePolicy(settingService.getCurrentSetting().getCapture(), rule);
         InterfaceLogInfo interfaceLogInfo = new InterfaceLogInfo();
-        return Mono.just(new GenerateInterfaceLogInfoServerHttpRequestDecorator(exchange, interfaceLogInfo))
-                .map(e -> exchange.mutate().request(e).build())
-                .flatMap(requestExchange -> generateLogInfo(requestExchange, interfaceLogInfo)
-                        .flatMap(logInfo -> {
-                            ServerWebExchange mutatedExchange = requestExchange.mutate()
-                                    .response(new CustomServerHttpResponseDecorator(
-                                            requestExchange.getResponse(), logInfo))
-                                    .build();
-                            return chain.filter(mutatedExchange);
-                        }));
+        interfaceLogInfo.getSpec().setSampleWeight(sampleWeight);
+        InterfaceLogCaptureContext context = new InterfaceLogCaptureContext(interfaceLogInfo,
+                capturePolicy, requestCharset(exchange.getRequest()), captureMemoryBudget);
+        MediaType requestContentType = exchange.getRequest().getHeaders().getContentType();
+        if (captureMemoryBudget.isExhausted()) {
+            captureMemoryBudget.recordDegraded();
+            context.metadataOnly();
+        } else if (!capturePolicy.shouldCapture(requestContentType)) {
+            // multipart、二进制等内容不缓冲，只记录大小
+            context.getRequestBody().skip(requestContentType.toString());
+        }
+        CustomServerHttpResponseDecorator responseDecorator =
+                new CustomServerHttpResponseDecorator(exchange.getResponse(), context);
+        return generateLogInfo(exchange, context)
+                .flatMap(logInfo -> {
+                    heavyHitters.record(logInfo);
+                    ServerWebExchange mutatedExchange = exchange.mutate()
+                            .request(new GenerateInterfaceLogInfoServerHttpRequestDecorator(
+                                    exchange.getRequest(), context))
+                            .response(responseDecorator)
+                            .build();
+                    return chain.filter(mutatedExchange);
+                })
+                // 处理器没有写响应体时也在这里结束计时并记录，BLOCK 策略下等待日志入队
+                .then(Mono.defer(responseDecorator::submit))
+                // 异常或取消时不等待，直接按策略提交
+                .doFinally(signal -> responseDecorator.submitNow());
     }
 
     @Override
@@ -73,25 +124,21 @@ public class InterfaceLogFilter implements AdditionalWebFilter {
     }
 
     private Mono<InterfaceLogInfo> generateLogInfo(ServerWebExchange exchange,
-                                                   InterfaceLogInfo interfaceLogInfo) {
-        return getRequestBodyAsString(exchange).defaultIfEmpty("")
-                .zipWith(getUsername(exchange))
-                .map(tuple -> {
-                    interfaceLogInfo.getSpec()
-                            .setRequestHeader(exchange.getRequest().getHeaders().toString());
-                    interfaceLogInfo.getSpec()
-                            .setRequestHeader(generateRequestHeader(exchange.getRequest()));
-                    interfaceLogInfo.getSpec().setRequestBody(tuple.getT1());
+                                                   InterfaceLogCaptureContext context) {
+        InterfaceLogInfo interfaceLogInfo = context.getInterfaceLogInfo();
+        context.setRequestHeaders(exchange.getRequest().getHeaders());
+        return getUsername(exchange)
+                .map(username -> {
                     interfaceLogInfo.getSpec().setPath(generatePath(exchange.getRequest()));
                     interfaceLogInfo.getSpec()
                             .setRequestType(exchange.getRequest().getMethod().toString());
                     interfaceLogInfo.getSpec().setAccessTime(generateTime());
                     interfaceLogInfo.getSpec().setClientIp(getClientIp(exchange));
-                    interfaceLogInfo.getSpec().setUsername(tuple.getT2());
+                    interfaceLogInfo.getSpec().setUsername(username);
                     interfaceLogInfo.getSpec().setRequestParams(
                             exchange.getRequest().getQueryParams().isEmpty() ? new HashMap<>() : exchange.getRequest().getQueryParams().toSingleValueMap());
                     interfaceLogInfo.setMetadata(new Metadata());
-                    interfaceLogInfo.getMetadata().setName(String.valueOf(System.currentTimeMillis()));
+                    interfaceLogInfo.getMetadata().setName(LogIdGenerator.nextId());
                     return interfaceLogInfo;
                 });
     }
@@ -102,25 +149,27 @@ public class InterfaceLogFilter implements AdditionalWebFilter {
         return Date.from(zonedDateTime.toInstant());
     }
 
-    private String generateRequestHeader(ServerHttpRequest request) {
-        HttpHeaders headers = request.getHeaders();
-        ObjectMapper objectMapper = new ObjectMapper();
-        try {
-            return objectMapper.writeValueAsString(headers);
-        } catch (JsonProcessingException e) {
-            logger.error("Error converting headers to JSON", e);
-            return "{}";
-        }
-    }
-
     private String generatePath(ServerHttpRequest request) {
         return request.getPath().value();
     }
 
-    private Mono<String> getUsername(ServerWebExchange exchange) {
-        return serverSecurityContextRepository.load(exchange)
-                .map(securityContext -> securityContext.getAuthentication().getName())
-                .switchIfEmpty(Mono.just("visitor"));
+    /**
+     * 本过滤器位于安全过滤链末尾，与安全过滤链一样从 Reactor 上下文读取认证结果；
+     * 上下文中的是惰性的仓库加载，是否重复查会话取决于仓库是否缓存。上下文中没有时才直接从仓库加载。
+     */
+    Mono<String> getUsername(ServerWebExchange exchange) {
+        return ReactiveSecurityContextHolder.getContext()
+                .switchIfEmpty(Mono.defer(() -> serverSecurityContextRepository.load(exchange)))
+                .map(InterfaceLogFilter::usernameOf)
+                .defaultIfEmpty(VISITOR);
+    }
+
+    private static String usernameOf(SecurityContext securityContext) {
+        Authentication authentication = securityContext.getAuthentication();
+        if (authentication == null || authentication instanceof AnonymousAuthenticationToken) {
+            return VISITOR;
+        }
+        return authentication.getName();
     }
 
     private String getClientIp(ServerWebExchange exchange) {
@@ -133,14 +182,9 @@ public class InterfaceLogFilter implements AdditionalWebFilter {
                 .orElse("UNKNOWN");
     }
 
-    private Mono<String> getRequestBodyAsString(ServerWebExchange exchange) {
-        return DataBufferUtils.join(exchange.getRequest().getBody())
-                .map(dataBuffer -> {
-                    byte[] bytes = new byte[dataBuffer.readableByteCount()];
-                    dataBuffer.read(bytes);
-                    DataBufferUtils.release(dataBuffer);
-                    return new String(bytes);
-                })
-                .defaultIfEmpty("");
+    private Charset requestCharset(ServerHttpRequest request) {
+        return Optional.ofNullable(request.getHeaders().getContentType())
+                .map(MediaType::getCharset)
+                .orElse(StandardCharsets.UTF_8);
     }
-}
\ No newline at end of file
+}
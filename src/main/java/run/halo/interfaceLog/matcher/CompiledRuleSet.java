@@ -0,0 +1,52 @@
+package run.halo.interfaceLog.matcher;
+
+import run.halo.interfaceLog.extension.InterfaceLogRuleInfo;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 某一时刻全部规则的不可变快照，规则变化时整体替换。
+ */
+public class CompiledRuleSet {
+
+    public static final CompiledRuleSet EMPTY = new CompiledRuleSet(List.of());
+
+    private final PatternIndex include;
+
+    private final PatternIndex exclude;
+
+    public CompiledRuleSet(Collection<InterfaceLogRuleInfo.InterfaceLogRuleInfoSpec> rules) {
+        List<InterfaceLogRuleInfo.InterfaceLogRuleInfoSpec> includeRules = new ArrayList<>();
+        List<InterfaceLogRuleInfo.InterfaceLogRuleInfoSpec> excludeRules = new ArrayList<>();
+        rules.forEach(rule -> {
+            if (Boolean.TRUE.equals(rule.getIsInclude())) {
+                includeRules.add(rule);
+            } else {
+                excludeRules.add(rule);
+            }
+        });
+        this.include = new PatternIndex(includeRules);
+        this.exclude = new PatternIndex(excludeRules);
+    }
+
+    public boolean matches(String path) {
+        return match(path) != null;
+    }
+
+    /**
+     * 返回命中的包含规则，未命中或被排除时返回 null。
+     */
+    public InterfaceLogRuleInfo.InterfaceLogRuleInfoSpec match(String path) {
+        // 没有配置任何包含规则时不记录任何接口
+        if (include.isEmpty()) {
+            return null;
+        }
+        InterfaceLogRuleInfo.InterfaceLogRuleInfoSpec rule = include.find(path);
+        if (rule == null || exclude.matches(path)) {
+            return null;
+        }
+        return rule;
+    }
+}
@@ -1,79 +1,46 @@
 package run.halo.interfaceLog.matcher;
 
-import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Component;
-import org.springframework.util.AntPathMatcher;
-import reactor.core.publisher.Mono;
-import run.halo.app.extension.ExtensionUtil;
-import run.halo.app.extension.ListOptions;
-import run.halo.app.extension.ReactiveExtensionClient;
-import run.halo.app.extension.index.query.QueryFactory;
 import run.halo.interfaceLog.extension.InterfaceLogRuleInfo;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
 
+/**
+ * 请求路径匹配器。规则由 {@link run.halo.interfaceLog.reconciler.InterfaceLogRuleReconciler}
+ * 在扩展变化时推送进来并重新编译，请求链路上只做一次内存查找。
+ */
 @Component
 public class PathMatcher {
-    private final ReactiveExtensionClient client;
-    private final AntPathMatcher antPathMatcher = new AntPathMatcher();
-    private Mono<Map<String, List<String>>> antPathMatchers;
-    
-    public PathMatcher(ReactiveExtensionClient client) {
-        this.client = client;
-    }
-    
-    public void refreshMatcher() {
-        antPathMatchers = client.listAll(InterfaceLogRuleInfo.class,
-                ListOptions.builder()
-                    .andQuery(QueryFactory.all())
-                    .build(), 
-                Sort.unsorted())
-                .mapNotNull(i -> ExtensionUtil.isDeleted(i) ? null : i)
-                .collectList()
-                .map(this::buildMatcherMap);
-    }
-    
-    private Map<String, List<String>> buildMatcherMap(List<InterfaceLogRuleInfo> rules) {
-        Map<String, List<String>> matchers = new HashMap<>();
-        List<String> include = new ArrayList<>();
-        List<String> exclude = new ArrayList<>();
-        matchers.put("include", include);
-        matchers.put("exclude", exclude);
 
-        rules.forEach(rule -> {
-            if (rule.getSpec().getIsInclude()) {
-                include.add(rule.getSpec().getRule());
-            } else {
-                exclude.add(rule.getSpec().getRule());
-            }
-        });
+    /**
+     * 按规则名排序，编译时同样具体的规则按名称先后取舍，重启或修改规则后结果不变
+     */
+    private final Map<String, InterfaceLogRuleInfo.InterfaceLogRuleInfoSpec> rules =
+        new ConcurrentSkipListMap<>();
 
-        if (include.isEmpty()) {
-            exclude.add("/**");
-        }
+    private volatile CompiledRuleSet snapshot = CompiledRuleSet.EMPTY;
 
-        return matchers;
+    public void putRule(String name, InterfaceLogRuleInfo.InterfaceLogRuleInfoSpec rule) {
+        rules.put(name, rule);
+        recompile();
     }
-    
-    public Mono<Boolean> matches(String path) {
-        if (antPathMatchers == null) {
-            refreshMatcher();
+
+    public void removeRule(String name) {
+        if (rules.remove(name) != null) {
+            recompile();
         }
-        return antPathMatchers.map(matchers -> canMatch(matchers, path));
     }
-    
-    private boolean canMatch(Map<String, List<String>> matchers, String path) {
-        List<String> include = matchers.get("include");
-        List<String> exclude = matchers.get("exclude");
-        
-        boolean isIncluded = include.stream()
-                .anyMatch(pattern -> antPathMatcher.match(pattern, path));
-        boolean notExcluded = exclude.stream()
-                .noneMatch(pattern -> antPathMatcher.match(pattern, path));
-                
-        return isIncluded && notExcluded;
+
+    public boolean matches(String path) {
+        return snapshot.matches(path);
+    }
+
+    public InterfaceLogRuleInfo.InterfaceLogRuleInfoSpec match(String path) {
+        return snapshot.match(path);
+    }
+
+    private synchronized void recompile() {
+        snapshot = new CompiledRuleSet(rules.values());
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,186 @@
+package run.halo.interfaceLog.matcher;
+
+import org.springframework.http.server.PathContainer;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import org.springframework.web.util.pattern.PatternParseException;
+import run.halo.interfaceLog.extension.InterfaceLogRuleInfo;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 一组 Ant 风格规则编译后的不可变索引。
+ * <p>无通配符的规则放入精确集合，{@code /prefix/**} 形式的规则放入按路径段组织的前缀树，
+ * 其余规则预编译为 {@link PathPattern}；{@link PathPattern} 不支持的写法（如 {@code /**}{@code /*.js}）
+ * 退回 {@link AntPathMatcher}。</p>
+ * <p>{@link #find(String)} 返回命中的规则中最具体的一条：精确匹配优先，其余规则都能解析为
+ * {@link PathPattern} 时按 {@link PathPattern#SPECIFICITY_COMPARATOR} 比较，
+ * 否则按 {@link AntPathMatcher#getPatternComparator(String)} 比较，同样具体时先添加的优先。</p>
+ */
+class PatternIndex {
+
+    private static final AntPathMatcher ANT_PATH_MATCHER = new AntPathMatcher();
+
+    private final Map<String, InterfaceLogRuleInfo.InterfaceLogRuleInfoSpec> exactPaths =
+        new HashMap<>();
+
+    private final Node prefixRoot = new Node();
+
+    /**
+     * 按具体程度排序，第一个命中的就是其中最具体的
+     */
+    private final List<Entry> pathPatterns = new ArrayList<>();
+
+    private final List<Entry> antPatterns = new ArrayList<>();
+
+    private final boolean empty;
+
+    PatternIndex(Collection<InterfaceLogRuleInfo.InterfaceLogRuleInfoSpec> rules) {
+        rules.forEach(this::add);
+        // 稳定排序，同样具体的规则保持添加顺序
+        pathPatterns.sort(Comparator.comparing(Entry::parsed, PathPattern.SPECIFICITY_COMPARATOR));
+        this.empty = rules.isEmpty();
+    }
+
+    boolean isEmpty() {
+        return empty;
+    }
+
+    boolean matches(String path) {
+        return find(path) != null;
+    }
+
+    InterfaceLogRuleInfo.InterfaceLogRuleInfoSpec find(String path) {
+        InterfaceLogRuleInfo.InterfaceLogRuleInfoSpec rule = exactPaths.get(path);
+        if (rule != null) {
+            return rule;
+        }
+        Entry best = findPrefix(path);
+        if (!pathPatterns.isEmpty()) {
+            PathContainer container = PathContainer.parsePath(path);
+            for (Entry entry : pathPatterns) {
+                if (entry.parsed().matches(container)) {
+                    best = moreSpecific(best, entry, path);
+                    break;
+                }
+            }
+        }
+        for (Entry entry : antPatterns) {
+            if (ANT_PATH_MATCHER.match(entry.pattern(), path)) {
+                best = moreSpecific(best, entry, path);
+            }
+        }
+        return best == null ? null : best.rule();
+    }
+
+    /**
+     * 同样具体时保留 current。
+     */
+    private static Entry moreSpecific(Entry current, Entry candidate, String path) {
+        if (current == null) {
+            return candidate;
+        }
+        int order = current.parsed() != null && candidate.parsed() != null
+            ? PathPattern.SPECIFICITY_COMPARATOR.compare(candidate.parsed(), current.parsed())
+            : ANT_PATH_MATCHER.getPatternComparator(path)
+                .compare(candidate.pattern(), current.pattern());
+        return order < 0 ? candidate : current;
+    }
+
+    private void add(InterfaceLogRuleInfo.InterfaceLogRuleInfoSpec rule) {
+        String pattern = rule.getRule();
+        if (pattern == null || pattern.isBlank()) {
+            return;
+        }
+        if (!hasWildcard(pattern)) {
+            exactPaths.putIfAbsent(pattern, rule);
+            return;
+        }
+        if (pattern.endsWith("/**") && !hasWildcard(pattern.substring(0, pattern.length() - 3))) {
+            Node node = prefixRoot;
+            for (String segment : segments(pattern.substring(0, pattern.length() - 3))) {
+                node = node.children.computeIfAbsent(segment, key -> new Node());
+            }
+            if (node.entry == null) {
+                node.entry = new Entry(pattern, parse(pattern), rule);
+            }
+            return;
+        }
+        PathPattern parsed = parse(pattern);
+        if (parsed != null) {
+            pathPatterns.add(new Entry(pattern, parsed, rule));
+        } else {
+            antPatterns.add(new Entry(pattern, null, rule));
+        }
+    }
+
+    /**
+     * {@link PathPattern} 不支持的写法返回 null。
+     */
+    private static PathPattern parse(String pattern) {
+        try {
+            return PathPatternParser.defaultInstance.parse(pattern);
+        } catch (PatternParseException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 路径上最深的前缀规则，前缀越长越具体。
+     */
+    private Entry findPrefix(String path) {
+        Node node = prefixRoot;
+        Entry matched = node.entry;
+        int start = 0;
+        int length = path.length();
+        while (start < length) {
+            int end = path.indexOf('/', start);
+            if (end < 0) {
+                end = length;
+            }
+            if (end > start) {
+                node = node.children.get(path.substring(start, end));
+                if (node == null) {
+                    break;
+                }
+                if (node.entry != null) {
+                    matched = node.entry;
+                }
+            }
+            start = end + 1;
+        }
+        return matched;
+    }
+
+    private static List<String> segments(String path) {
+        List<String> segments = new ArrayList<>();
+        for (String segment : path.split("/")) {
+            if (!segment.isEmpty()) {
+                segments.add(segment);
+            }
+        }
+        return segments;
+    }
+
+    private static boolean hasWildcard(String pattern) {
+        return pattern.indexOf('*') >= 0 || pattern.indexOf('?') >= 0 || pattern.indexOf('{') >= 0;
+    }
+
+    /**
+     * @param parsed {@link PathPattern} 不支持的写法为 null
+     */
+    private record Entry(String pattern, PathPattern parsed,
+                         InterfaceLogRuleInfo.InterfaceLogRuleInfoSpec rule) {
+    }
+
+    private static class Node {
+        private final Map<String, Node> children = new HashMap<>();
+        private Entry entry;
+    }
+}
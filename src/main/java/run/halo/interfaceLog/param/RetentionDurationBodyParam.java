@@ -5,4 +5,15 @@ import lombok.Data;
 @Data
 public class RetentionDurationBodyParam {
     Integer days;
+
+    /**
+     * 以下清理参数为空时保持原值
+     */
+    Integer intervalSeconds;
+    Integer batchSize;
+    Integer concurrency;
+    Integer maxDeletesPerSecond;
+    Long maxRecords;
+    Long maxStorageBytes;
+    Integer minFreeDiskPercent;
 }
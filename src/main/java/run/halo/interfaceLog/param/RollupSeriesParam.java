@@ -0,0 +1,31 @@
+package run.halo.interfaceLog.param;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+/**
+ * 汇总曲线的查询条件，维度为空表示不限。
+ */
+@Data
+@Accessors(chain = true)
+public class RollupSeriesParam {
+    private String resolution = "DAY";
+
+    /**
+     * 开始时间，毫秒时间戳，包含
+     */
+    private Long from;
+
+    /**
+     * 结束时间，毫秒时间戳，不包含
+     */
+    private Long to;
+
+    private String path;
+
+    private String statusClass;
+
+    private String method;
+
+    private String username;
+}
@@ -0,0 +1,39 @@
+package run.halo.interfaceLog.reconciler;
+
+import org.springframework.stereotype.Component;
+import run.halo.app.extension.ExtensionClient;
+import run.halo.app.extension.ExtensionUtil;
+import run.halo.app.extension.controller.Controller;
+import run.halo.app.extension.controller.ControllerBuilder;
+import run.halo.app.extension.controller.Reconciler;
+import run.halo.interfaceLog.extension.InterfaceLogRuleInfo;
+import run.halo.interfaceLog.matcher.PathMatcher;
+
+@Component
+public class InterfaceLogRuleReconciler implements Reconciler<Reconciler.Request> {
+
+    private final ExtensionClient client;
+
+    private final PathMatcher pathMatcher;
+
+    public InterfaceLogRuleReconciler(ExtensionClient client, PathMatcher pathMatcher) {
+        this.client = client;
+        this.pathMatcher = pathMatcher;
+    }
+
+    @Override
+    public Result reconcile(Request request) {
+        client.fetch(InterfaceLogRuleInfo.class, request.name())
+            .filter(rule -> !ExtensionUtil.isDeleted(rule))
+            .ifPresentOrElse(rule -> pathMatcher.putRule(request.name(), rule.getSpec()),
+                () -> pathMatcher.removeRule(request.name()));
+        return Result.doNotRetry();
+    }
+
+    @Override
+    public Controller setupWith(ControllerBuilder builder) {
+        return builder
+            .extension(new InterfaceLogRuleInfo())
+            .build();
+    }
+}
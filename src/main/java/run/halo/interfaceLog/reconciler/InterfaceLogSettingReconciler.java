@@ -0,0 +1,43 @@
+package run.halo.interfaceLog.reconciler;
+
+import org.springframework.stereotype.Component;
+import run.halo.app.extension.ExtensionClient;
+import run.halo.app.extension.ExtensionUtil;
+import run.halo.app.extension.controller.Controller;
+import run.halo.app.extension.controller.ControllerBuilder;
+import run.halo.app.extension.controller.Reconciler;
+import run.halo.interfaceLog.extension.InterfaceLogSettingInfo;
+import run.halo.interfaceLog.service.InterfaceLogSettingService;
+
+@Component
+public class InterfaceLogSettingReconciler implements Reconciler<Reconciler.Request> {
+
+    private final ExtensionClient client;
+
+    private final InterfaceLogSettingService settingService;
+
+    public InterfaceLogSettingReconciler(ExtensionClient client,
+        InterfaceLogSettingService settingService) {
+        this.client = client;
+        this.settingService = settingService;
+    }
+
+    @Override
+    public Result reconcile(Request request) {
+        if (!InterfaceLogSettingInfo.NAME.equals(request.name())) {
+            return Result.doNotRetry();
+        }
+        client.fetch(InterfaceLogSettingInfo.class, request.name())
+            .filter(info -> !ExtensionUtil.isDeleted(info))
+            .ifPresentOrElse(info -> settingService.applySetting(info.getSpec()),
+                () -> settingService.applySetting(null));
+        return Result.doNotRetry();
+    }
+
+    @Override
+    public Controller setupWith(ControllerBuilder builder) {
+        return builder
+            .extension(new InterfaceLogSettingInfo())
+            .build();
+    }
+}
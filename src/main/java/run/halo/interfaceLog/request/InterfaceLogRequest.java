@@ -16,4 +16,10 @@ public class InterfaceLogRequest {
     private String startTime;
     private String endTime;
     private List<String> accessTimes;
+    private Long minDurationMillis;
+    private Long maxDurationMillis;
+    /**
+     * latest（默认，按请求时间倒序）或 slowest（按耗时倒序）
+     */
+    private String sort;
 }
\ No newline at end of file
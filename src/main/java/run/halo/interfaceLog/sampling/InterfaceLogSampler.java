@@ -0,0 +1,113 @@
+package run.halo.interfaceLog.sampling;
+
+import org.springframework.stereotype.Component;
+import run.halo.interfaceLog.extension.InterfaceLogRuleInfo;
+import run.halo.interfaceLog.extension.InterfaceLogSettingInfo;
+import run.halo.interfaceLog.service.InterfaceLogSettingService;
+import run.halo.interfaceLog.vo.SamplingStatsVO;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 决定一个请求是否记录，并给出该条记录代表的请求数（采样权重）。
+ * <p>先按规则上的 {@code sampleRate} 采样；开启自适应后再根据最近每秒的候选量，
+ * 把保存速率压到 {@code maxRecordsPerSecond} 以内。两级采样率相乘的倒数即为权重。</p>
+ */
+@Component
+public class InterfaceLogSampler {
+
+    public static final double NOT_SAMPLED = 0;
+
+    private static final double SMOOTHING = 0.5;
+
+    private final InterfaceLogSettingService settingService;
+
+    private final AtomicLong currentSecond =
+        new AtomicLong(System.currentTimeMillis() / 1000);
+
+    private final LongAdder currentCount = new LongAdder();
+
+    private final LongAdder sampled = new LongAdder();
+
+    private final LongAdder skipped = new LongAdder();
+
+    private volatile double observedPerSecond;
+
+    public InterfaceLogSampler(InterfaceLogSettingService settingService) {
+        this.settingService = settingService;
+    }
+
+    /**
+     * @return 采样权重，{@link #NOT_SAMPLED} 表示不记录
+     */
+    public double sample(InterfaceLogRuleInfo.InterfaceLogRuleInfoSpec rule) {
+        return sample(rule, System.currentTimeMillis());
+    }
+
+    /**
+     * 按给定时间统计每秒候选量，便于测试控制时钟。
+     */
+    double sample(InterfaceLogRuleInfo.InterfaceLogRuleInfoSpec rule, long nowMillis) {
+        double ruleRate = ruleRate(rule);
+        if (!hit(ruleRate)) {
+            skipped.increment();
+            return NOT_SAMPLED;
+        }
+        InterfaceLogSettingInfo.SamplingSetting setting =
+            settingService.getCurrentSetting().getSampling();
+        double adaptiveRate = 1;
+        if (Boolean.TRUE.equals(setting.getAdaptive())) {
+            observe(nowMillis / 1000);
+            adaptiveRate = adaptiveRate(setting.getMaxRecordsPerSecond());
+            if (!hit(adaptiveRate)) {
+                skipped.increment();
+                return NOT_SAMPLED;
+            }
+        }
+        sampled.increment();
+        return 1 / (ruleRate * adaptiveRate);
+    }
+
+    public SamplingStatsVO stats() {
+        InterfaceLogSettingInfo.SamplingSetting setting =
+            settingService.getCurrentSetting().getSampling();
+        return new SamplingStatsVO()
+            .setAdaptive(Boolean.TRUE.equals(setting.getAdaptive()))
+            .setObservedPerSecond(observedPerSecond)
+            .setAdaptiveRate(adaptiveRate(setting.getMaxRecordsPerSecond()))
+            .setSampled(sampled.sum())
+            .setSkipped(skipped.sum());
+    }
+
+    private void observe(long now) {
+        long window = currentSecond.get();
+        if (now != window && currentSecond.compareAndSet(window, now)) {
+            // 上一秒的量平滑进观测值，跨越多秒时中间按 0 计
+            long count = currentCount.sumThenReset();
+            double rate = (double) count / Math.max(1, now - window);
+            observedPerSecond = SMOOTHING * observedPerSecond + (1 - SMOOTHING) * rate;
+        }
+        currentCount.increment();
+    }
+
+    private double adaptiveRate(Integer maxRecordsPerSecond) {
+        if (maxRecordsPerSecond == null || maxRecordsPerSecond <= 0) {
+            return 1;
+        }
+        double observed = observedPerSecond;
+        return observed <= maxRecordsPerSecond ? 1 : maxRecordsPerSecond / observed;
+    }
+
+    private static double ruleRate(InterfaceLogRuleInfo.InterfaceLogRuleInfoSpec rule) {
+        if (rule == null || rule.getSampleRate() == null) {
+            return 1;
+        }
+        return Math.min(1, Math.max(0, rule.getSampleRate()));
+    }
+
+    private static boolean hit(double rate) {
+        return rate >= 1 || (rate > 0 && ThreadLocalRandom.current().nextDouble() < rate);
+    }
+}
@@ -1,25 +1,34 @@
 package run.halo.interfaceLog.schedule;
 
-import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Sort;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import reactor.core.Disposable;
 import reactor.core.publisher.Mono;
-import run.halo.app.extension.ListOptions;
+import reactor.util.retry.Retry;
+import run.halo.app.extension.Metadata;
 import run.halo.app.extension.ReactiveExtensionClient;
-import run.halo.app.extension.index.query.QueryFactory;
-import run.halo.interfaceLog.extension.InterfaceLogInfo;
-import run.halo.interfaceLog.extension.InterfaceLogRuleInfo;
+import run.halo.interfaceLog.entity.SystemInfo;
 import run.halo.interfaceLog.extension.RetentionDurationInfo;
+import run.halo.interfaceLog.service.impl.SystemInfoService;
+import run.halo.interfaceLog.stats.InterfaceLogCounters;
+import run.halo.interfaceLog.stats.InterfaceLogFieldIndex;
+import run.halo.interfaceLog.store.InterfaceLogStore;
+import run.halo.interfaceLog.store.InterfaceLogStores;
+import run.halo.interfaceLog.store.PurgeBatch;
 
-import java.time.Instant;
-import java.time.LocalDateTime;
-import java.time.ZoneId;
-import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * 按保留天数在后台持续清理过期日志。
+ * <p>每隔 intervalSeconds 运行一次，一次运行按批删除当时的全部过期日志，批内限制并发和每秒删除数，
+ * 避免一次性删除与正常请求争抢数据库。每批结束后把检查点和进度写入
+ * {@link RetentionDurationInfo} 的 status，重启后从检查点继续。</p>
+ * <p>除天数外还可以限制条数、估算大小和磁盘剩余空间，超出时从最旧的日志开始删除。</p>
+ */
 @Slf4j
 @Component
 @EnableScheduling
@@ -27,34 +36,156 @@ public class DeleteScheduler {
 
     private final ReactiveExtensionClient client;
 
-    public DeleteScheduler(ReactiveExtensionClient client) {
+    private final InterfaceLogStores stores;
+
+    private final InterfaceLogCounters counters;
+
+    private final InterfaceLogFieldIndex fieldIndex;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    private volatile long nextRunAt;
+
+    public DeleteScheduler(ReactiveExtensionClient client, InterfaceLogStores stores,
+        InterfaceLogCounters counters, InterfaceLogFieldIndex fieldIndex) {
         this.client = client;
+        this.stores = stores;
+        this.counters = counters;
+        this.fieldIndex = fieldIndex;
     }
 
-    @Scheduled(cron = "0 0 0 * * ?")
-    public void delete() {
-        client.fetch(RetentionDurationInfo.class, "interface-log-retention-duration")
-                .doOnError(error -> log.error("获取规则失败", error))
-                .map(RetentionDurationInfo::getSpec)
-                .map(RetentionDurationInfo.RetentionDurationInfoSpec::getDay)
-                .defaultIfEmpty(7)
-                .flatMap(days -> {
-                    long retentionPeriodMillis = days * 24 * 60 * 60 * 1000L;
-                    long cutoffTime = System.currentTimeMillis() - retentionPeriodMillis;
-                    Instant instant = Instant.ofEpochMilli(cutoffTime);
-                    LocalDateTime dateTime = LocalDateTime.ofInstant(instant, ZoneId.systemDefault());
-                    DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-                    String formattedDateTime = dateTime.format(formatter);
-                    return client.listAll(InterfaceLogInfo.class,
-                                    ListOptions.builder()
-                                            .andQuery(QueryFactory.lessThan("spec.accessTime", formattedDateTime))
-                                            .build(),
-                                    Sort.unsorted())
-                            .flatMap(client::delete)
-                            .then(Mono.empty())  // 添加这行来确保返回类型是 Mono
-                            .doOnError(error -> log.error("删除任务执行失败", error));
-                })
-                .subscribe();
+    @Scheduled(fixedDelay = 1000)
+    public void tick() {
+        if (System.currentTimeMillis() < nextRunAt || !running.compareAndSet(false, true)) {
+            return;
+        }
+        purge()
+            .doFinally(signal -> running.set(false))
+            .subscribe(v -> {
+            }, error -> log.error("删除任务执行失败", error));
+    }
+
+    /**
+     * 运行一次清理：先按天数删除过期日志，再按条数、大小和磁盘空间从最旧处删除，
+     * 直到满足全部限制或某一批失败。
+     */
+    Mono<Void> purge() {
+        return fetchRetention()
+            .flatMap(info -> {
+                RetentionDurationInfo.RetentionDurationInfoSpec spec = info.getSpec();
+                long now = System.currentTimeMillis();
+                nextRunAt = now + TimeUnit.SECONDS.toMillis(spec.getIntervalSeconds());
+                RetentionDurationInfo.RetentionDurationInfoStatus status =
+                    info.getStatus() == null
+                        ? new RetentionDurationInfo.RetentionDurationInfoStatus()
+                        : info.getStatus();
+                status.setLastRunAt(now).setLastRunDeleted(0L).setRunning(true)
+                    .setLastError(null).setLastEvictionReason(null);
+                InterfaceLogStore store = stores.current();
+                return saveStatus(status)
+                    .then(purgeExpired(store, spec, status, now))
+                    .then(evictOverLimits(store, spec, status))
+                    .onErrorResume(error -> {
+                        log.error("删除任务执行失败", error);
+                        status.setLastError(error.getMessage());
+                        return Mono.empty();
+                    })
+                    .then(Mono.defer(() -> {
+                        status.setRunning(false).setLastFinishedAt(System.currentTimeMillis());
+                        log.info("已删除 {} 条日志", status.getLastRunDeleted());
+                        return saveStatus(status);
+                    }));
+            });
+    }
+
+    private Mono<Void> purgeExpired(InterfaceLogStore store,
+        RetentionDurationInfo.RetentionDurationInfoSpec spec,
+        RetentionDurationInfo.RetentionDurationInfoStatus status, long now) {
+        int days = spec.getDay() == null ? 7 : spec.getDay();
+        long cutoff = now - TimeUnit.DAYS.toMillis(days);
+        AtomicBoolean more = new AtomicBoolean(true);
+        return Mono.defer(() -> store.deleteBatch(status.getCheckpoint(), cutoff,
+                spec.getBatchSize(), spec.getConcurrency(), spec.getMaxDeletesPerSecond()))
+            .flatMap(batch -> {
+                apply(status, batch);
+                status.setBacklog(batch.backlog());
+                more.set(batch.deleted() > 0 && batch.backlog() > 0);
+                return saveStatus(status);
+            })
+            .repeat(more::get)
+            .then(Mono.fromRunnable(() -> {
+                counters.pruneDaysBefore(cutoff);
+                fieldIndex.pruneDaysBefore(cutoff);
+            }));
     }
-}
 
+    /**
+     * 需要删除的条数只在开始时按存储占用计算一次，删除过程中不再统计。
+     * <p>每批都从最旧的日志查起，不使用也不推进按天数清理的检查点：检查点会被推进到接近当前时间，
+     * 之后才写入的较早日志会被永远跳过。已删除的日志带有删除标记，不会被重复查到。</p>
+     */
+    private Mono<Void> evictOverLimits(InterfaceLogStore store,
+        RetentionDurationInfo.RetentionDurationInfoSpec spec,
+        RetentionDurationInfo.RetentionDurationInfoStatus status) {
+        return store.usage()
+            .flatMap(usage -> {
+                SystemInfo disk = SystemInfoService.systemInfo();
+                RetentionLimits.Excess excess = RetentionLimits.excess(spec, usage,
+                    disk.getTotalSpace(), disk.getTotalSpace() - disk.getUnUsableSpace());
+                status.setRecords(usage.records()).setEstimatedBytes(usage.bytes())
+                    .setLastEvictionReason(excess.reason());
+                if (excess.records() <= 0) {
+                    return Mono.empty();
+                }
+                log.info("日志超出 {} 限制，删除最旧的 {} 条", excess.reason(), excess.records());
+                AtomicLong remaining = new AtomicLong(excess.records());
+                AtomicBoolean more = new AtomicBoolean(true);
+                return Mono.defer(() -> store.evictOldest(0L,
+                        (int) Math.min(spec.getBatchSize(), remaining.get()),
+                        spec.getConcurrency(), spec.getMaxDeletesPerSecond()))
+                    .flatMap(batch -> {
+                        recordDeleted(status, batch);
+                        status.setBacklog(Math.max(0, remaining.addAndGet(-batch.deleted())));
+                        more.set(batch.deleted() > 0 && remaining.get() > 0);
+                        return saveStatus(status);
+                    })
+                    .repeat(more::get)
+                    .then();
+            });
+    }
+
+    private void apply(RetentionDurationInfo.RetentionDurationInfoStatus status,
+        PurgeBatch batch) {
+        recordDeleted(status, batch);
+        status.setCheckpoint(batch.checkpoint());
+    }
+
+    private void recordDeleted(RetentionDurationInfo.RetentionDurationInfoStatus status,
+        PurgeBatch batch) {
+        counters.recordDeleted(batch.deleted(), batch.removed());
+        status.setLastRunDeleted(status.getLastRunDeleted() + batch.deleted())
+            .setTotalDeleted(status.getTotalDeleted() + batch.deleted());
+    }
+
+    private Mono<RetentionDurationInfo> fetchRetention() {
+        return client.fetch(RetentionDurationInfo.class, RetentionDurationInfo.NAME)
+            .doOnError(error -> log.error("获取规则失败", error))
+            .switchIfEmpty(Mono.defer(() -> {
+                RetentionDurationInfo info = new RetentionDurationInfo();
+                info.setMetadata(new Metadata());
+                info.getMetadata().setName(RetentionDurationInfo.NAME);
+                info.getSpec().setDay(7);
+                return client.create(info);
+            }));
+    }
+
+    /**
+     * 状态写回前重新读取，避免覆盖同时修改的保留设置。
+     */
+    private Mono<Void> saveStatus(RetentionDurationInfo.RetentionDurationInfoStatus status) {
+        return Mono.defer(() -> client.fetch(RetentionDurationInfo.class, RetentionDurationInfo.NAME)
+                .flatMap(info -> client.update(info.setStatus(status))))
+            .retryWhen(Retry.max(3).filter(OptimisticLockingFailureException.class::isInstance))
+            .then();
+    }
+}
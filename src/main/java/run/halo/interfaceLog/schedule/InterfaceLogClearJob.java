@@ -0,0 +1,124 @@
+package run.halo.interfaceLog.schedule;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import run.halo.interfaceLog.LogIdGenerator;
+import run.halo.interfaceLog.stats.InterfaceLogCounters;
+import run.halo.interfaceLog.stats.InterfaceLogFieldIndex;
+import run.halo.interfaceLog.stats.InterfaceLogHeavyHitters;
+import run.halo.interfaceLog.stats.InterfaceLogRollups;
+import run.halo.interfaceLog.store.InterfaceLogStore;
+import run.halo.interfaceLog.store.InterfaceLogStores;
+import run.halo.interfaceLog.store.PurgeBatch;
+import run.halo.interfaceLog.vo.ClearJobVO;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 在后台清空全部日志，按大批删除或整块删除，调用方立即拿到任务并轮询进度。
+ * 同一时刻只运行一个任务，进度只保存在内存中，重启后需要重新发起。
+ * 全部删完后删除汇总，并清空计数、字段取值字典和高频统计。
+ */
+@Slf4j
+@Component
+public class InterfaceLogClearJob {
+
+    public static final String STATE_RUNNING = "RUNNING";
+
+    public static final String STATE_SUCCEEDED = "SUCCEEDED";
+
+    public static final String STATE_FAILED = "FAILED";
+
+    static final int BATCH_SIZE = 1000;
+
+    static final int CONCURRENCY = 8;
+
+    private final InterfaceLogStores stores;
+
+    private final InterfaceLogCounters counters;
+
+    private final InterfaceLogFieldIndex fieldIndex;
+
+    private final InterfaceLogRollups rollups;
+
+    private final InterfaceLogHeavyHitters heavyHitters;
+
+    private ClearJobVO current;
+
+    public InterfaceLogClearJob(InterfaceLogStores stores, InterfaceLogCounters counters,
+        InterfaceLogFieldIndex fieldIndex, InterfaceLogRollups rollups,
+        InterfaceLogHeavyHitters heavyHitters) {
+        this.stores = stores;
+        this.counters = counters;
+        this.fieldIndex = fieldIndex;
+        this.rollups = rollups;
+        this.heavyHitters = heavyHitters;
+    }
+
+    /**
+     * 已有任务在运行时直接返回该任务。
+     */
+    public ClearJobVO start() {
+        ClearJobVO job;
+        synchronized (this) {
+            if (current != null && STATE_RUNNING.equals(current.getState())) {
+                return snapshot();
+            }
+            job = new ClearJobVO()
+                .setId(LogIdGenerator.nextId())
+                .setState(STATE_RUNNING)
+                .setStartedAt(System.currentTimeMillis());
+            current = job;
+        }
+        InterfaceLogStore store = stores.current();
+        AtomicBoolean more = new AtomicBoolean(true);
+        Mono.defer(() -> store.clearBatch(BATCH_SIZE, CONCURRENCY))
+            .doOnNext(batch -> {
+                progress(job, batch);
+                more.set(batch.deleted() > 0 && batch.backlog() > 0);
+            })
+            .repeat(more::get)
+            .then(Mono.defer(rollups::clear))
+            .then()
+            .subscribe(null,
+                error -> {
+                    log.error("Failed to clear interface logs", error);
+                    finish(job, STATE_FAILED, error.getMessage());
+                },
+                () -> finish(job, STATE_SUCCEEDED, null));
+        return snapshot();
+    }
+
+    /**
+     * 最近一次任务的进度，还没有发起过时返回 null。
+     */
+    public synchronized ClearJobVO snapshot() {
+        if (current == null) {
+            return null;
+        }
+        return new ClearJobVO()
+            .setId(current.getId())
+            .setState(current.getState())
+            .setDeleted(current.getDeleted())
+            .setRemaining(current.getRemaining())
+            .setStartedAt(current.getStartedAt())
+            .setFinishedAt(current.getFinishedAt())
+            .setError(current.getError());
+    }
+
+    private synchronized void progress(ClearJobVO job, PurgeBatch batch) {
+        counters.recordDeleted(batch.deleted(), batch.removed());
+        job.setDeleted(job.getDeleted() + batch.deleted()).setRemaining(batch.backlog());
+    }
+
+    private synchronized void finish(ClearJobVO job, String state, String error) {
+        job.setState(state).setError(error).setFinishedAt(System.currentTimeMillis());
+        if (STATE_SUCCEEDED.equals(state)) {
+            job.setRemaining(0);
+            counters.reset();
+            fieldIndex.clear();
+            heavyHitters.clear();
+        }
+    }
+}
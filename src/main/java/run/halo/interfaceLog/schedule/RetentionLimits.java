@@ -0,0 +1,67 @@
+package run.halo.interfaceLog.schedule;
+
+import run.halo.interfaceLog.extension.RetentionDurationInfo;
+import run.halo.interfaceLog.store.StorageUsage;
+
+/**
+ * 按条数、大小和磁盘剩余空间计算需要从最旧处删除的日志条数，几项限制同时生效，取需要删除最多的一项。
+ * 只使用存储后端汇总的占用，不遍历日志。
+ */
+final class RetentionLimits {
+
+    static final String REASON_MAX_RECORDS = "maxRecords";
+
+    static final String REASON_MAX_STORAGE_BYTES = "maxStorageBytes";
+
+    static final String REASON_MIN_FREE_DISK = "minFreeDiskPercent";
+
+    private RetentionLimits() {
+    }
+
+    /**
+     * @param records 需要删除的条数，0 表示没有超出限制
+     * @param reason 决定删除条数的限制，没有超出时为 null
+     */
+    record Excess(long records, String reason) {
+    }
+
+    static Excess excess(RetentionDurationInfo.RetentionDurationInfoSpec spec,
+        StorageUsage usage, long totalDiskBytes, long freeDiskBytes) {
+        long average = Math.max(1, usage.averageRecordBytes());
+        long records = 0;
+        String reason = null;
+
+        long maxRecords = valueOf(spec.getMaxRecords());
+        if (maxRecords > 0 && usage.records() - maxRecords > records) {
+            records = usage.records() - maxRecords;
+            reason = REASON_MAX_RECORDS;
+        }
+
+        long maxBytes = valueOf(spec.getMaxStorageBytes());
+        if (maxBytes > 0 && usage.bytes() > maxBytes) {
+            long byBytes = ceilDiv(usage.bytes() - maxBytes, average);
+            if (byBytes > records) {
+                records = byBytes;
+                reason = REASON_MAX_STORAGE_BYTES;
+            }
+        }
+
+        int minFreePercent = spec.getMinFreeDiskPercent() == null ? 0 : spec.getMinFreeDiskPercent();
+        if (minFreePercent > 0 && totalDiskBytes > 0) {
+            long shortage = ceilDiv(totalDiskBytes * minFreePercent, 100) - freeDiskBytes;
+            if (shortage > 0 && ceilDiv(shortage, average) > records) {
+                records = ceilDiv(shortage, average);
+                reason = REASON_MIN_FREE_DISK;
+            }
+        }
+        return new Excess(Math.min(records, usage.records()), reason);
+    }
+
+    private static long valueOf(Long value) {
+        return value == null ? 0 : value;
+    }
+
+    private static long ceilDiv(long dividend, long divisor) {
+        return (dividend + divisor - 1) / divisor;
+    }
+}
@@ -3,12 +3,22 @@ package run.halo.interfaceLog.service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import run.halo.app.extension.ListResult;
+import run.halo.interfaceLog.extension.InterfaceLogInfo;
 import run.halo.interfaceLog.request.InterfaceLogRequest;
+import run.halo.interfaceLog.vo.ClearJobVO;
 import run.halo.interfaceLog.vo.SelectorVO;
 import run.halo.interfaceLog.vo.InterfaceLogVO;
 
 public interface InterfaceLogService {
-    Mono<Boolean> deleteAll();
+    /**
+     * 在后台发起清空，立即返回任务，已有清空任务在运行时返回该任务。
+     */
+    Mono<ClearJobVO> deleteAll();
+
+    /**
+     * 最近一次清空任务的进度，没有发起过时为空。
+     */
+    Mono<ClearJobVO> getDeleteAllJob();
 
     Flux<SelectorVO> getAllUserInLog(String start);
 
@@ -21,4 +31,6 @@ public interface InterfaceLogService {
     Mono<ListResult<InterfaceLogVO>> getAllInterfaceLog(InterfaceLogRequest interfaceLogRequest);
 
     Mono<Long> count();
+
+    Mono<InterfaceLogInfo> getInterfaceLogDetail(String name);
 }
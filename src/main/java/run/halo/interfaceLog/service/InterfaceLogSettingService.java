@@ -0,0 +1,14 @@
+package run.halo.interfaceLog.service;
+
+import reactor.core.publisher.Mono;
+import run.halo.interfaceLog.extension.InterfaceLogSettingInfo;
+
+public interface InterfaceLogSettingService {
+    Mono<Boolean> setSetting(InterfaceLogSettingInfo.InterfaceLogSettingInfoSpec spec);
+
+    Mono<InterfaceLogSettingInfo> getSetting();
+
+    InterfaceLogSettingInfo.InterfaceLogSettingInfoSpec getCurrentSetting();
+
+    void applySetting(InterfaceLogSettingInfo.InterfaceLogSettingInfoSpec spec);
+}
@@ -8,4 +8,9 @@ public interface RetentionDurationInfoService {
     Mono<Boolean> setRetentionDurationInfo(RetentionDurationBodyParam retentionDuration);
 
     Mono<RetentionDurationInfo> getRetentionDuration();
+
+    /**
+     * 后台清理的进度，尚未清理过时返回初始状态。
+     */
+    Mono<RetentionDurationInfo.RetentionDurationInfoStatus> getRetentionStatus();
 } 
\ No newline at end of file
@@ -11,9 +11,8 @@ import run.halo.app.extension.ListOptions;
 import run.halo.app.extension.Metadata;
 import run.halo.app.extension.ReactiveExtensionClient;
 import run.halo.app.extension.index.query.QueryFactory;
-import run.halo.interfaceLog.filter.InterfaceLogFilter;
+import run.halo.interfaceLog.LogIdGenerator;
 import run.halo.interfaceLog.extension.InterfaceLogRuleInfo;
-import run.halo.interfaceLog.matcher.PathMatcher;
 import run.halo.interfaceLog.service.InterfaceLogRuleService;
 import run.halo.interfaceLog.vo.InterfaceLogRuleFileVO;
 import java.util.List;
@@ -25,8 +24,6 @@ public class InterfaceLogRuleServiceImpl implements InterfaceLogRuleService {
 
     private final ReactiveExtensionClient client;
 
-    private final PathMatcher pathMatcher;
-
     @Override
     public Mono<InterfaceLogRuleInfo> updateInterfaceLogRule(
         InterfaceLogRuleInfo interfaceLogRuleInfo) {
@@ -35,8 +32,7 @@ public class InterfaceLogRuleServiceImpl implements InterfaceLogRuleService {
             .flatMap(existing -> {
                 // 保持原有的 metadata，只更新 spec
                 existing.setSpec(interfaceLogRuleInfo.getSpec());
-                return client.update(existing)
-                    .doOnSuccess(i -> pathMatcher.refreshMatcher());
+                return client.update(existing);
             })
             .onErrorResume(e -> {
                 log.error("Failed to update interface log rule", e);
@@ -47,8 +43,12 @@ public class InterfaceLogRuleServiceImpl implements InterfaceLogRuleService {
     @Override
     public Mono<InterfaceLogRuleInfo> createInterfaceLogRule(
         InterfaceLogRuleInfo interfaceLogRuleInfo) {
+        // 名称由服务端生成，避免同一毫秒内创建的规则重名
+        if (interfaceLogRuleInfo.getMetadata() == null) {
+            interfaceLogRuleInfo.setMetadata(new Metadata());
+        }
+        interfaceLogRuleInfo.getMetadata().setName(LogIdGenerator.nextId());
         return client.create(interfaceLogRuleInfo)
-            .doOnSuccess(i -> pathMatcher.refreshMatcher())
             .onErrorResume(e -> {
                 log.error("Failed to update interface log rule", e);
                 return Mono.just(new InterfaceLogRuleInfo());
@@ -60,7 +60,7 @@ public class InterfaceLogRuleServiceImpl implements InterfaceLogRuleService {
         InterfaceLogRuleInfo interfaceLogRuleInfo) {
         return client.fetch(InterfaceLogRuleInfo.class,
                 interfaceLogRuleInfo.getMetadata().getName())
-            .flatMap(i -> client.delete(i).doOnSuccess(j -> pathMatcher.refreshMatcher()))
+            .flatMap(client::delete)
             .onErrorResume(e -> {
                 log.error("Failed to update interface log rule", e);
                 return Mono.just(new InterfaceLogRuleInfo());
@@ -90,12 +90,10 @@ public class InterfaceLogRuleServiceImpl implements InterfaceLogRuleService {
                 interfaceLogRuleInfo.getSpec().setVersion(rule.getVersion());
                 interfaceLogRuleInfo.getSpec().setIsInclude(rule.getIsInclude());
                 interfaceLogRuleInfo.setMetadata(new Metadata());
-                interfaceLogRuleInfo.getMetadata()
-                    .setName(String.valueOf(interfaceLogRuleInfo.getSpec().getId()));
+                interfaceLogRuleInfo.getMetadata().setName(LogIdGenerator.nextId());
                 return client.create(interfaceLogRuleInfo)
                     .doOnError(e -> log.error("Failed to import rule", e));
             })
-            .doOnNext(i->pathMatcher.refreshMatcher())
             .then(Mono.just(true))
             .onErrorResume(e -> {
                 log.error("Failed to import rules", e);
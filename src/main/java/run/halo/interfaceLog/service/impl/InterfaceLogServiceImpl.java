@@ -1,135 +1,127 @@
 package run.halo.interfaceLog.service.impl;
 
-import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Component;
-import org.springframework.util.ObjectUtils;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import run.halo.app.extension.ExtensionUtil;
-import run.halo.app.extension.ListOptions;
 import run.halo.app.extension.ListResult;
-import run.halo.app.extension.PageRequestImpl;
-import run.halo.app.extension.ReactiveExtensionClient;
-import run.halo.app.extension.index.query.QueryFactory;
+import run.halo.interfaceLog.codec.BodyCodecRegistry;
+import run.halo.interfaceLog.extension.InterfaceLogDetailInfo;
 import run.halo.interfaceLog.extension.InterfaceLogInfo;
 import run.halo.interfaceLog.request.InterfaceLogRequest;
+import run.halo.interfaceLog.schedule.InterfaceLogClearJob;
 import run.halo.interfaceLog.service.InterfaceLogService;
+import run.halo.interfaceLog.stats.InterfaceLogCounters;
+import run.halo.interfaceLog.stats.InterfaceLogFieldIndex;
+import run.halo.interfaceLog.store.InterfaceLogStore;
+import run.halo.interfaceLog.store.InterfaceLogStores;
+import run.halo.interfaceLog.vo.ClearJobVO;
 import run.halo.interfaceLog.vo.InterfaceLogVO;
 import run.halo.interfaceLog.vo.SelectorVO;
 
 @Component
 public class InterfaceLogServiceImpl implements InterfaceLogService {
-    private final ReactiveExtensionClient client;
+    /**
+     * 筛选框每次最多提示的取值数
+     */
+    private static final int SUGGESTION_LIMIT = 10;
 
-    public InterfaceLogServiceImpl(ReactiveExtensionClient client) {
-        this.client = client;
+    private final InterfaceLogStores stores;
+
+    private final BodyCodecRegistry bodyCodecRegistry;
+
+    private final InterfaceLogClearJob clearJob;
+
+    private final InterfaceLogCounters counters;
+
+    private final InterfaceLogFieldIndex fieldIndex;
+
+    public InterfaceLogServiceImpl(InterfaceLogStores stores,
+                                   BodyCodecRegistry bodyCodecRegistry,
+                                   InterfaceLogClearJob clearJob,
+                                   InterfaceLogCounters counters,
+                                   InterfaceLogFieldIndex fieldIndex) {
+        this.stores = stores;
+        this.bodyCodecRegistry = bodyCodecRegistry;
+        this.clearJob = clearJob;
+        this.counters = counters;
+        this.fieldIndex = fieldIndex;
     }
 
     @Override
-    public Mono<Boolean> deleteAll() {
-        return client.listAll(InterfaceLogInfo.class,
-                        ListOptions.builder()
-                                .andQuery(QueryFactory.all())
-                                .build(),
-                        Sort.unsorted())
-                .flatMap(client::delete)
-                .then(Mono.just(true));
+    public Mono<ClearJobVO> deleteAll() {
+        return Mono.fromSupplier(clearJob::start);
+    }
+
+    @Override
+    public Mono<ClearJobVO> getDeleteAllJob() {
+        return Mono.fromSupplier(clearJob::snapshot);
     }
 
     @Override
     public Flux<SelectorVO> getAllUserInLog(String start) {
-        return client.listAll(InterfaceLogInfo.class,
-                        ListOptions.builder()
-                                .andQuery(QueryFactory.startsWith("spec.username", start))
-                                .andQuery(QueryFactory.all("spec.username"))
-                                .build(),
-                        Sort.by("spec.username").ascending())
-                .map(i -> new SelectorVO(i.getSpec().getUsername(), "@" + i.getSpec().getUsername()));
+        return fieldIndex.values(InterfaceLogFieldIndex.FIELD_USERNAME, start, SUGGESTION_LIMIT)
+                .map(username -> new SelectorVO(username, "@" + username));
     }
 
     @Override
     public Flux<SelectorVO> getAllClientIPInLog(String start) {
-        return client.listAll(InterfaceLogInfo.class,
-                        ListOptions.builder()
-                                .andQuery(QueryFactory.startsWith("spec.clientIp", start))
-                                .andQuery(QueryFactory.all("spec.clientIp"))
-                                .build(),
-                        Sort.by("spec.clientIp").ascending())
-                .map(i -> new SelectorVO(i.getSpec().getClientIp(), i.getSpec().getClientIp()));
+        return fieldIndex.values(InterfaceLogFieldIndex.FIELD_CLIENT_IP, start, SUGGESTION_LIMIT)
+                .map(clientIp -> new SelectorVO(clientIp, clientIp));
     }
 
     @Override
     public Flux<SelectorVO> getAllRequestPathInLog(String start) {
-        return client.listAll(InterfaceLogInfo.class,
-                        ListOptions.builder()
-                                .andQuery(QueryFactory.startsWith("spec.path", start))
-                                .andQuery(QueryFactory.all("spec.path"))
-                                .build(),
-                        Sort.by("spec.path").ascending())
-                .map(i -> new SelectorVO(i.getSpec().getPath(), i.getSpec().getPath()));
+        return fieldIndex.values(InterfaceLogFieldIndex.FIELD_PATH, start, SUGGESTION_LIMIT)
+                .map(path -> new SelectorVO(path, path));
     }
 
     @Override
     public Mono<ListResult<InterfaceLogVO>> getInterfaceLogByCondition(
             InterfaceLogRequest interfaceLogRequest) {
-        ListOptions.ListOptionsBuilder builder = ListOptions.builder();
-
-        // todo 空字符串校验
-        if (!ObjectUtils.isEmpty(interfaceLogRequest.getUsername())) {
-            builder.andQuery(
-                    QueryFactory.in("spec.username", interfaceLogRequest.getUsername()));
-        }
-
-        if (!ObjectUtils.isEmpty(interfaceLogRequest.getClientIp())) {
-            builder.andQuery(
-                    QueryFactory.in("spec.clientIp", interfaceLogRequest.getClientIp()));
-        }
-
-        if (!ObjectUtils.isEmpty(interfaceLogRequest.getPath())) {
-            builder.andQuery(
-                    QueryFactory.in("spec.path", interfaceLogRequest.getPath()));
-        }
-
-        if (!ObjectUtils.isEmpty(interfaceLogRequest.getAccessTimes())) {
-            builder.andQuery(
-                    QueryFactory.between("spec.accessTime", interfaceLogRequest.getAccessTimes().get(0),
-                            interfaceLogRequest.getAccessTimes().get(1)));
-        }
-
-        ListOptions listOptions = builder.build();
-
-        return client.listBy(InterfaceLogInfo.class,
-                        listOptions,
-                        PageRequestImpl.of(Integer.parseInt(interfaceLogRequest.getPage()),
-                                Integer.parseInt(interfaceLogRequest.getSize()),
-                                Sort.by("spec.accessTime").descending()))
+        return stores.current().search(interfaceLogRequest)
                 .map(i -> new ListResult<>(i.getPage(), i.getSize(), i.getTotal(), i.get().map(InterfaceLogVO::new).toList()));
     }
 
     @Override
     public Mono<ListResult<InterfaceLogVO>> getAllInterfaceLog(
             InterfaceLogRequest interfaceLogRequest) {
-        return client.listBy(InterfaceLogInfo.class,
-                        ListOptions.builder()
-                                .andQuery(QueryFactory.all())
-                                .build(),
-                        PageRequestImpl.of(
-                                Integer.parseInt(interfaceLogRequest.getPage()),
-                                Integer.parseInt(interfaceLogRequest.getSize()),
-                                Sort.by("spec.accessTime").descending()
-                        )
-                )
+        // 只保留分页和排序参数，忽略筛选条件
+        InterfaceLogRequest pageRequest = new InterfaceLogRequest();
+        pageRequest.setPage(interfaceLogRequest.getPage());
+        pageRequest.setSize(interfaceLogRequest.getSize());
+        pageRequest.setSort(interfaceLogRequest.getSort());
+        return stores.current().search(pageRequest)
                 .map(i -> new ListResult<>(i.getPage(), i.getSize(), i.getTotal(), i.get().map(InterfaceLogVO::new).toList()));
     }
 
+    /**
+     * 读内存计数，不再访问存储。
+     */
     @Override
     public Mono<Long> count() {
-        return client.listAll(InterfaceLogInfo.class,
-                        ListOptions.builder()
-                                .andQuery(QueryFactory.all())
-                                .build(),
-                        Sort.unsorted())
-                .filter(i -> !ExtensionUtil.isDeleted(i))
-                .count();
+        return counters.count();
+    }
+
+    /**
+     * 摘要与明细合并后返回，明细只在这里按名称读取和解压。
+     * 拆分前的旧记录没有明细，直接使用摘要里的字段。
+     */
+    @Override
+    @SuppressWarnings("deprecation")
+    public Mono<InterfaceLogInfo> getInterfaceLogDetail(String name) {
+        InterfaceLogStore store = stores.current();
+        return store.findSummary(name)
+                .flatMap(info -> store.findDetail(name)
+                        .defaultIfEmpty(InterfaceLogDetailInfo.fromLegacy(info))
+                        .map(bodyCodecRegistry::decode)
+                        .map(detail -> {
+                            info.getSpec()
+                                    .setRequestHeader(detail.getSpec().getRequestHeader())
+                                    .setRequestBody(detail.getSpec().getRequestBody())
+                                    .setResponseHeader(detail.getSpec().getResponseHeader())
+                                    .setResponseBody(detail.getSpec().getResponseBody())
+                                    .setBodyCodec(null);
+                            return info;
+                        }));
     }
 }
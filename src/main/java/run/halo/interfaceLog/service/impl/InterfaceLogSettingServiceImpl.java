@@ -0,0 +1,162 @@
+package run.halo.interfaceLog.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import run.halo.app.extension.Metadata;
+import run.halo.app.extension.ReactiveExtensionClient;
+import run.halo.interfaceLog.extension.InterfaceLogSettingInfo;
+import run.halo.interfaceLog.service.InterfaceLogSettingService;
+
+@Service
+@Slf4j
+public class InterfaceLogSettingServiceImpl implements InterfaceLogSettingService {
+
+    private final ReactiveExtensionClient client;
+
+    // 请求链路上只读这份缓存，由 InterfaceLogSettingReconciler 保持与存储一致
+    private volatile InterfaceLogSettingInfo.InterfaceLogSettingInfoSpec current =
+        new InterfaceLogSettingInfo.InterfaceLogSettingInfoSpec();
+
+    public InterfaceLogSettingServiceImpl(ReactiveExtensionClient client) {
+        this.client = client;
+    }
+
+    /**
+     * 未填写的项取默认值，取值不合法时返回 {@link IllegalArgumentException}，不写入存储。
+     */
+    @Override
+    public Mono<Boolean> setSetting(InterfaceLogSettingInfo.InterfaceLogSettingInfoSpec spec) {
+        try {
+            validate(withDefaults(spec));
+        } catch (IllegalArgumentException e) {
+            return Mono.error(e);
+        }
+        return client.fetch(InterfaceLogSettingInfo.class, InterfaceLogSettingInfo.NAME)
+            .flatMap(existing -> {
+                existing.setSpec(spec);
+                return client.update(existing);
+            })
+            .switchIfEmpty(Mono.defer(() -> {
+                InterfaceLogSettingInfo info = new InterfaceLogSettingInfo();
+                info.setSpec(spec);
+                info.setMetadata(new Metadata());
+                info.getMetadata().setName(InterfaceLogSettingInfo.NAME);
+                return client.create(info);
+            }))
+            .doOnNext(info -> applySetting(info.getSpec()))
+            .thenReturn(true)
+            .onErrorResume(e -> {
+                log.error("Failed to set interface log setting", e);
+                return Mono.just(false);
+            });
+    }
+
+    @Override
+    public Mono<InterfaceLogSettingInfo> getSetting() {
+        return client.fetch(InterfaceLogSettingInfo.class, InterfaceLogSettingInfo.NAME)
+            .switchIfEmpty(Mono.fromSupplier(() -> {
+                InterfaceLogSettingInfo info = new InterfaceLogSettingInfo();
+                info.setSpec(current);
+                info.setMetadata(new Metadata());
+                info.getMetadata().setName(InterfaceLogSettingInfo.NAME);
+                return info;
+            }));
+    }
+
+    @Override
+    public InterfaceLogSettingInfo.InterfaceLogSettingInfoSpec getCurrentSetting() {
+        return current;
+    }
+
+    @Override
+    public void applySetting(InterfaceLogSettingInfo.InterfaceLogSettingInfoSpec spec) {
+        this.current = withDefaults(spec);
+    }
+
+    /**
+     * 接口允许只提交部分设置，请求链路上读取的设置不能有空值，缺的项补上默认值。
+     */
+    private static InterfaceLogSettingInfo.InterfaceLogSettingInfoSpec withDefaults(
+        InterfaceLogSettingInfo.InterfaceLogSettingInfoSpec spec) {
+        InterfaceLogSettingInfo.InterfaceLogSettingInfoSpec defaults =
+            new InterfaceLogSettingInfo.InterfaceLogSettingInfoSpec();
+        if (spec == null) {
+            return defaults;
+        }
+        if (spec.getWriter() == null) {
+            spec.setWriter(defaults.getWriter());
+        }
+        if (spec.getSampling() == null) {
+            spec.setSampling(defaults.getSampling());
+        }
+        if (spec.getPersistence() == null) {
+            spec.setPersistence(defaults.getPersistence());
+        }
+        if (spec.getCompression() == null) {
+            spec.setCompression(defaults.getCompression());
+        }
+        if (spec.getStorage() == null) {
+            spec.setStorage(defaults.getStorage());
+        }
+        if (spec.getCapture() == null) {
+            spec.setCapture(defaults.getCapture());
+        }
+        InterfaceLogSettingInfo.WriterSetting writer = spec.getWriter();
+        InterfaceLogSettingInfo.WriterSetting writerDefaults = defaults.getWriter();
+        writer
+            .setQueueCapacity(orElse(writer.getQueueCapacity(), writerDefaults.getQueueCapacity()))
+            .setBatchSize(orElse(writer.getBatchSize(), writerDefaults.getBatchSize()))
+            .setFlushIntervalMillis(
+                orElse(writer.getFlushIntervalMillis(), writerDefaults.getFlushIntervalMillis()))
+            .setMaxRetries(orElse(writer.getMaxRetries(), writerDefaults.getMaxRetries()))
+            .setOverloadPolicy(
+                orElse(writer.getOverloadPolicy(), writerDefaults.getOverloadPolicy()))
+            .setBlockTimeoutMillis(
+                orElse(writer.getBlockTimeoutMillis(), writerDefaults.getBlockTimeoutMillis()))
+            .setBodyDropRatio(orElse(writer.getBodyDropRatio(), writerDefaults.getBodyDropRatio()));
+        InterfaceLogSettingInfo.CaptureSetting capture = spec.getCapture();
+        InterfaceLogSettingInfo.CaptureSetting captureDefaults = defaults.getCapture();
+        capture
+            .setMaxBodyBytes(orElse(capture.getMaxBodyBytes(), captureDefaults.getMaxBodyBytes()))
+            .setTruncationMarker(
+                orElse(capture.getTruncationMarker(), captureDefaults.getTruncationMarker()))
+            .setAllowContentTypes(
+                orElse(capture.getAllowContentTypes(), captureDefaults.getAllowContentTypes()))
+            .setDenyContentTypes(
+                orElse(capture.getDenyContentTypes(), captureDefaults.getDenyContentTypes()))
+            .setMemoryBudgetBytes(
+                orElse(capture.getMemoryBudgetBytes(), captureDefaults.getMemoryBudgetBytes()))
+            .setTailMode(orElse(capture.getTailMode(), captureDefaults.getTailMode()))
+            .setTailStatuses(orElse(capture.getTailStatuses(), captureDefaults.getTailStatuses()))
+            .setSlowThresholdMillis(
+                orElse(capture.getSlowThresholdMillis(), captureDefaults.getSlowThresholdMillis()));
+        return spec;
+    }
+
+    private static void validate(InterfaceLogSettingInfo.InterfaceLogSettingInfoSpec spec) {
+        InterfaceLogSettingInfo.WriterSetting writer = spec.getWriter();
+        require(writer.getQueueCapacity() > 0, "writer.queueCapacity must be positive");
+        require(writer.getBatchSize() > 0, "writer.batchSize must be positive");
+        require(writer.getFlushIntervalMillis() > 0, "writer.flushIntervalMillis must be positive");
+        require(writer.getMaxRetries() >= 0, "writer.maxRetries must not be negative");
+        require(writer.getBlockTimeoutMillis() >= 0,
+            "writer.blockTimeoutMillis must not be negative");
+        require(writer.getBodyDropRatio() > 0 && writer.getBodyDropRatio() <= 1,
+            "writer.bodyDropRatio must be in (0, 1]");
+        InterfaceLogSettingInfo.CaptureSetting capture = spec.getCapture();
+        require(capture.getMaxBodyBytes() >= 0, "capture.maxBodyBytes must not be negative");
+        require(capture.getSlowThresholdMillis() >= 0,
+            "capture.slowThresholdMillis must not be negative");
+    }
+
+    private static void require(boolean valid, String message) {
+        if (!valid) {
+            throw new IllegalArgumentException(message);
+        }
+    }
+
+    private static <T> T orElse(T value, T defaultValue) {
+        return value == null ? defaultValue : value;
+    }
+}
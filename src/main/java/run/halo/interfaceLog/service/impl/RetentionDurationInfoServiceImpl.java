@@ -34,12 +34,12 @@ public class RetentionDurationInfoServiceImpl implements RetentionDurationInfoSe
                     RetentionDurationInfo info = new RetentionDurationInfo();
                     info.setSpec(new RetentionDurationInfo.RetentionDurationInfoSpec());
                     info.setMetadata(new Metadata());
-                    info.getSpec().setDay(retentionDuration.getDays());
-                    info.getMetadata().setName("interface-log-retention-duration");
+                    apply(info.getSpec(), retentionDuration);
+                    info.getMetadata().setName(RetentionDurationInfo.NAME);
                     return client.create(info).thenReturn(true);
                 } else {
                     RetentionDurationInfo existingInfo = list.get(0);
-                    existingInfo.getSpec().setDay(retentionDuration.getDays());
+                    apply(existingInfo.getSpec(), retentionDuration);
                     return client.update(existingInfo).thenReturn(true);
                 }
             })
@@ -62,10 +62,45 @@ public class RetentionDurationInfoServiceImpl implements RetentionDurationInfoSe
                     info.setSpec(new RetentionDurationInfo.RetentionDurationInfoSpec());
                     info.setMetadata(new Metadata());
                     info.getSpec().setDay(7);
-                    info.getMetadata().setName("interface-log-retention-duration");
+                    info.getMetadata().setName(RetentionDurationInfo.NAME);
                     return client.create(info);
                 }
                 return Mono.just(list.get(0));
             });
     }
-} 
\ No newline at end of file
+
+    @Override
+    public Mono<RetentionDurationInfo.RetentionDurationInfoStatus> getRetentionStatus() {
+        return getRetentionDuration()
+            .map(info -> info.getStatus() == null
+                ? new RetentionDurationInfo.RetentionDurationInfoStatus() : info.getStatus());
+    }
+
+    private void apply(RetentionDurationInfo.RetentionDurationInfoSpec spec,
+        RetentionDurationBodyParam param) {
+        if (param.getDays() != null) {
+            spec.setDay(param.getDays());
+        }
+        if (param.getIntervalSeconds() != null) {
+            spec.setIntervalSeconds(param.getIntervalSeconds());
+        }
+        if (param.getBatchSize() != null) {
+            spec.setBatchSize(param.getBatchSize());
+        }
+        if (param.getConcurrency() != null) {
+            spec.setConcurrency(param.getConcurrency());
+        }
+        if (param.getMaxDeletesPerSecond() != null) {
+            spec.setMaxDeletesPerSecond(param.getMaxDeletesPerSecond());
+        }
+        if (param.getMaxRecords() != null) {
+            spec.setMaxRecords(param.getMaxRecords());
+        }
+        if (param.getMaxStorageBytes() != null) {
+            spec.setMaxStorageBytes(param.getMaxStorageBytes());
+        }
+        if (param.getMinFreeDiskPercent() != null) {
+            spec.setMinFreeDiskPercent(param.getMinFreeDiskPercent());
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package run.halo.interfaceLog.stats;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 单个字段的去重取值字典，按取值排序，前缀查询只遍历以该前缀开头的一段。
+ * <p>每个取值记录出现次数和最后出现的日期，按日期移除已过期的取值。
+ * 取值超过上限时只淘汰次数最少的一小部分（次数相同时先淘汰最后出现较早的），
+ * 淘汰过的字典不再完整，调用方需要回退到存储查询。</p>
+ */
+class FieldValueDictionary {
+
+    private final int maxValues;
+
+    /**
+     * 一次淘汰到上限以下留出的余量，避免满载后每次写入都全表扫描
+     */
+    private final int headroom;
+
+    private volatile boolean truncated;
+
+    private final ConcurrentSkipListMap<String, Entry> values = new ConcurrentSkipListMap<>();
+
+    FieldValueDictionary(int maxValues) {
+        this.maxValues = maxValues;
+        this.headroom = Math.max(1, maxValues / 10);
+    }
+
+    /**
+     * @param day 访问日期，yyyy-MM-dd
+     */
+    void record(String value, String day) {
+        if (value == null || value.isEmpty()) {
+            return;
+        }
+        Entry entry = values.computeIfAbsent(value, key -> new Entry());
+        entry.count.incrementAndGet();
+        entry.lastSeen.accumulateAndGet(day,
+            (current, next) -> current.compareTo(next) < 0 ? next : current);
+        if (values.size() > maxValues) {
+            evict();
+        }
+    }
+
+    /**
+     * 以 prefix 开头、出现次数最多的 limit 个取值，次数相同时按取值排序。
+     */
+    List<String> top(String prefix, int limit) {
+        ConcurrentNavigableMap<String, Entry> range = prefix == null || prefix.isEmpty()
+            ? values : values.subMap(prefix, true, prefix + Character.MAX_VALUE, true);
+        Comparator<Map.Entry<String, Long>> order = Map.Entry.<String, Long>comparingByValue()
+            .thenComparing(Map.Entry.<String, Long>comparingByKey().reversed());
+        PriorityQueue<Map.Entry<String, Long>> top = new PriorityQueue<>(order);
+        range.forEach((value, entry) -> {
+            top.offer(Map.entry(value, entry.count.get()));
+            if (top.size() > limit) {
+                top.poll();
+            }
+        });
+        List<String> result = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            result.add(0, top.poll().getKey());
+        }
+        return result;
+    }
+
+    /**
+     * 移除最后出现日期早于 day 的取值。
+     */
+    void pruneBefore(String day) {
+        values.values().removeIf(entry -> entry.lastSeen.get().compareTo(day) < 0);
+    }
+
+    void clear() {
+        values.clear();
+        truncated = false;
+    }
+
+    /**
+     * 是否淘汰过取值，淘汰后字典里查不到的取值可能仍在存储中。
+     */
+    boolean isTruncated() {
+        return truncated;
+    }
+
+    int size() {
+        return values.size();
+    }
+
+    private synchronized void evict() {
+        int excess = values.size() - maxValues + headroom;
+        if (values.size() <= maxValues || excess <= 0) {
+            return;
+        }
+        // 大顶堆只保留次数最少的 excess 项
+        Comparator<Map.Entry<String, Entry>> order =
+            Comparator.<Map.Entry<String, Entry>>comparingLong(e -> e.getValue().count.get())
+                .thenComparing(e -> e.getValue().lastSeen.get());
+        PriorityQueue<Map.Entry<String, Entry>> lowest = new PriorityQueue<>(order.reversed());
+        for (Map.Entry<String, Entry> entry : values.entrySet()) {
+            lowest.offer(Map.entry(entry.getKey(), entry.getValue()));
+            if (lowest.size() > excess) {
+                lowest.poll();
+            }
+        }
+        lowest.forEach(entry -> values.remove(entry.getKey(), entry.getValue()));
+        truncated = true;
+    }
+
+    private static class Entry {
+        private final AtomicLong count = new AtomicLong();
+
+        private final AtomicReference<String> lastSeen = new AtomicReference<>("");
+    }
+}
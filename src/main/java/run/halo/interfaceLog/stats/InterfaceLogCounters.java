@@ -0,0 +1,199 @@
+package run.halo.interfaceLog.stats;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import run.halo.interfaceLog.extension.InterfaceLogInfo;
+import run.halo.interfaceLog.store.InterfaceLogStores;
+import run.halo.interfaceLog.store.LogCounts;
+import run.halo.interfaceLog.vo.CountStatsVO;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 内存中的日志计数：总数、每天、每个响应状态类别，写入和删除时更新，读取是常数时间。
+ * <p>删除按批次带回的分项扣减每天、每个状态类别的条数，后端给不出分项时只扣总数，过期的日期整天移除。
+ * 每 10 分钟用存储后端的统计校准一次，校准期间发生的写入和删除会补到结果上，
+ * 每天、每个状态类别按 key 补回净变化。</p>
+ */
+@Slf4j
+@Component
+@EnableScheduling
+public class InterfaceLogCounters {
+
+    private final InterfaceLogStores stores;
+
+    private final ZoneId zone = ZoneId.systemDefault();
+
+    private final AtomicLong total = new AtomicLong();
+
+    private final AtomicBoolean reconciling = new AtomicBoolean(false);
+
+    /**
+     * 只增不减，用于计算校准期间的变化
+     */
+    private final LongAdder written = new LongAdder();
+
+    private final LongAdder deleted = new LongAdder();
+
+    private volatile ConcurrentMap<String, LongAdder> perDay = new ConcurrentHashMap<>();
+
+    private volatile ConcurrentMap<String, LongAdder> perStatusClass = new ConcurrentHashMap<>();
+
+    private volatile long reconciledAt;
+
+    public InterfaceLogCounters(InterfaceLogStores stores) {
+        this.stores = stores;
+    }
+
+    public void recordWritten(InterfaceLogInfo interfaceLogInfo) {
+        InterfaceLogInfo.InterfaceLogInfoSpec spec = interfaceLogInfo.getSpec();
+        long time = spec.getAccessTime() == null
+            ? System.currentTimeMillis() : spec.getAccessTime().getTime();
+        total.incrementAndGet();
+        written.increment();
+        perDay.computeIfAbsent(dayOf(time), key -> new LongAdder()).increment();
+        perStatusClass.computeIfAbsent(LogCounts.statusClassOf(spec.getResponseStatus()),
+            key -> new LongAdder()).increment();
+    }
+
+    /**
+     * @param removed 删除日志的分项，为 null 时只扣减总数
+     */
+    public void recordDeleted(long count, LogCounts removed) {
+        if (count <= 0) {
+            return;
+        }
+        total.updateAndGet(value -> Math.max(0, value - count));
+        deleted.add(count);
+        if (removed != null) {
+            removed.perDay().forEach((day, n) -> subtract(perDay, day, n));
+            removed.perStatusClass().forEach((statusClass, n) ->
+                subtract(perStatusClass, statusClass, n));
+        }
+    }
+
+    /**
+     * 按天数清理后移除整天都早于截止时间的日期。
+     */
+    public void pruneDaysBefore(long epochMillis) {
+        String cutoffDay = dayOf(epochMillis);
+        perDay.keySet().removeIf(day -> day.compareTo(cutoffDay) < 0);
+    }
+
+    /**
+     * 清空全部日志后归零，清空期间新写入的日志等下次校准补上。
+     */
+    public void reset() {
+        total.set(0);
+        perDay = new ConcurrentHashMap<>();
+        perStatusClass = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * 还没有校准过时直接问存储后端。
+     */
+    public Mono<Long> count() {
+        if (reconciledAt == 0) {
+            return stores.current().count();
+        }
+        return Mono.just(total.get());
+    }
+
+    public CountStatsVO stats() {
+        return new CountStatsVO()
+            .setTotal(total.get())
+            .setPerDay(snapshot(perDay))
+            .setPerStatusClass(snapshot(perStatusClass))
+            .setReconciledAt(reconciledAt);
+    }
+
+    @Scheduled(initialDelay = 5_000, fixedDelay = 600_000)
+    public void reconcile() {
+        reconcileNow().subscribe(null,
+            error -> log.warn("Failed to reconcile interface log counters", error));
+    }
+
+    Mono<Void> reconcileNow() {
+        if (!reconciling.compareAndSet(false, true)) {
+            return Mono.empty();
+        }
+        long writtenBefore = written.sum();
+        long deletedBefore = deleted.sum();
+        Map<String, Long> perDayBefore = snapshot(perDay);
+        Map<String, Long> perStatusClassBefore = snapshot(perStatusClass);
+        return stores.current().countAll(zone)
+            .doOnNext(counts -> {
+                long drift = (written.sum() - writtenBefore) - (deleted.sum() - deletedBefore);
+                total.set(Math.max(0, counts.total() + drift));
+                // 先换上新表，之后的写入直接计入新表，再把旧表在校准期间的增量补过去
+                ConcurrentMap<String, LongAdder> previousPerDay = perDay;
+                ConcurrentMap<String, LongAdder> previousPerStatusClass = perStatusClass;
+                perDay = toAdders(counts.perDay());
+                perStatusClass = toAdders(counts.perStatusClass());
+                addIncrements(perDay, previousPerDay, perDayBefore);
+                addIncrements(perStatusClass, previousPerStatusClass, perStatusClassBefore);
+                reconciledAt = System.currentTimeMillis();
+            })
+            .doFinally(signal -> reconciling.set(false))
+            .then();
+    }
+
+    private String dayOf(long epochMillis) {
+        return LocalDate.ofInstant(Instant.ofEpochMilli(epochMillis), zone).toString();
+    }
+
+    private static ConcurrentMap<String, LongAdder> toAdders(Map<String, Long> counts) {
+        ConcurrentMap<String, LongAdder> adders = new ConcurrentHashMap<>();
+        counts.forEach((key, value) -> {
+            LongAdder adder = new LongAdder();
+            adder.add(value);
+            adders.put(key, adder);
+        });
+        return adders;
+    }
+
+    private static void addIncrements(ConcurrentMap<String, LongAdder> target,
+        Map<String, LongAdder> previous, Map<String, Long> before) {
+        previous.forEach((key, adder) -> {
+            long increment = adder.sum() - before.getOrDefault(key, 0L);
+            if (increment > 0) {
+                target.computeIfAbsent(key, k -> new LongAdder()).add(increment);
+            } else if (increment < 0) {
+                subtract(target, key, -increment);
+            }
+        });
+    }
+
+    /**
+     * 扣减到 0 为止，key 保留给并发的写入继续累加。
+     */
+    private static void subtract(ConcurrentMap<String, LongAdder> adders, String key, long n) {
+        adders.computeIfPresent(key, (k, adder) -> {
+            adder.add(-Math.min(n, Math.max(0, adder.sum())));
+            return adder;
+        });
+    }
+
+    private static Map<String, Long> snapshot(Map<String, LongAdder> adders) {
+        Map<String, Long> snapshot = new TreeMap<>();
+        adders.forEach((key, adder) -> {
+            long count = adder.sum();
+            if (count > 0) {
+                snapshot.put(key, count);
+            }
+        });
+        return snapshot;
+    }
+}
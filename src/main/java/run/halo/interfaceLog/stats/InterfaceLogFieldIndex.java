@@ -0,0 +1,158 @@
+package run.halo.interfaceLog.stats;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import run.halo.interfaceLog.extension.InterfaceLogInfo;
+import run.halo.interfaceLog.store.InterfaceLogStore;
+import run.halo.interfaceLog.store.InterfaceLogStores;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * 用户名、IP、路径的取值字典，供筛选框自动补全，查询不再访问存储。
+ * <p>写入日志时累加取值，按天数清理后移除已过期的取值，清空全部日志时一起清空。
+ * 启动后从存储读取一次已有取值预热，预热完成前仍直接查询存储；取值多到超过预热上限时不再预热，
+ * 一直查询存储，避免字典只有排在前面的取值。</p>
+ */
+@Slf4j
+@Component
+@EnableScheduling
+public class InterfaceLogFieldIndex {
+
+    public static final String FIELD_USERNAME = "spec.username";
+
+    public static final String FIELD_CLIENT_IP = "spec.clientIp";
+
+    public static final String FIELD_PATH = "spec.path";
+
+    static final int MAX_VALUES = 10_000;
+
+    /**
+     * 预热时每个字段最多读取的不同取值数
+     */
+    static final int WARM_UP_VALUES = 100_000;
+
+    private static final Map<String, Function<InterfaceLogInfo, String>> GETTERS = Map.of(
+        FIELD_USERNAME, info -> info.getSpec().getUsername(),
+        FIELD_CLIENT_IP, info -> info.getSpec().getClientIp(),
+        FIELD_PATH, info -> info.getSpec().getPath());
+
+    private final InterfaceLogStores stores;
+
+    private final ZoneId zone = ZoneId.systemDefault();
+
+    private final Map<String, FieldValueDictionary> dictionaries = Map.of(
+        FIELD_USERNAME, new FieldValueDictionary(MAX_VALUES),
+        FIELD_CLIENT_IP, new FieldValueDictionary(MAX_VALUES),
+        FIELD_PATH, new FieldValueDictionary(MAX_VALUES));
+
+    private final AtomicBoolean warming = new AtomicBoolean(false);
+
+    private volatile boolean warmedUp;
+
+    /**
+     * 预热时某个字段的取值超过上限，不再重试
+     */
+    private volatile boolean truncated;
+
+    public InterfaceLogFieldIndex(InterfaceLogStores stores) {
+        this.stores = stores;
+    }
+
+    public void recordWritten(InterfaceLogInfo interfaceLogInfo) {
+        InterfaceLogInfo.InterfaceLogInfoSpec spec = interfaceLogInfo.getSpec();
+        String day = dayOf(spec.getAccessTime() == null
+            ? System.currentTimeMillis() : spec.getAccessTime().getTime());
+        GETTERS.forEach((field, getter) ->
+            dictionaries.get(field).record(getter.apply(interfaceLogInfo), day));
+    }
+
+    /**
+     * 预热完成前从存储读取，按取值排序而不是按出现次数。
+     * 字典淘汰过取值且凑不满 limit 个时同样回退到存储，避免冷门取值查不到。
+     */
+    public Flux<String> values(String field, String prefix, int limit) {
+        FieldValueDictionary dictionary = dictionaries.get(field);
+        if (dictionary == null) {
+            return Flux.error(new IllegalArgumentException("Unsupported field: " + field));
+        }
+        if (!warmedUp) {
+            return stores.current().fieldValues(field, prefix).distinct().take(limit);
+        }
+        return Flux.defer(() -> {
+            List<String> top = dictionary.top(prefix, limit);
+            if (top.size() < limit && dictionary.isTruncated()) {
+                return stores.current().fieldValues(field, prefix).distinct().take(limit);
+            }
+            return Flux.fromIterable(top);
+        });
+    }
+
+    /**
+     * 移除最后出现时间整天早于截止时间的取值。
+     */
+    public void pruneDaysBefore(long epochMillis) {
+        String cutoffDay = dayOf(epochMillis);
+        dictionaries.values().forEach(dictionary -> dictionary.pruneBefore(cutoffDay));
+    }
+
+    public void clear() {
+        dictionaries.values().forEach(FieldValueDictionary::clear);
+    }
+
+    @Scheduled(initialDelay = 5_000, fixedDelay = 60_000)
+    public void warmUp() {
+        if (warmedUp || truncated) {
+            return;
+        }
+        warmUpNow().subscribe(null,
+            error -> log.warn("Failed to warm up interface log field index", error));
+    }
+
+    /**
+     * 存储按取值排序返回，相邻去重后计数；预热的取值都记为今天出现，按天数清理时会多保留几天。
+     */
+    Mono<Void> warmUpNow() {
+        if (!warming.compareAndSet(false, true)) {
+            return Mono.empty();
+        }
+        InterfaceLogStore store = stores.current();
+        String today = dayOf(System.currentTimeMillis());
+        return Flux.fromIterable(dictionaries.entrySet())
+            .concatMap(entry -> store.fieldValues(entry.getKey(), "")
+                .distinctUntilChanged()
+                .take(WARM_UP_VALUES + 1L)
+                .index()
+                .doOnNext(indexed -> {
+                    if (indexed.getT1() < WARM_UP_VALUES) {
+                        entry.getValue().record(indexed.getT2(), today);
+                    } else {
+                        truncated = true;
+                    }
+                }))
+            .then(Mono.fromRunnable(() -> {
+                if (truncated) {
+                    log.info("Interface log field values exceed {}, skip warming up",
+                        WARM_UP_VALUES);
+                } else {
+                    warmedUp = true;
+                }
+            }))
+            .doFinally(signal -> warming.set(false))
+            .then();
+    }
+
+    private String dayOf(long epochMillis) {
+        return LocalDate.ofInstant(Instant.ofEpochMilli(epochMillis), zone).toString();
+    }
+}
@@ -0,0 +1,137 @@
+package run.halo.interfaceLog.stats;
+
+import org.springframework.stereotype.Component;
+import run.halo.interfaceLog.extension.InterfaceLogInfo;
+import run.halo.interfaceLog.vo.HeavyHittersVO;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * 最近一小时内请求最多的路径、IP 和用户，每个采集到的请求都会计入。
+ * <p>每分钟一组 {@link SpaceSaving} 统计，共 60 组循环使用，查询时合并所选分钟数内的统计，
+ * 内存只与计数器个数有关，与取值种类无关。未被采样的请求不会到达这里，采样的请求按采样权重计数，
+ * 非整数权重的换算与 {@link InterfaceLogRollups} 相同。</p>
+ */
+@Component
+public class InterfaceLogHeavyHitters {
+
+    public static final String FIELD_PATH = "path";
+
+    public static final String FIELD_CLIENT_IP = "clientIp";
+
+    public static final String FIELD_USERNAME = "username";
+
+    static final int WINDOW_MINUTES = 60;
+
+    /**
+     * 每分钟每个维度的计数器个数
+     */
+    static final int CAPACITY = 200;
+
+    private static final long MINUTE_MILLIS = 60_000L;
+
+    private final Slot[] slots = new Slot[WINDOW_MINUTES];
+
+    private final LongSupplier clock;
+
+    public InterfaceLogHeavyHitters() {
+        this(System::currentTimeMillis);
+    }
+
+    InterfaceLogHeavyHitters(LongSupplier clock) {
+        this.clock = clock;
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = new Slot();
+        }
+    }
+
+    public void record(InterfaceLogInfo interfaceLogInfo) {
+        InterfaceLogInfo.InterfaceLogInfoSpec spec = interfaceLogInfo.getSpec();
+        long weight = SampleWeights.count(spec.getSampleWeight());
+        Slot slot = current(clock.getAsLong() / MINUTE_MILLIS);
+        slot.path.offer(spec.getPath(), weight);
+        slot.clientIp.offer(spec.getClientIp(), weight);
+        slot.username.offer(spec.getUsername(), weight);
+    }
+
+    /**
+     * @param field path、clientIp 或 username
+     * @param minutes 最近的分钟数，包含当前这一分钟，1 到 60
+     * @param limit 返回的条数，不超过每分钟的计数器个数
+     */
+    public HeavyHittersVO top(String field, int minutes, int limit) {
+        Function<Slot, SpaceSaving> sketch = switch (field) {
+            case FIELD_PATH -> slot -> slot.path;
+            case FIELD_CLIENT_IP -> slot -> slot.clientIp;
+            case FIELD_USERNAME -> slot -> slot.username;
+            default -> throw new IllegalArgumentException("Unsupported field: " + field);
+        };
+        if (minutes < 1 || minutes > WINDOW_MINUTES) {
+            throw new IllegalArgumentException("minutes must be between 1 and " + WINDOW_MINUTES);
+        }
+        long now = clock.getAsLong() / MINUTE_MILLIS;
+        List<SpaceSaving> sketches = new ArrayList<>(minutes);
+        for (long minute = now - minutes + 1; minute <= now; minute++) {
+            Slot slot = slots[(int) (minute % WINDOW_MINUTES)];
+            synchronized (slot) {
+                if (slot.minute == minute) {
+                    sketches.add(sketch.apply(slot));
+                }
+            }
+        }
+        List<HeavyHittersVO.Item> items = SpaceSaving.merge(sketches, Math.min(limit, CAPACITY))
+            .stream()
+            .map(item -> new HeavyHittersVO.Item(item.value(), item.count(), item.error()))
+            .toList();
+        return new HeavyHittersVO()
+            .setField(field)
+            .setMinutes(minutes)
+            .setTotal(sketches.stream().mapToLong(SpaceSaving::total).sum())
+            .setItems(items);
+    }
+
+    /**
+     * 清空全部日志后丢弃所有分钟的统计。
+     */
+    public void clear() {
+        for (Slot slot : slots) {
+            synchronized (slot) {
+                slot.path.clear();
+                slot.clientIp.clear();
+                slot.username.clear();
+                slot.minute = -1;
+            }
+        }
+    }
+
+    /**
+     * 进入新的一分钟时清空该位置上一小时前的统计。
+     */
+    private Slot current(long minute) {
+        Slot slot = slots[(int) (minute % WINDOW_MINUTES)];
+        if (slot.minute != minute) {
+            synchronized (slot) {
+                if (slot.minute != minute) {
+                    slot.path.clear();
+                    slot.clientIp.clear();
+                    slot.username.clear();
+                    slot.minute = minute;
+                }
+            }
+        }
+        return slot;
+    }
+
+    private static class Slot {
+        private volatile long minute = -1;
+
+        private final SpaceSaving path = new SpaceSaving(CAPACITY);
+
+        private final SpaceSaving clientIp = new SpaceSaving(CAPACITY);
+
+        private final SpaceSaving username = new SpaceSaving(CAPACITY);
+    }
+}
@@ -0,0 +1,276 @@
+package run.halo.interfaceLog.stats;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+import run.halo.app.extension.ListOptions;
+import run.halo.app.extension.Metadata;
+import run.halo.app.extension.ReactiveExtensionClient;
+import run.halo.app.extension.index.query.QueryFactory;
+import run.halo.interfaceLog.IndexValueUtils;
+import run.halo.interfaceLog.extension.InterfaceLogInfo;
+import run.halo.interfaceLog.extension.InterfaceLogRollup;
+import run.halo.interfaceLog.param.RollupSeriesParam;
+import run.halo.interfaceLog.store.LogCounts;
+import run.halo.interfaceLog.vo.RollupSeriesVO;
+
+import java.time.Duration;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 按分钟、小时、天汇总日志条数，维度为路径、状态类别、请求方法和用户，供仪表盘画图，不读取原始日志。
+ * <p>写入日志时只在内存中累加，每 15 秒把新增条数合并进三个精度对应的 {@link InterfaceLogRollup}，
+ * 粗精度随写入一起维护。每小时压缩一次：超过保留时间的细精度桶直接删除，更早的时间段由粗精度桶覆盖。</p>
+ * <p>汇总记录的是写入时的条数，按采样权重折算回请求数，非整数权重按概率取整，累加后期望值不变；
+ * 按保留时间删除日志不会减少汇总。</p>
+ */
+@Slf4j
+@Component
+@EnableScheduling
+public class InterfaceLogRollups implements DisposableBean {
+
+    /**
+     * 单个桶最多保存的维度组合数，超出后的条数合并到维度全为 * 的一项
+     */
+    static final int MAX_ENTRIES_PER_BUCKET = 2000;
+
+    static final String OTHER = "*";
+
+    /**
+     * 一次查询最多返回的桶数
+     */
+    static final int MAX_POINTS = 2000;
+
+    private final ReactiveExtensionClient client;
+
+    private final ZoneId zone = ZoneId.systemDefault();
+
+    /**
+     * 每条日志在三个精度各累加一次
+     */
+    private final ConcurrentHashMap<PendingKey, Long> pending = new ConcurrentHashMap<>();
+
+    private final AtomicBoolean flushing = new AtomicBoolean(false);
+
+    public InterfaceLogRollups(ReactiveExtensionClient client) {
+        this.client = client;
+    }
+
+    public void recordWritten(InterfaceLogInfo interfaceLogInfo) {
+        InterfaceLogInfo.InterfaceLogInfoSpec spec = interfaceLogInfo.getSpec();
+        long time = spec.getAccessTime() == null
+            ? System.currentTimeMillis() : spec.getAccessTime().getTime();
+        long weight = SampleWeights.count(spec.getSampleWeight());
+        Dimensions dimensions = new Dimensions(nullToEmpty(spec.getPath()),
+            LogCounts.statusClassOf(spec.getResponseStatus()),
+            nullToEmpty(spec.getRequestType()), nullToEmpty(spec.getUsername()));
+        for (RollupResolution resolution : RollupResolution.values()) {
+            BucketKey bucket = new BucketKey(resolution, resolution.truncate(time, zone));
+            pending.merge(new PendingKey(bucket, dimensions), weight, Long::sum);
+        }
+    }
+
+    @Scheduled(initialDelay = 15_000, fixedDelay = 15_000)
+    public void flush() {
+        flushNow().subscribe(null,
+            error -> log.warn("Failed to flush interface log rollups", error));
+    }
+
+    /**
+     * 按 key 逐个取出待写入的条数，与写入线程的累加互不丢失；某个桶写入失败时只放回该桶的条数，下次重试。
+     */
+    Mono<Void> flushNow() {
+        if (pending.isEmpty() || !flushing.compareAndSet(false, true)) {
+            return Mono.empty();
+        }
+        Map<BucketKey, Map<Dimensions, Long>> buckets = new LinkedHashMap<>();
+        for (PendingKey key : pending.keySet()) {
+            Long count = pending.remove(key);
+            if (count != null) {
+                buckets.computeIfAbsent(key.bucket(), bucket -> new HashMap<>())
+                    .merge(key.dimensions(), count, Long::sum);
+            }
+        }
+        return Flux.fromIterable(buckets.entrySet())
+            .concatMap(entry -> merge(entry.getKey(), entry.getValue())
+                .onErrorResume(error -> {
+                    entry.getValue().forEach((dimensions, count) -> pending.merge(
+                        new PendingKey(entry.getKey(), dimensions), count, Long::sum));
+                    log.warn("Failed to merge interface log rollup {}", entry.getKey(), error);
+                    return Mono.empty();
+                }))
+            .then()
+            .doFinally(signal -> flushing.set(false));
+    }
+
+    @Scheduled(initialDelay = 60_000, fixedDelay = 3_600_000)
+    public void compact() {
+        compactNow(System.currentTimeMillis())
+            .subscribe(deleted -> log.debug("已删除 {} 个过期汇总", deleted),
+                error -> log.warn("Failed to compact interface log rollups", error));
+    }
+
+    /**
+     * 删除超过各自保留时间的桶，天精度之外的桶过期时更早的数据已在粗精度里。
+     */
+    Mono<Long> compactNow(long now) {
+        return Flux.fromArray(RollupResolution.values())
+            .concatMap(resolution -> client.listAll(InterfaceLogRollup.class,
+                    ListOptions.builder()
+                        .andQuery(QueryFactory.equal("spec.resolution", resolution.name()))
+                        .andQuery(QueryFactory.lessThan("spec.bucketStart", IndexValueUtils
+                            .padNumber(now - resolution.getRetention().toMillis())))
+                        .build(),
+                    Sort.unsorted())
+                .concatMap(client::delete))
+            .count();
+    }
+
+    /**
+     * 清空全部日志后丢弃待写入的条数并删除全部汇总。
+     */
+    public Mono<Long> clear() {
+        pending.clear();
+        return client.listAll(InterfaceLogRollup.class,
+                ListOptions.builder()
+                    .andQuery(QueryFactory.all())
+                    .build(),
+                Sort.unsorted())
+            .concatMap(client::delete)
+            .count();
+    }
+
+    public Mono<RollupSeriesVO> series(RollupSeriesParam param) {
+        RollupResolution resolution;
+        try {
+            resolution = RollupResolution.valueOf(param.getResolution().toUpperCase());
+        } catch (IllegalArgumentException | NullPointerException e) {
+            return Mono.error(new IllegalArgumentException(
+                "Unsupported resolution: " + param.getResolution()));
+        }
+        long to = param.getTo() == null ? System.currentTimeMillis() : param.getTo();
+        long from = resolution.truncate(param.getFrom() == null
+            ? to - resolution.getDefaultWindow().toMillis() : param.getFrom(), zone);
+        Map<Long, Long> counts = new LinkedHashMap<>();
+        for (long bucket = from; bucket < to; bucket = resolution.next(bucket, zone)) {
+            if (counts.size() >= MAX_POINTS) {
+                return Mono.error(new IllegalArgumentException(
+                    "Too many points, use a coarser resolution"));
+            }
+            counts.put(bucket, 0L);
+        }
+        return client.listAll(InterfaceLogRollup.class,
+                ListOptions.builder()
+                    .andQuery(QueryFactory.equal("spec.resolution", resolution.name()))
+                    .andQuery(QueryFactory.greaterThanOrEqual("spec.bucketStart",
+                        IndexValueUtils.padNumber(from)))
+                    .andQuery(QueryFactory.lessThan("spec.bucketStart",
+                        IndexValueUtils.padNumber(to)))
+                    .build(),
+                Sort.unsorted())
+            .doOnNext(rollup -> {
+                long total = rollup.getSpec().getEntries().stream()
+                    .filter(entry -> matches(entry, param))
+                    .mapToLong(InterfaceLogRollup.RollupEntry::getCount)
+                    .sum();
+                counts.computeIfPresent(rollup.getSpec().getBucketStart(),
+                    (bucket, count) -> count + total);
+            })
+            .then(Mono.fromSupplier(() -> new RollupSeriesVO()
+                .setResolution(resolution.name())
+                .setTimestamps(new ArrayList<>(counts.keySet()))
+                .setCounts(new ArrayList<>(counts.values()))));
+    }
+
+    @Override
+    public void destroy() {
+        try {
+            flushNow().block(Duration.ofSeconds(10));
+        } catch (Exception e) {
+            log.warn("Failed to flush interface log rollups on shutdown", e);
+        }
+    }
+
+    private Mono<Void> merge(BucketKey bucket, Map<Dimensions, Long> counts) {
+        String name = InterfaceLogRollup.nameOf(bucket.resolution().name(), bucket.start());
+        return Mono.defer(() -> client.fetch(InterfaceLogRollup.class, name)
+                .flatMap(rollup -> client.update(apply(rollup, counts)))
+                .switchIfEmpty(Mono.defer(() -> {
+                    InterfaceLogRollup rollup = new InterfaceLogRollup();
+                    rollup.setMetadata(new Metadata());
+                    rollup.getMetadata().setName(name);
+                    rollup.getSpec().setResolution(bucket.resolution().name())
+                        .setBucketStart(bucket.start());
+                    return client.create(apply(rollup, counts));
+                })))
+            .retryWhen(Retry.max(3).filter(OptimisticLockingFailureException.class::isInstance))
+            .then();
+    }
+
+    private static InterfaceLogRollup apply(InterfaceLogRollup rollup,
+        Map<Dimensions, Long> counts) {
+        List<InterfaceLogRollup.RollupEntry> entries = rollup.getSpec().getEntries();
+        Map<Dimensions, InterfaceLogRollup.RollupEntry> index = new HashMap<>();
+        entries.forEach(entry -> index.put(Dimensions.of(entry), entry));
+        counts.forEach((dimensions, count) -> {
+            Dimensions key = index.containsKey(dimensions)
+                || index.size() < MAX_ENTRIES_PER_BUCKET ? dimensions : Dimensions.OTHER;
+            InterfaceLogRollup.RollupEntry entry = index.computeIfAbsent(key, k -> {
+                InterfaceLogRollup.RollupEntry created = new InterfaceLogRollup.RollupEntry(
+                    k.path(), k.statusClass(), k.method(), k.username(), 0L);
+                entries.add(created);
+                return created;
+            });
+            entry.setCount(entry.getCount() + count);
+        });
+        return rollup;
+    }
+
+    private static boolean matches(InterfaceLogRollup.RollupEntry entry,
+        RollupSeriesParam param) {
+        return matches(param.getPath(), entry.getPath())
+            && matches(param.getStatusClass(), entry.getStatusClass())
+            && matches(param.getMethod(), entry.getMethod())
+            && matches(param.getUsername(), entry.getUsername());
+    }
+
+    private static boolean matches(String expected, String actual) {
+        return expected == null || expected.isEmpty() || Objects.equals(expected, actual);
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+
+    private record Dimensions(String path, String statusClass, String method, String username) {
+        private static final Dimensions OTHER =
+            new Dimensions(InterfaceLogRollups.OTHER, InterfaceLogRollups.OTHER,
+                InterfaceLogRollups.OTHER, InterfaceLogRollups.OTHER);
+
+        private static Dimensions of(InterfaceLogRollup.RollupEntry entry) {
+            return new Dimensions(entry.getPath(), entry.getStatusClass(), entry.getMethod(),
+                entry.getUsername());
+        }
+    }
+
+    private record PendingKey(BucketKey bucket, Dimensions dimensions) {
+    }
+
+    private record BucketKey(RollupResolution resolution, long start) {
+    }
+}
@@ -0,0 +1,52 @@
+package run.halo.interfaceLog.stats;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * 汇总精度。细精度只保留较短时间，更早的时间段只能按粗精度查询。
+ */
+public enum RollupResolution {
+    MINUTE(ChronoUnit.MINUTES, Duration.ofDays(1), Duration.ofHours(1)),
+    HOUR(ChronoUnit.HOURS, Duration.ofDays(30), Duration.ofDays(1)),
+    DAY(ChronoUnit.DAYS, Duration.ofDays(400), Duration.ofDays(7));
+
+    private final ChronoUnit unit;
+
+    private final Duration retention;
+
+    /**
+     * 查询没有指定开始时间时往前取的时长
+     */
+    private final Duration defaultWindow;
+
+    RollupResolution(ChronoUnit unit, Duration retention, Duration defaultWindow) {
+        this.unit = unit;
+        this.retention = retention;
+        this.defaultWindow = defaultWindow;
+    }
+
+    public Duration getRetention() {
+        return retention;
+    }
+
+    public Duration getDefaultWindow() {
+        return defaultWindow;
+    }
+
+    /**
+     * 所在桶的开始时间，小时和天按时区划分。
+     */
+    public long truncate(long epochMillis, ZoneId zone) {
+        return Instant.ofEpochMilli(epochMillis).atZone(zone).truncatedTo(unit)
+            .toInstant().toEpochMilli();
+    }
+
+    public long next(long bucketStart, ZoneId zone) {
+        ZonedDateTime start = Instant.ofEpochMilli(bucketStart).atZone(zone);
+        return start.plus(1, unit).toInstant().toEpochMilli();
+    }
+}
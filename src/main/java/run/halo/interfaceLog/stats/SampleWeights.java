@@ -0,0 +1,28 @@
+package run.halo.interfaceLog.stats;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 把日志的采样权重换算成整数条数，供按条数累加的统计使用。
+ * <p>整数部分直接计入，小数部分按概率进一，期望值等于权重，1.4、2.5 这类权重累加后不会系统性偏高或偏低。</p>
+ */
+final class SampleWeights {
+
+    private SampleWeights() {
+    }
+
+    static long count(Double sampleWeight) {
+        return count(sampleWeight, ThreadLocalRandom.current().nextDouble());
+    }
+
+    /**
+     * @param random [0, 1) 内的随机数
+     */
+    static long count(Double sampleWeight, double random) {
+        if (sampleWeight == null || !(sampleWeight > 0) || sampleWeight.isInfinite()) {
+            return 1;
+        }
+        double whole = Math.floor(sampleWeight);
+        return (long) whole + (random < sampleWeight - whole ? 1 : 0);
+    }
+}
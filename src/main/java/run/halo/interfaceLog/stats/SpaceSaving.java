@@ -0,0 +1,116 @@
+package run.halo.interfaceLog.stats;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Space-Saving 频繁项统计，最多保留 capacity 个计数器，内存与取值种类无关。
+ * <p>新取值在计数器已满时替换计数最小的一项，并继承它的计数作为误差上界，
+ * 因此真实次数介于 count - error 与 count 之间，出现次数超过总数 1/capacity 的取值一定会被保留。</p>
+ */
+class SpaceSaving {
+
+    private final int capacity;
+
+    private final Map<String, Counter> counters;
+
+    private long total;
+
+    SpaceSaving(int capacity) {
+        this.capacity = capacity;
+        this.counters = new HashMap<>(capacity * 2);
+    }
+
+    synchronized void offer(String item, long weight) {
+        if (item == null || item.isEmpty() || weight <= 0) {
+            return;
+        }
+        total += weight;
+        Counter counter = counters.get(item);
+        if (counter != null) {
+            counter.count += weight;
+            return;
+        }
+        if (counters.size() < capacity) {
+            counters.put(item, new Counter(weight, 0));
+            return;
+        }
+        // 计数器不多，线性找最小项比维护有序结构更省事
+        Map.Entry<String, Counter> min = null;
+        for (Map.Entry<String, Counter> entry : counters.entrySet()) {
+            if (min == null || entry.getValue().count < min.getValue().count) {
+                min = entry;
+            }
+        }
+        counters.remove(min.getKey());
+        long minCount = min.getValue().count;
+        counters.put(item, new Counter(minCount + weight, minCount));
+    }
+
+    synchronized void clear() {
+        counters.clear();
+        total = 0;
+    }
+
+    synchronized long total() {
+        return total;
+    }
+
+    /**
+     * 合并多个统计，某个统计中没有的取值按该统计的最小计数计入次数和误差。
+     */
+    static List<Item> merge(List<SpaceSaving> sketches, int limit) {
+        List<Map<String, Counter>> snapshots = new ArrayList<>(sketches.size());
+        List<Long> floors = new ArrayList<>(sketches.size());
+        Set<String> candidates = new HashSet<>();
+        for (SpaceSaving sketch : sketches) {
+            synchronized (sketch) {
+                Map<String, Counter> snapshot = new HashMap<>();
+                sketch.counters.forEach((item, counter) ->
+                    snapshot.put(item, new Counter(counter.count, counter.error)));
+                snapshots.add(snapshot);
+                floors.add(snapshot.size() < sketch.capacity ? 0L : snapshot.values().stream()
+                    .mapToLong(counter -> counter.count).min().orElse(0L));
+                candidates.addAll(snapshot.keySet());
+            }
+        }
+        List<Item> items = new ArrayList<>(candidates.size());
+        for (String candidate : candidates) {
+            long count = 0;
+            long error = 0;
+            for (int i = 0; i < snapshots.size(); i++) {
+                Counter counter = snapshots.get(i).get(candidate);
+                if (counter == null) {
+                    count += floors.get(i);
+                    error += floors.get(i);
+                } else {
+                    count += counter.count;
+                    error += counter.error;
+                }
+            }
+            items.add(new Item(candidate, count, error));
+        }
+        items.sort(Comparator.comparingLong(Item::count).reversed()
+            .thenComparing(Item::value));
+        return items.size() > limit ? new ArrayList<>(items.subList(0, limit)) : items;
+    }
+
+    record Item(String value, long count, long error) {
+    }
+
+    private static class Counter {
+        private long count;
+
+        private final long error;
+
+        private Counter(long count, long error) {
+            this.count = count;
+            this.error = error;
+        }
+    }
+}
@@ -0,0 +1,334 @@
+package run.halo.interfaceLog.store;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ObjectUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import run.halo.app.extension.ListOptions;
+import run.halo.app.extension.ListResult;
+import run.halo.app.extension.PageRequestImpl;
+import run.halo.app.extension.ReactiveExtensionClient;
+import run.halo.app.extension.index.query.Query;
+import run.halo.app.extension.index.query.QueryFactory;
+import run.halo.interfaceLog.IndexValueUtils;
+import run.halo.interfaceLog.extension.InterfaceLogDetailInfo;
+import run.halo.interfaceLog.extension.InterfaceLogInfo;
+import run.halo.interfaceLog.request.InterfaceLogRequest;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * 以 Halo 扩展保存日志，查询走扩展索引。
+ */
+@Component
+public class ExtensionInterfaceLogStore implements InterfaceLogStore {
+
+    public static final String NAME = "extension";
+
+    private static final String DELETION_TIMESTAMP = "metadata.deletionTimestamp";
+
+    /**
+     * 还没有写入过日志时使用的平均记录大小
+     */
+    static final long DEFAULT_RECORD_BYTES = 2048;
+
+    /**
+     * 摘要序列化后除请求参数外的大致字节数
+     */
+    private static final long SUMMARY_OVERHEAD_BYTES = 512;
+
+    private final ReactiveExtensionClient client;
+
+    /**
+     * 写入记录大小的指数移动平均，权重 1/16，只用来估算总占用
+     */
+    private final AtomicLong averageRecordBytes = new AtomicLong(DEFAULT_RECORD_BYTES);
+
+    public ExtensionInterfaceLogStore(ReactiveExtensionClient client) {
+        this.client = client;
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public Mono<Void> save(InterfaceLogInfo interfaceLogInfo, InterfaceLogDetailInfo detail) {
+        // 重试时跳过已经写入的摘要，避免名称冲突
+        AtomicBoolean summarySaved = new AtomicBoolean(false);
+        long size = estimateBytes(interfaceLogInfo, detail);
+        averageRecordBytes.updateAndGet(average -> average + (size - average) / 16);
+        return Mono.defer(() -> summarySaved.get() ? Mono.<Void>empty()
+                : client.create(interfaceLogInfo)
+                    .doOnSuccess(i -> summarySaved.set(true))
+                    .then())
+            // 先写摘要再写明细，明细缺失时详情页仍能展示摘要
+            .then(Mono.defer(() -> detail == null ? Mono.<Void>empty()
+                : client.create(detail).then()));
+    }
+
+    @Override
+    public Mono<ListResult<InterfaceLogInfo>> search(InterfaceLogRequest interfaceLogRequest) {
+        ListOptions.ListOptionsBuilder builder = ListOptions.builder();
+        boolean filtered = false;
+
+        // todo 空字符串校验
+        if (!ObjectUtils.isEmpty(interfaceLogRequest.getUsername())) {
+            builder.andQuery(
+                QueryFactory.in("spec.username", interfaceLogRequest.getUsername()));
+            filtered = true;
+        }
+
+        if (!ObjectUtils.isEmpty(interfaceLogRequest.getClientIp())) {
+            builder.andQuery(
+                QueryFactory.in("spec.clientIp", interfaceLogRequest.getClientIp()));
+            filtered = true;
+        }
+
+        if (!ObjectUtils.isEmpty(interfaceLogRequest.getPath())) {
+            builder.andQuery(
+                QueryFactory.in("spec.path", interfaceLogRequest.getPath()));
+            filtered = true;
+        }
+
+        if (!ObjectUtils.isEmpty(interfaceLogRequest.getAccessTimes())) {
+            builder.andQuery(
+                QueryFactory.between("spec.accessTime",
+                    IndexValueUtils.padNumber(IndexValueUtils.parseTime(
+                        interfaceLogRequest.getAccessTimes().get(0))),
+                    IndexValueUtils.padNumber(IndexValueUtils.parseTime(
+                        interfaceLogRequest.getAccessTimes().get(1)))));
+            filtered = true;
+        }
+
+        if (interfaceLogRequest.getMinDurationMillis() != null) {
+            builder.andQuery(QueryFactory.greaterThanOrEqual("spec.durationMicros",
+                IndexValueUtils.padNumber(interfaceLogRequest.getMinDurationMillis() * 1000)));
+            filtered = true;
+        }
+
+        if (interfaceLogRequest.getMaxDurationMillis() != null) {
+            builder.andQuery(QueryFactory.lessThanOrEqual("spec.durationMicros",
+                IndexValueUtils.padNumber(interfaceLogRequest.getMaxDurationMillis() * 1000)));
+            filtered = true;
+        }
+
+        if (!filtered) {
+            builder.andQuery(QueryFactory.all());
+        }
+
+        return client.listBy(InterfaceLogInfo.class,
+            builder.build(),
+            PageRequestImpl.of(Integer.parseInt(interfaceLogRequest.getPage()),
+                Integer.parseInt(interfaceLogRequest.getSize()),
+                sortOf(interfaceLogRequest)));
+    }
+
+    @Override
+    public Mono<InterfaceLogInfo> findSummary(String name) {
+        return client.fetch(InterfaceLogInfo.class, name);
+    }
+
+    @Override
+    public Mono<InterfaceLogDetailInfo> findDetail(String name) {
+        return client.fetch(InterfaceLogDetailInfo.class, name);
+    }
+
+    @Override
+    public Flux<String> fieldValues(String field, String prefix) {
+        Function<InterfaceLogInfo, String> getter = switch (field) {
+            case "spec.username" -> info -> info.getSpec().getUsername();
+            case "spec.clientIp" -> info -> info.getSpec().getClientIp();
+            case "spec.path" -> info -> info.getSpec().getPath();
+            default -> throw new IllegalArgumentException("Unsupported field: " + field);
+        };
+        return client.listAll(InterfaceLogInfo.class,
+                ListOptions.builder()
+                    .andQuery(QueryFactory.startsWith(field, prefix))
+                    .andQuery(QueryFactory.all(field))
+                    .build(),
+                Sort.by(field).ascending())
+            .map(getter);
+    }
+
+    /**
+     * 取索引分页的总数，不读取日志内容。
+     */
+    @Override
+    public Mono<Long> count() {
+        return countWhere();
+    }
+
+    /**
+     * 删除只打上删除标记，由 Halo 稍后移除，因此每批只取还没有删除标记的日志。
+     */
+    @Override
+    public Mono<PurgeBatch> clearBatch(int limit, int concurrency) {
+        return client.listBy(InterfaceLogInfo.class,
+                ListOptions.builder()
+                    .andQuery(QueryFactory.isNull(DELETION_TIMESTAMP))
+                    .build(),
+                PageRequestImpl.of(1, limit))
+            .flatMap(page -> Flux.fromIterable(page.getItems())
+                .flatMap(this::delete, Math.max(1, concurrency))
+                .then(Mono.fromSupplier(() -> new PurgeBatch(page.getItems().size(), 0,
+                    Math.max(0, page.getTotal() - page.getItems().size())))));
+    }
+
+    /**
+     * 按访问时间索引取最早的一页，页的总数即剩余积压，检查点为本页最后一条的访问时间。
+     */
+    @Override
+    public Mono<PurgeBatch> deleteBatch(long checkpoint, long before, int limit,
+        int concurrency, int deletesPerSecond) {
+        return client.listBy(InterfaceLogInfo.class,
+                ListOptions.builder()
+                    .andQuery(QueryFactory.isNull(DELETION_TIMESTAMP))
+                    .andQuery(QueryFactory.greaterThanOrEqual("spec.accessTime",
+                        IndexValueUtils.padNumber(checkpoint)))
+                    .andQuery(QueryFactory.lessThan("spec.accessTime",
+                        IndexValueUtils.padNumber(before)))
+                    .build(),
+                PageRequestImpl.of(1, limit, Sort.by("spec.accessTime").ascending()))
+            .flatMap(page -> {
+                List<InterfaceLogInfo> items = page.getItems();
+                if (items.isEmpty()) {
+                    return Mono.just(new PurgeBatch(0, checkpoint, 0));
+                }
+                Flux<InterfaceLogInfo> expired = Flux.fromIterable(items);
+                if (deletesPerSecond > 0) {
+                    expired = expired.delayElements(
+                        Duration.ofNanos(TimeUnit.SECONDS.toNanos(1) / deletesPerSecond));
+                }
+                long next = Math.max(checkpoint,
+                    items.get(items.size() - 1).getSpec().getAccessTime().getTime());
+                LogCounts.Tally removed = new LogCounts.Tally(ZoneId.systemDefault());
+                items.forEach(item -> removed.add(item.getSpec().getAccessTime().getTime(),
+                    item.getSpec().getResponseStatus()));
+                return expired.flatMap(this::delete, Math.max(1, concurrency))
+                    .then(Mono.fromSupplier(() -> new PurgeBatch(items.size(), next,
+                        Math.max(0, page.getTotal() - items.size()), removed.toCounts())));
+            });
+    }
+
+    @Override
+    public Mono<PurgeBatch> evictOldest(long checkpoint, int limit, int concurrency,
+        int deletesPerSecond) {
+        return deleteBatch(checkpoint, Long.MAX_VALUE, limit, concurrency, deletesPerSecond);
+    }
+
+    /**
+     * 条数取自索引分页的总数，不读取日志内容，大小按平均记录大小估算。
+     */
+    @Override
+    public Mono<StorageUsage> usage() {
+        return client.listBy(InterfaceLogInfo.class,
+                ListOptions.builder()
+                    .andQuery(QueryFactory.all())
+                    .build(),
+                PageRequestImpl.of(1, 1))
+            .map(page -> {
+                long average = averageRecordBytes.get();
+                return new StorageUsage(page.getTotal(), page.getTotal() * average, average);
+            });
+    }
+
+    /**
+     * 只用索引分页的总数：总数一次、从最早一条日志的日期起每天一次、每个状态类别一次，不读取日志内容。
+     */
+    @Override
+    public Mono<LogCounts> countAll(ZoneId zone) {
+        Mono<Long> total = countWhere();
+        Mono<Map<String, Long>> perDay = client.listBy(InterfaceLogInfo.class,
+                ListOptions.builder()
+                    .andQuery(QueryFactory.isNull(DELETION_TIMESTAMP))
+                    .andQuery(QueryFactory.greaterThanOrEqual("spec.accessTime",
+                        IndexValueUtils.padNumber(0L)))
+                    .build(),
+                PageRequestImpl.of(1, 1, Sort.by("spec.accessTime").ascending()))
+            .flatMapMany(page -> page.getItems().isEmpty() ? Flux.<LocalDate>empty()
+                : Flux.fromStream(page.getItems().get(0).getSpec().getAccessTime().toInstant()
+                    .atZone(zone).toLocalDate()
+                    .datesUntil(LocalDate.now(zone).plusDays(1))))
+            .concatMap(day -> countWhere(
+                    QueryFactory.greaterThanOrEqual("spec.accessTime", IndexValueUtils.padNumber(
+                        day.atStartOfDay(zone).toInstant().toEpochMilli())),
+                    QueryFactory.lessThan("spec.accessTime", IndexValueUtils.padNumber(
+                        day.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli())))
+                .map(count -> Map.entry(day.toString(), count)))
+            .filter(entry -> entry.getValue() > 0)
+            .collectMap(Map.Entry::getKey, Map.Entry::getValue, TreeMap::new);
+        Mono<Map<String, Long>> perStatusClass = Flux.just("1", "2", "3", "4", "5")
+            .concatMap(digit -> countWhere(QueryFactory.startsWith("spec.responseStatus", digit))
+                .map(count -> Map.entry(digit + "xx", count)))
+            .filter(entry -> entry.getValue() > 0)
+            .collectMap(Map.Entry::getKey, Map.Entry::getValue, TreeMap::new);
+        return Mono.zip(total, perDay, perStatusClass)
+            .map(counts -> {
+                long classified = counts.getT3().values().stream().mapToLong(Long::longValue).sum();
+                if (counts.getT1() > classified) {
+                    counts.getT3().put(LogCounts.statusClassOf(null), counts.getT1() - classified);
+                }
+                return new LogCounts(counts.getT1(), counts.getT2(), counts.getT3());
+            });
+    }
+
+    private Mono<Long> countWhere(Query... queries) {
+        ListOptions.ListOptionsBuilder builder = ListOptions.builder()
+            .andQuery(QueryFactory.isNull(DELETION_TIMESTAMP));
+        for (Query query : queries) {
+            builder.andQuery(query);
+        }
+        return client.listBy(InterfaceLogInfo.class, builder.build(), PageRequestImpl.of(1, 1))
+            .map(ListResult::getTotal);
+    }
+
+    private static long estimateBytes(InterfaceLogInfo interfaceLogInfo,
+        InterfaceLogDetailInfo detail) {
+        long size = SUMMARY_OVERHEAD_BYTES;
+        Map<String, String> params = interfaceLogInfo.getSpec().getRequestParams();
+        if (params != null) {
+            for (Map.Entry<String, String> entry : params.entrySet()) {
+                size += lengthOf(entry.getKey()) + lengthOf(entry.getValue());
+            }
+        }
+        if (detail != null) {
+            InterfaceLogDetailInfo.InterfaceLogDetailInfoSpec spec = detail.getSpec();
+            size += lengthOf(spec.getRequestHeader()) + lengthOf(spec.getRequestBody())
+                + lengthOf(spec.getResponseHeader()) + lengthOf(spec.getResponseBody());
+        }
+        return size;
+    }
+
+    private static long lengthOf(String value) {
+        return value == null ? 0 : value.length();
+    }
+
+    private Mono<Void> delete(InterfaceLogInfo interfaceLogInfo) {
+        return client.delete(interfaceLogInfo)
+            .then(client.fetch(InterfaceLogDetailInfo.class,
+                    interfaceLogInfo.getMetadata().getName())
+                .flatMap(client::delete))
+            .then();
+    }
+
+    private Sort sortOf(InterfaceLogRequest interfaceLogRequest) {
+        // 名称按时间有序，按名称倒序即最新的在前
+        if ("slowest".equals(interfaceLogRequest.getSort())) {
+            return Sort.by("spec.durationMicros").descending()
+                .and(Sort.by("metadata.name").descending());
+        }
+        return Sort.by("metadata.name").descending();
+    }
+}
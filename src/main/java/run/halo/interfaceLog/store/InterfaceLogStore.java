@@ -0,0 +1,79 @@
+package run.halo.interfaceLog.store;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import run.halo.app.extension.ListResult;
+import run.halo.interfaceLog.extension.InterfaceLogDetailInfo;
+import run.halo.interfaceLog.extension.InterfaceLogInfo;
+import run.halo.interfaceLog.request.InterfaceLogRequest;
+
+import java.time.ZoneId;
+
+/**
+ * 日志存储后端。摘要和明细分开读取，列表、搜索、清理只接触摘要。
+ */
+public interface InterfaceLogStore {
+
+    /**
+     * 设置中选择后端时使用的名称
+     */
+    String name();
+
+    /**
+     * 保存一条日志，没有明细时 detail 为空。
+     */
+    Mono<Void> save(InterfaceLogInfo interfaceLogInfo, InterfaceLogDetailInfo detail);
+
+    /**
+     * 按条件分页查询摘要，没有条件时返回全部。
+     */
+    Mono<ListResult<InterfaceLogInfo>> search(InterfaceLogRequest interfaceLogRequest);
+
+    Mono<InterfaceLogInfo> findSummary(String name);
+
+    Mono<InterfaceLogDetailInfo> findDetail(String name);
+
+    /**
+     * 按前缀列出字段值，按字段值排序，可能包含重复值。
+     *
+     * @param field spec.username、spec.clientIp 或 spec.path
+     */
+    Flux<String> fieldValues(String field, String prefix);
+
+    Mono<Long> count();
+
+    /**
+     * 清空日志的一批，能整块删除的后端一次删完。
+     *
+     * @param limit 逐条删除时本批最多删除的条数
+     * @param concurrency 同时进行的删除数
+     * @return backlog 为本批结束后剩余条数的估计
+     */
+    Mono<PurgeBatch> clearBatch(int limit, int concurrency);
+
+    /**
+     * 从 checkpoint 起按访问时间升序删除一批早于 before 的日志。
+     *
+     * @param limit 本批最多删除的条数
+     * @param concurrency 同时进行的删除数
+     * @param deletesPerSecond 每秒最多删除的条数，0 表示不限速
+     */
+    Mono<PurgeBatch> deleteBatch(long checkpoint, long before, int limit, int concurrency,
+        int deletesPerSecond);
+
+    /**
+     * 从最旧的日志开始删除至多约 limit 条，不论是否过期，用于按条数和大小清理。
+     * 参数含义同 {@link #deleteBatch}，清理任务传 0 表示不设下限。
+     */
+    Mono<PurgeBatch> evictOldest(long checkpoint, int limit, int concurrency,
+        int deletesPerSecond);
+
+    Mono<StorageUsage> usage();
+
+    /**
+     * 统计总数、每天和每个状态类别的条数，用于定期校准计数器，允许比普通查询慢。
+     *
+     * @param zone 划分日期使用的时区
+     */
+    Mono<LogCounts> countAll(ZoneId zone);
+}
@@ -0,0 +1,34 @@
+package run.halo.interfaceLog.store;
+
+import org.springframework.stereotype.Component;
+import run.halo.interfaceLog.service.InterfaceLogSettingService;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 按设置选择当前使用的存储后端，未知名称时使用扩展存储。
+ * 切换后端不会迁移数据，只读写新后端中的日志。
+ */
+@Component
+public class InterfaceLogStores {
+
+    private final Map<String, InterfaceLogStore> stores;
+
+    private final InterfaceLogSettingService settingService;
+
+    public InterfaceLogStores(List<InterfaceLogStore> stores,
+        InterfaceLogSettingService settingService) {
+        this.stores = stores.stream()
+            .collect(Collectors.toMap(InterfaceLogStore::name, Function.identity(), (a, b) -> a));
+        this.settingService = settingService;
+    }
+
+    public InterfaceLogStore current() {
+        String backend = settingService.getCurrentSetting().getStorage().getBackend();
+        InterfaceLogStore store = stores.get(backend);
+        return store != null ? store : stores.get(ExtensionInterfaceLogStore.NAME);
+    }
+}
@@ -0,0 +1,57 @@
+package run.halo.interfaceLog.store;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 存储后端中日志的分项条数，用于校准内存中的计数器，也用于描述一批删除掉的日志。
+ *
+ * @param total 总条数
+ * @param perDay 按访问日期（yyyy-MM-dd）的条数
+ * @param perStatusClass 按响应状态类别（2xx、4xx 等）的条数
+ */
+public record LogCounts(long total, Map<String, Long> perDay, Map<String, Long> perStatusClass) {
+
+    /**
+     * 响应状态码所属的类别，无法识别时为 other。
+     */
+    public static String statusClassOf(String responseStatus) {
+        if (responseStatus == null || responseStatus.length() != 3
+            || responseStatus.charAt(0) < '1' || responseStatus.charAt(0) > '5') {
+            return "other";
+        }
+        return responseStatus.charAt(0) + "xx";
+    }
+
+    /**
+     * 逐条累加分项条数，非线程安全。
+     */
+    public static final class Tally {
+
+        private final ZoneId zone;
+
+        private final Map<String, Long> perDay = new TreeMap<>();
+
+        private final Map<String, Long> perStatusClass = new TreeMap<>();
+
+        private long total;
+
+        public Tally(ZoneId zone) {
+            this.zone = zone;
+        }
+
+        public Tally add(long accessTime, String responseStatus) {
+            total++;
+            perDay.merge(Instant.ofEpochMilli(accessTime).atZone(zone).toLocalDate().toString(),
+                1L, Long::sum);
+            perStatusClass.merge(statusClassOf(responseStatus), 1L, Long::sum);
+            return this;
+        }
+
+        public LogCounts toCounts() {
+            return new LogCounts(total, perDay, perStatusClass);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package run.halo.interfaceLog.store;
+
+/**
+ * 一批过期日志清理的结果。
+ *
+ * @param deleted 本批删除的条数
+ * @param checkpoint 下一批开始的访问时间（毫秒），早于它的过期日志已删除
+ * @param backlog 本批结束后仍待删除的过期日志数估计
+ * @param removed 本批删除日志按天、按状态类别的分项，后端无法提供时为 null
+ */
+public record PurgeBatch(long deleted, long checkpoint, long backlog, LogCounts removed) {
+
+    public PurgeBatch(long deleted, long checkpoint, long backlog) {
+        this(deleted, checkpoint, backlog, null);
+    }
+}
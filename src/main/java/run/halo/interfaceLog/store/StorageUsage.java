@@ -0,0 +1,11 @@
+package run.halo.interfaceLog.store;
+
+/**
+ * 存储后端当前的占用，用于按条数和大小清理，获取时不应遍历全部日志。
+ *
+ * @param records 日志条数
+ * @param bytes 占用字节数，扩展存储为按平均记录大小得到的估计值
+ * @param averageRecordBytes 平均每条日志的字节数
+ */
+public record StorageUsage(long records, long bytes, long averageRecordBytes) {
+}
@@ -0,0 +1,234 @@
+package run.halo.interfaceLog.store.segment;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Stream;
+
+/**
+ * 按天或按小时划分的分区，对应段目录下的一个子目录，目录名为分区起始时间
+ * （按天 {@code yyyyMMdd}，按小时 {@code yyyyMMddHH}）。
+ * <p>记录按访问时间写入所属分区，查询先按分区的时间范围裁剪，过期时整个目录一起删除。</p>
+ */
+@Slf4j
+final class Partition implements Closeable {
+
+    private static final DateTimeFormatter DAY = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    private static final DateTimeFormatter HOUR = DateTimeFormatter.ofPattern("yyyyMMddHH");
+
+    private final Path directory;
+
+    private final long start;
+
+    private final long end;
+
+    private final NavigableMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+
+    private volatile Segment active;
+
+    private Partition(Path directory, long start, long end) {
+        this.directory = directory;
+        this.start = start;
+        this.end = end;
+    }
+
+    /**
+     * 访问时间所属分区的目录名。
+     *
+     * @param hourly 为 true 时按小时分区，否则按天
+     */
+    static String nameOf(long time, boolean hourly, ZoneId zone) {
+        LocalDateTime dateTime = LocalDateTime.ofInstant(Instant.ofEpochMilli(time), zone);
+        return hourly ? HOUR.format(dateTime) : DAY.format(dateTime);
+    }
+
+    /**
+     * 目录名不是分区名时返回 null，目录名的长度决定粒度，切换粒度后旧分区仍可读取和清理。
+     */
+    static Partition open(Path directory, ZoneId zone, int indexInterval) throws IOException {
+        String name = directory.getFileName().toString();
+        if (!name.chars().allMatch(Character::isDigit)) {
+            return null;
+        }
+        LocalDateTime from;
+        LocalDateTime to;
+        if (name.length() == 8) {
+            from = LocalDate.parse(name, DAY).atStartOfDay();
+            to = from.plusDays(1);
+        } else if (name.length() == 10) {
+            from = LocalDateTime.parse(name, HOUR);
+            to = from.plus(1, ChronoUnit.HOURS);
+        } else {
+            return null;
+        }
+        Partition partition = new Partition(directory,
+            from.atZone(zone).toInstant().toEpochMilli(), to.atZone(zone).toInstant().toEpochMilli());
+        Files.createDirectories(directory);
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.filter(p -> p.toString().endsWith(Segment.SUFFIX))
+                .sorted().toList()) {
+                String fileName = file.getFileName().toString();
+                long id = Long.parseLong(
+                    fileName.substring(0, fileName.length() - Segment.SUFFIX.length()));
+                partition.segments.put(id,
+                    Segment.open(file, id, (int) Files.size(file), indexInterval));
+            }
+        }
+        partition.active = partition.segments.isEmpty() ? null
+            : partition.segments.lastEntry().getValue();
+        return partition;
+    }
+
+    long getStart() {
+        return start;
+    }
+
+    long getEnd() {
+        return end;
+    }
+
+    Path getDirectory() {
+        return directory;
+    }
+
+    long getRecordCount() {
+        return segments.values().stream().mapToLong(Segment::getRecordCount).sum();
+    }
+
+    /**
+     * 已写入的字节数，不含段文件预分配的空间
+     */
+    long getUsedBytes() {
+        return segments.values().stream().mapToLong(Segment::getWritePosition).sum();
+    }
+
+    boolean overlaps(long from, long to) {
+        return start <= to && end > from;
+    }
+
+    /**
+     * 分区内所有可能的访问时间都早于截止时间时才算过期。
+     */
+    boolean expiredBefore(long epochMillis) {
+        return end <= epochMillis;
+    }
+
+    /**
+     * 当前段写满时滚动到新段。
+     */
+    synchronized void append(long time, byte[] payload, int capacity, int indexInterval) {
+        if (active != null && active.append(time, payload)) {
+            return;
+        }
+        if (active != null) {
+            active.force();
+        }
+        long id = segments.isEmpty() ? 1 : segments.lastKey() + 1;
+        try {
+            active = Segment.open(directory.resolve(Segment.fileName(id)), id, capacity,
+                indexInterval);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        segments.put(id, active);
+        active.append(time, payload);
+    }
+
+    /**
+     * 从新到旧扫描与时间范围有交集的段，visitor 返回 false 时停止并返回 false。
+     */
+    boolean scan(long from, long to, Segment.RecordVisitor visitor) {
+        boolean[] stopped = {false};
+        for (Segment segment : segments.descendingMap().values()) {
+            if (!segment.overlaps(from, to)) {
+                continue;
+            }
+            segment.scan(from, to, (time, payload) -> {
+                if (!visitor.visit(time, payload)) {
+                    stopped[0] = true;
+                    return false;
+                }
+                return true;
+            });
+            if (stopped[0]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 收集与时间范围有交集的块，见 {@link Segment#collectBlocks}。
+     */
+    void collectBlocks(long from, long to, List<Segment.BlockRange> ranges) {
+        for (Segment segment : segments.values()) {
+            if (segment.overlaps(from, to)) {
+                segment.collectBlocks(from, to, ranges);
+            }
+        }
+    }
+
+    /**
+     * 删除最旧的一个段，正在写入的段不删除，没有可删除的段时返回 -1，否则返回删除的记录数。
+     * 删除前用 visitor 遍历段内记录。
+     */
+    synchronized long dropOldestSegment(Segment.RecordVisitor visitor) {
+        Map.Entry<Long, Segment> oldest = segments.firstEntry();
+        if (oldest == null || oldest.getValue() == active) {
+            return -1;
+        }
+        Segment segment = oldest.getValue();
+        segment.scan(Long.MIN_VALUE, Long.MAX_VALUE, visitor);
+        segments.remove(oldest.getKey());
+        try {
+            segment.close();
+            Files.deleteIfExists(segment.getPath());
+        } catch (IOException e) {
+            log.warn("Failed to delete segment {}", segment.getPath(), e);
+        }
+        return segment.getRecordCount();
+    }
+
+    /**
+     * 关闭并删除整个分区目录。
+     */
+    synchronized void drop() {
+        close();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                Files.deleteIfExists(file);
+            }
+            Files.deleteIfExists(directory);
+        } catch (IOException e) {
+            log.warn("Failed to delete partition {}", directory, e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        for (Segment segment : segments.values()) {
+            try {
+                segment.close();
+            } catch (IOException e) {
+                log.warn("Failed to close segment {}", segment.getPath(), e);
+            }
+        }
+        segments.clear();
+        active = null;
+    }
+}
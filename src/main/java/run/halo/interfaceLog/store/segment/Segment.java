@@ -0,0 +1,259 @@
+package run.halo.interfaceLog.store.segment;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 单个内存映射的段文件，只追加写入。
+ * <p>每条记录为 {@code [int 长度][long 访问时间][内容]}，长度最后写入，作为提交标记；
+ * 打开已有文件时从头扫描记录头恢复写入位置，遇到长度为 0 或越界即视为末尾。</p>
+ * <p>每 indexInterval 条记录组成一个块，内存中保存块的起始位置和最小、最大访问时间作为稀疏索引，
+ * 按时间范围读取时只扫描有交集的块。记录按完成顺序写入，访问时间不保证单调，因此索引保存区间而不是单点。</p>
+ */
+final class Segment implements Closeable {
+
+    static final String SUFFIX = ".seg";
+
+    static final int HEADER_BYTES = Integer.BYTES + Long.BYTES;
+
+    private final Path path;
+
+    private final long id;
+
+    private final int capacity;
+
+    private final int indexInterval;
+
+    private final FileChannel channel;
+
+    private final MappedByteBuffer buffer;
+
+    private final List<Block> blocks = new CopyOnWriteArrayList<>();
+
+    private volatile int writePosition;
+
+    private volatile int recordCount;
+
+    private volatile long minTime = Long.MAX_VALUE;
+
+    private volatile long maxTime = Long.MIN_VALUE;
+
+    private Segment(Path path, long id, int capacity, int indexInterval) throws IOException {
+        this.path = path;
+        this.id = id;
+        this.capacity = capacity;
+        this.indexInterval = Math.max(1, indexInterval);
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE,
+            StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+    }
+
+    static Segment open(Path path, long id, int capacity, int indexInterval) throws IOException {
+        Segment segment = new Segment(path, id, capacity, indexInterval);
+        segment.recover();
+        return segment;
+    }
+
+    static String fileName(long id) {
+        return String.format("%020d", id) + SUFFIX;
+    }
+
+    long getId() {
+        return id;
+    }
+
+    Path getPath() {
+        return path;
+    }
+
+    int getRecordCount() {
+        return recordCount;
+    }
+
+    int getWritePosition() {
+        return writePosition;
+    }
+
+    long getMinTime() {
+        return minTime;
+    }
+
+    long getMaxTime() {
+        return maxTime;
+    }
+
+    boolean overlaps(long from, long to) {
+        return recordCount > 0 && minTime <= to && maxTime >= from;
+    }
+
+    /**
+     * 空间不足时返回 false，由调用方滚动到新段。
+     */
+    synchronized boolean append(long time, byte[] payload) {
+        int position = writePosition;
+        int needed = HEADER_BYTES + payload.length;
+        if (position + needed > capacity) {
+            return false;
+        }
+        buffer.putLong(position + Integer.BYTES, time);
+        buffer.put(position + HEADER_BYTES, payload);
+        buffer.putInt(position, payload.length);
+        index(position, time);
+        writePosition = position + needed;
+        return true;
+    }
+
+    /**
+     * 按时间范围扫描记录，visitor 返回 false 时停止。
+     */
+    void scan(long from, long to, RecordVisitor visitor) {
+        int end = writePosition;
+        ByteBuffer view = buffer.duplicate();
+        List<Block> snapshot = List.copyOf(blocks);
+        for (int i = 0; i < snapshot.size(); i++) {
+            Block block = snapshot.get(i);
+            if (block.minTime > to || block.maxTime < from) {
+                continue;
+            }
+            int blockEnd = i + 1 < snapshot.size() ? snapshot.get(i + 1).start : end;
+            if (!scan(view, block.start, blockEnd, from, to, visitor)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 收集与时间范围有交集的块及块内落在范围内的记录数。已写满且整个落在范围内的块直接取块的条数，
+     * 其余的块只读记录头计数，都不读取内容。
+     */
+    void collectBlocks(long from, long to, List<BlockRange> ranges) {
+        int end = writePosition;
+        ByteBuffer view = buffer.duplicate();
+        List<Block> snapshot = List.copyOf(blocks);
+        for (int i = 0; i < snapshot.size(); i++) {
+            Block block = snapshot.get(i);
+            if (block.minTime > to || block.maxTime < from) {
+                continue;
+            }
+            boolean full = i + 1 < snapshot.size();
+            int blockEnd = full ? snapshot.get(i + 1).start : end;
+            int count;
+            if (full && block.minTime >= from && block.maxTime <= to) {
+                count = block.count;
+            } else {
+                int[] matched = {0};
+                scan(view, block.start, blockEnd, from, to, (time, payload) -> {
+                    matched[0]++;
+                    return true;
+                });
+                count = matched[0];
+            }
+            if (count > 0) {
+                ranges.add(new BlockRange(view, block.start, blockEnd, block.minTime,
+                    block.maxTime, count));
+            }
+        }
+    }
+
+    void force() {
+        buffer.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        force();
+        channel.close();
+    }
+
+    private void recover() {
+        int position = 0;
+        while (position + HEADER_BYTES <= capacity) {
+            int length = buffer.getInt(position);
+            if (length <= 0 || position + HEADER_BYTES + length > capacity) {
+                break;
+            }
+            index(position, buffer.getLong(position + Integer.BYTES));
+            position += HEADER_BYTES + length;
+        }
+        writePosition = position;
+    }
+
+    private void index(int position, long time) {
+        Block current = blocks.isEmpty() ? null : blocks.get(blocks.size() - 1);
+        if (current == null || current.count >= indexInterval) {
+            current = new Block(position);
+            blocks.add(current);
+        }
+        current.add(time);
+        recordCount++;
+        minTime = Math.min(minTime, time);
+        maxTime = Math.max(maxTime, time);
+    }
+
+    /**
+     * 扫描 [start, end) 内的记录，visitor 返回 false 时停止并返回 false。
+     */
+    private static boolean scan(ByteBuffer view, int start, int end, long from, long to,
+        RecordVisitor visitor) {
+        int position = start;
+        while (position < end) {
+            int length = view.getInt(position);
+            long time = view.getLong(position + Integer.BYTES);
+            if (time >= from && time <= to) {
+                ByteBuffer payload = view.slice(position + HEADER_BYTES, length);
+                if (!visitor.visit(time, payload)) {
+                    return false;
+                }
+            }
+            position += HEADER_BYTES + length;
+        }
+        return true;
+    }
+
+    @FunctionalInterface
+    interface RecordVisitor {
+        boolean visit(long time, ByteBuffer payload);
+    }
+
+    /**
+     * 一次查询中与时间范围有交集的块，count 为块内落在范围内的记录数。
+     */
+    record BlockRange(ByteBuffer view, int start, int end, long minTime, long maxTime,
+        int count) {
+
+        void scan(long from, long to, RecordVisitor visitor) {
+            Segment.scan(view, start, end, from, to, visitor);
+        }
+    }
+
+    /**
+     * 稀疏索引中的一项
+     */
+    private static final class Block {
+
+        private final int start;
+
+        private volatile int count;
+
+        private volatile long minTime = Long.MAX_VALUE;
+
+        private volatile long maxTime = Long.MIN_VALUE;
+
+        private Block(int start) {
+            this.start = start;
+        }
+
+        private void add(long time) {
+            count++;
+            minTime = Math.min(minTime, time);
+            maxTime = Math.max(maxTime, time);
+        }
+    }
+}
@@ -0,0 +1,543 @@
+package run.halo.interfaceLog.store.segment;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import run.halo.app.extension.ListResult;
+import run.halo.interfaceLog.extension.InterfaceLogDetailInfo;
+import run.halo.interfaceLog.extension.InterfaceLogInfo;
+import run.halo.interfaceLog.extension.InterfaceLogSettingInfo;
+import run.halo.interfaceLog.request.InterfaceLogRequest;
+import run.halo.interfaceLog.service.InterfaceLogSettingService;
+import run.halo.interfaceLog.store.InterfaceLogStore;
+import run.halo.interfaceLog.store.LogCounts;
+import run.halo.interfaceLog.store.PurgeBatch;
+import run.halo.interfaceLog.store.StorageUsage;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * 本地段文件存储：日志追加写入按大小滚动的内存映射文件，不经过扩展的序列化、版本和数据库。
+ * <p>段文件位于设置中的目录，未设置时位于 Halo 工作目录下的 {@code interface-log/segments}，
+ * 按访问时间分到按天或按小时的分区子目录。
+ * 查询依次按分区、段的时间范围和块的稀疏时间索引裁剪，只解码有交集的记录摘要。</p>
+ * <p>段文件只追加，清理以整个分区为单位删除。</p>
+ */
+@Slf4j
+@Component
+public class SegmentInterfaceLogStore implements InterfaceLogStore, DisposableBean {
+
+    public static final String NAME = "segment";
+
+    /**
+     * 按名称查找记录时，名称中的时间与访问时间之间允许的误差
+     */
+    private static final long NAME_TIME_TOLERANCE_MILLIS = 60_000;
+
+    private final InterfaceLogSettingService settingService;
+
+    private final Environment environment;
+
+    private final ZoneId zone = ZoneId.systemDefault();
+
+    /**
+     * 按分区起始时间排序
+     */
+    private final NavigableMap<Long, Partition> partitions = new ConcurrentSkipListMap<>();
+
+    private volatile Path directory;
+
+    public SegmentInterfaceLogStore(InterfaceLogSettingService settingService,
+        Environment environment) {
+        this.settingService = settingService;
+        this.environment = environment;
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public Mono<Void> save(InterfaceLogInfo interfaceLogInfo, InterfaceLogDetailInfo detail) {
+        // 写入器已在持久化线程上订阅，这里直接同步追加
+        return Mono.fromRunnable(() -> append(interfaceLogInfo, detail));
+    }
+
+    @Override
+    public Mono<ListResult<InterfaceLogInfo>> search(InterfaceLogRequest interfaceLogRequest) {
+        return read(() -> {
+            SummaryFilter filter = new SummaryFilter(interfaceLogRequest);
+            int page = Integer.parseInt(interfaceLogRequest.getPage());
+            int size = Integer.parseInt(interfaceLogRequest.getSize());
+            Comparator<InterfaceLogInfo> sort = SummaryFilter.sortOf(interfaceLogRequest);
+            if (size > 0 && sort == SummaryFilter.LATEST && filter.isTimeOnly()) {
+                return seekPage(filter, page, size);
+            }
+            // 只保留到当前页为止的记录，内存占用与页码相关而与总数无关
+            int limit = size <= 0 ? Integer.MAX_VALUE : Math.max(page, 1) * size;
+            PriorityQueue<InterfaceLogInfo> top = new PriorityQueue<>(sort.reversed());
+            long[] total = {0};
+            scan(filter.getFrom(), filter.getTo(), (time, payload) -> {
+                InterfaceLogInfo info = summaryAt(time, payload);
+                if (filter.matches(info)) {
+                    total[0]++;
+                    top.offer(info);
+                    if (top.size() > limit) {
+                        top.poll();
+                    }
+                }
+                return true;
+            });
+            List<InterfaceLogInfo> sorted = new ArrayList<>(top);
+            sorted.sort(sort);
+            int fromIndex = size <= 0 ? 0 : Math.min(sorted.size(), (Math.max(page, 1) - 1) * size);
+            return new ListResult<>(page, size, total[0], sorted.subList(fromIndex, sorted.size()));
+        });
+    }
+
+    /**
+     * 只按时间范围查最新的日志时，总数和每个块的名次范围都只用块索引得到：块内的记录一定排在
+     * maxTime 早于块 minTime 的块之前，一定排在 minTime 晚于块 maxTime 的块之后。
+     * 名次范围完全在当前页之前或之后的块不解码，只解码可能落在当前页的块。
+     */
+    private ListResult<InterfaceLogInfo> seekPage(SummaryFilter filter, int page, int size) {
+        long from = filter.getFrom();
+        long to = filter.getTo();
+        List<Segment.BlockRange> blocks = new ArrayList<>();
+        ensureOpen();
+        for (Partition partition : partitions.values()) {
+            if (partition.overlaps(from, to)) {
+                partition.collectBlocks(from, to, blocks);
+            }
+        }
+        long total = blocks.stream().mapToLong(Segment.BlockRange::count).sum();
+        long offset = (long) (Math.max(page, 1) - 1) * size;
+        TimeRanks ranks = new TimeRanks(blocks);
+        List<InterfaceLogInfo> candidates = new ArrayList<>();
+        long skipped = 0;
+        for (Segment.BlockRange block : blocks) {
+            if (total - ranks.countMaxBefore(block.minTime()) <= offset) {
+                skipped += block.count();
+            } else if (ranks.countMinAfter(block.maxTime()) < offset + size) {
+                block.scan(from, to, (time, payload) -> candidates.add(summaryAt(time, payload)));
+            }
+        }
+        candidates.sort(SummaryFilter.LATEST);
+        int fromIndex = (int) Math.min(candidates.size(), offset - skipped);
+        int toIndex = Math.min(candidates.size(), fromIndex + size);
+        return new ListResult<>(page, size, total,
+            new ArrayList<>(candidates.subList(fromIndex, toIndex)));
+    }
+
+    /**
+     * 没有访问时间的记录按写入时归档的时间排序。
+     */
+    private static InterfaceLogInfo summaryAt(long time, java.nio.ByteBuffer payload) {
+        InterfaceLogInfo info = SegmentRecordCodec.summary(payload);
+        if (info.getSpec().getAccessTime() == null) {
+            info.getSpec().setAccessTime(new Date(time));
+        }
+        return info;
+    }
+
+    @Override
+    public Mono<InterfaceLogInfo> findSummary(String name) {
+        return read(() -> findPayload(name, SegmentRecordCodec::summary));
+    }
+
+    @Override
+    public Mono<InterfaceLogDetailInfo> findDetail(String name) {
+        return read(() -> findPayload(name, SegmentRecordCodec::detail));
+    }
+
+    @Override
+    public Flux<String> fieldValues(String field, String prefix) {
+        Function<InterfaceLogInfo, String> getter = switch (field) {
+            case "spec.username" -> info -> info.getSpec().getUsername();
+            case "spec.clientIp" -> info -> info.getSpec().getClientIp();
+            case "spec.path" -> info -> info.getSpec().getPath();
+            default -> throw new IllegalArgumentException("Unsupported field: " + field);
+        };
+        return read(() -> {
+            TreeSet<String> values = new TreeSet<>();
+            scan(Long.MIN_VALUE, Long.MAX_VALUE, (time, payload) -> {
+                String value = getter.apply(SegmentRecordCodec.summary(payload));
+                if (value != null && value.startsWith(prefix)) {
+                    values.add(value);
+                }
+                return true;
+            });
+            return values;
+        }).flatMapMany(Flux::fromIterable);
+    }
+
+    @Override
+    public Mono<Long> count() {
+        return Mono.fromSupplier(() -> {
+            ensureOpen();
+            return partitions.values().stream().mapToLong(Partition::getRecordCount).sum();
+        });
+    }
+
+    /**
+     * 整个分区目录一起删除，一批即可删完。
+     */
+    @Override
+    public Mono<PurgeBatch> clearBatch(int limit, int concurrency) {
+        return read(() -> {
+            long deleted = 0;
+            synchronized (this) {
+                ensureOpen();
+                for (Partition partition : partitions.values()) {
+                    deleted += partition.getRecordCount();
+                    partition.drop();
+                }
+                partitions.clear();
+            }
+            return new PurgeBatch(deleted, 0, 0);
+        });
+    }
+
+    /**
+     * 只删除整个时间范围都早于截止时间的分区，跨越截止时间的分区等整个过期后再删除。
+     * 每个分区只需要关闭文件并删除目录，与其中的记录数无关，因此不受批大小和限速约束，
+     * 也不需要检查点，原样返回以免切换后端后跳过另一后端中的日志。
+     */
+    @Override
+    public Mono<PurgeBatch> deleteBatch(long checkpoint, long before, int limit,
+        int concurrency, int deletesPerSecond) {
+        return read(() -> {
+            long deleted = 0;
+            LogCounts.Tally removed = new LogCounts.Tally(zone);
+            synchronized (this) {
+                ensureOpen();
+                for (Partition partition : List.copyOf(partitions.headMap(before).values())) {
+                    if (partition.expiredBefore(before)) {
+                        partition.scan(Long.MIN_VALUE, Long.MAX_VALUE, tally(removed));
+                        deleted += partition.getRecordCount();
+                        partitions.remove(partition.getStart());
+                        partition.drop();
+                    }
+                }
+            }
+            return new PurgeBatch(deleted, checkpoint, 0, removed.toCounts());
+        });
+    }
+
+    /**
+     * 从最旧的分区开始逐段删除，按段删除会多删最后一段中超出的部分；
+     * 最新分区正在写入的段不删除。
+     */
+    @Override
+    public Mono<PurgeBatch> evictOldest(long checkpoint, int limit, int concurrency,
+        int deletesPerSecond) {
+        return read(() -> {
+            long evicted = 0;
+            LogCounts.Tally removed = new LogCounts.Tally(zone);
+            synchronized (this) {
+                ensureOpen();
+                while (evicted < limit && !partitions.isEmpty()) {
+                    Map.Entry<Long, Partition> oldest = partitions.firstEntry();
+                    Partition partition = oldest.getValue();
+                    long dropped = partition.dropOldestSegment(tally(removed));
+                    if (dropped >= 0) {
+                        evicted += dropped;
+                        continue;
+                    }
+                    if (oldest.getKey().equals(partitions.lastKey())) {
+                        break;
+                    }
+                    partition.scan(Long.MIN_VALUE, Long.MAX_VALUE, tally(removed));
+                    evicted += partition.getRecordCount();
+                    partitions.remove(oldest.getKey());
+                    partition.drop();
+                }
+            }
+            return new PurgeBatch(evicted, checkpoint, 0, removed.toCounts());
+        });
+    }
+
+    @Override
+    public Mono<StorageUsage> usage() {
+        return Mono.fromSupplier(() -> {
+            ensureOpen();
+            long records = 0;
+            long bytes = 0;
+            for (Partition partition : partitions.values()) {
+                records += partition.getRecordCount();
+                bytes += partition.getUsedBytes();
+            }
+            return new StorageUsage(records, bytes, records == 0 ? 0 : bytes / records);
+        });
+    }
+
+    /**
+     * 扫描全部摘要统计，只在校准计数器时调用。
+     */
+    @Override
+    public Mono<LogCounts> countAll(ZoneId zone) {
+        return read(() -> {
+            LogCounts.Tally counts = new LogCounts.Tally(zone);
+            scan(Long.MIN_VALUE, Long.MAX_VALUE, tally(counts));
+            return counts.toCounts();
+        });
+    }
+
+    /**
+     * 解码摘要并按访问日期、响应状态类别累加。
+     */
+    private static Segment.RecordVisitor tally(LogCounts.Tally tally) {
+        return (time, payload) -> {
+            tally.add(time, SegmentRecordCodec.summary(payload).getSpec().getResponseStatus());
+            return true;
+        };
+    }
+
+    @Override
+    public synchronized void destroy() {
+        partitions.values().forEach(Partition::close);
+        partitions.clear();
+        directory = null;
+    }
+
+    private synchronized void append(InterfaceLogInfo interfaceLogInfo,
+        InterfaceLogDetailInfo detail) {
+        ensureOpen();
+        byte[] payload = SegmentRecordCodec.encode(interfaceLogInfo, detail);
+        long time = interfaceLogInfo.getSpec().getAccessTime() == null
+            ? System.currentTimeMillis() : interfaceLogInfo.getSpec().getAccessTime().getTime();
+        InterfaceLogSettingInfo.StorageSetting setting = storageSetting();
+        int capacity = setting.getSegmentSizeBytes();
+        if (Segment.HEADER_BYTES + payload.length > capacity) {
+            throw new IllegalArgumentException("Interface log record of " + payload.length
+                + " bytes exceeds segment size " + capacity);
+        }
+        partitionOf(time, "HOUR".equalsIgnoreCase(setting.getPartitionGranularity()))
+            .append(time, payload, capacity, setting.getIndexIntervalRecords());
+    }
+
+    private Partition partitionOf(long time, boolean hourly) {
+        Map.Entry<Long, Partition> floor = partitions.floorEntry(time);
+        if (floor != null && floor.getValue().getEnd() > time) {
+            return floor.getValue();
+        }
+        try {
+            Partition partition = Partition.open(
+                directory.resolve(Partition.nameOf(time, hourly, zone)), zone,
+                storageSetting().getIndexIntervalRecords());
+            partitions.put(partition.getStart(), partition);
+            return partition;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private <T> T findPayload(String name, Function<java.nio.ByteBuffer, T> decoder) {
+        long from = Long.MIN_VALUE;
+        long to = Long.MAX_VALUE;
+        Long nameTime = timeOf(name);
+        if (nameTime != null) {
+            from = nameTime - NAME_TIME_TOLERANCE_MILLIS;
+            to = nameTime + NAME_TIME_TOLERANCE_MILLIS;
+        }
+        AtomicReference<T> found = new AtomicReference<>();
+        scan(from, to, (time, payload) -> {
+            if (name.equals(SegmentRecordCodec.name(payload))) {
+                found.set(decoder.apply(payload));
+                return false;
+            }
+            return true;
+        });
+        return found.get();
+    }
+
+    /**
+     * 从新到旧扫描与时间范围有交集的分区。
+     */
+    private void scan(long from, long to, Segment.RecordVisitor visitor) {
+        ensureOpen();
+        for (Partition partition : partitions.descendingMap().values()) {
+            if (partition.overlaps(from, to) && !partition.scan(from, to, visitor)) {
+                return;
+            }
+        }
+    }
+
+    private synchronized void ensureOpen() {
+        if (directory != null) {
+            return;
+        }
+        Path target = resolveDirectory();
+        int indexInterval = storageSetting().getIndexIntervalRecords();
+        try {
+            Files.createDirectories(target);
+            try (Stream<Path> children = Files.list(target)) {
+                for (Path child : children.filter(Files::isDirectory).toList()) {
+                    Partition partition = Partition.open(child, zone, indexInterval);
+                    if (partition != null) {
+                        partitions.put(partition.getStart(), partition);
+                    }
+                }
+            }
+            directory = target;
+            migrateFlatSegments(target);
+        } catch (IOException e) {
+            directory = null;
+            throw new UncheckedIOException(e);
+        }
+        log.info("Interface log segment store opened at {} with {} partitions",
+            target, partitions.size());
+    }
+
+    /**
+     * 分区之前的段文件直接位于段目录下，逐条追加到对应分区后删除。
+     */
+    private void migrateFlatSegments(Path target) throws IOException {
+        List<Path> files;
+        try (Stream<Path> children = Files.list(target)) {
+            files = children.filter(p -> p.toString().endsWith(Segment.SUFFIX)).sorted().toList();
+        }
+        InterfaceLogSettingInfo.StorageSetting setting = storageSetting();
+        boolean hourly = "HOUR".equalsIgnoreCase(setting.getPartitionGranularity());
+        for (Path file : files) {
+            try (Segment segment = Segment.open(file, 0, (int) Files.size(file),
+                setting.getIndexIntervalRecords())) {
+                segment.scan(Long.MIN_VALUE, Long.MAX_VALUE, (time, payload) -> {
+                    byte[] bytes = new byte[payload.remaining()];
+                    payload.get(bytes);
+                    partitionOf(time, hourly).append(time, bytes, Math.max(
+                        setting.getSegmentSizeBytes(), Segment.HEADER_BYTES + bytes.length),
+                        setting.getIndexIntervalRecords());
+                    return true;
+                });
+            }
+            Files.delete(file);
+        }
+        if (!files.isEmpty()) {
+            log.info("Migrated {} flat interface log segments into partitions", files.size());
+        }
+    }
+
+    private Path resolveDirectory() {
+        String configured = storageSetting().getSegmentDirectory();
+        if (StringUtils.hasText(configured)) {
+            return Paths.get(configured);
+        }
+        String workDir = environment.getProperty("halo.work-dir");
+        Path base = StringUtils.hasText(workDir) ? Paths.get(workDir)
+            : Paths.get(System.getProperty("user.home"), ".halo2");
+        return base.resolve("interface-log").resolve("segments");
+    }
+
+    private static Long timeOf(String name) {
+        int separator = name.indexOf('-');
+        String millis = separator < 0 ? name : name.substring(0, separator);
+        if (millis.isEmpty() || !millis.chars().allMatch(Character::isDigit)) {
+            return null;
+        }
+        return Long.parseLong(millis);
+    }
+
+    private <T> Mono<T> read(Callable<T> callable) {
+        return Mono.fromCallable(callable).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private InterfaceLogSettingInfo.StorageSetting storageSetting() {
+        return settingService.getCurrentSetting().getStorage();
+    }
+
+    /**
+     * 块的最小、最大访问时间各自排序后的累计条数，用于估计块内记录的名次范围。
+     */
+    private static final class TimeRanks {
+
+        private final long[] maxTimes;
+
+        private final long[] countsByMaxTime;
+
+        private final long[] minTimes;
+
+        private final long[] countsByMinTime;
+
+        private TimeRanks(List<Segment.BlockRange> blocks) {
+            List<Segment.BlockRange> byMax = new ArrayList<>(blocks);
+            byMax.sort(Comparator.comparingLong(Segment.BlockRange::maxTime));
+            maxTimes = byMax.stream().mapToLong(Segment.BlockRange::maxTime).toArray();
+            countsByMaxTime = prefixCounts(byMax);
+            List<Segment.BlockRange> byMin = new ArrayList<>(blocks);
+            byMin.sort(Comparator.comparingLong(Segment.BlockRange::minTime));
+            minTimes = byMin.stream().mapToLong(Segment.BlockRange::minTime).toArray();
+            countsByMinTime = prefixCounts(byMin);
+        }
+
+        /**
+         * maxTime 早于 time 的块内的记录数。
+         */
+        private long countMaxBefore(long time) {
+            return countsByMaxTime[lowerBound(maxTimes, time)];
+        }
+
+        /**
+         * minTime 晚于 time 的块内的记录数。
+         */
+        private long countMinAfter(long time) {
+            return countsByMinTime[minTimes.length] - countsByMinTime[upperBound(minTimes, time)];
+        }
+
+        private static long[] prefixCounts(List<Segment.BlockRange> blocks) {
+            long[] counts = new long[blocks.size() + 1];
+            for (int i = 0; i < blocks.size(); i++) {
+                counts[i + 1] = counts[i] + blocks.get(i).count();
+            }
+            return counts;
+        }
+
+        /**
+         * 第一个不小于 time 的下标。
+         */
+        private static int lowerBound(long[] times, long time) {
+            int low = 0;
+            int high = times.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (times[middle] < time) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * 第一个大于 time 的下标。
+         */
+        private static int upperBound(long[] times, long time) {
+            return time == Long.MAX_VALUE ? times.length : lowerBound(times, time + 1);
+        }
+    }
+}
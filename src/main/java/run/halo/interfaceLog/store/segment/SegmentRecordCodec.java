@@ -0,0 +1,95 @@
+package run.halo.interfaceLog.store.segment;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import run.halo.app.extension.Metadata;
+import run.halo.interfaceLog.extension.InterfaceLogDetailInfo;
+import run.halo.interfaceLog.extension.InterfaceLogInfo;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 段文件中单条记录内容的编解码：
+ * {@code [short 名称长度][名称][int 摘要长度][摘要 JSON][明细 JSON]}。
+ * 摘要和明细分开存放，读列表时跳过明细字节，不做反序列化。
+ */
+final class SegmentRecordCodec {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
+        .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private SegmentRecordCodec() {
+    }
+
+    static byte[] encode(InterfaceLogInfo interfaceLogInfo, InterfaceLogDetailInfo detail) {
+        try {
+            byte[] name = interfaceLogInfo.getMetadata().getName().getBytes(StandardCharsets.UTF_8);
+            byte[] summary = OBJECT_MAPPER.writeValueAsBytes(interfaceLogInfo.getSpec());
+            byte[] detailBytes = detail == null ? new byte[0]
+                : OBJECT_MAPPER.writeValueAsBytes(detail.getSpec());
+            return ByteBuffer.allocate(Short.BYTES + name.length + Integer.BYTES
+                    + summary.length + detailBytes.length)
+                .putShort((short) name.length)
+                .put(name)
+                .putInt(summary.length)
+                .put(summary)
+                .put(detailBytes)
+                .array();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static String name(ByteBuffer payload) {
+        int length = payload.getShort(0);
+        byte[] name = new byte[length];
+        payload.get(Short.BYTES, name);
+        return new String(name, StandardCharsets.UTF_8);
+    }
+
+    static InterfaceLogInfo summary(ByteBuffer payload) {
+        int nameLength = payload.getShort(0);
+        int offset = Short.BYTES + nameLength;
+        int length = payload.getInt(offset);
+        byte[] summary = new byte[length];
+        payload.get(offset + Integer.BYTES, summary);
+        try {
+            InterfaceLogInfo interfaceLogInfo = new InterfaceLogInfo();
+            interfaceLogInfo.setMetadata(new Metadata());
+            interfaceLogInfo.getMetadata().setName(name(payload));
+            interfaceLogInfo.setSpec(
+                OBJECT_MAPPER.readValue(summary, InterfaceLogInfo.InterfaceLogInfoSpec.class));
+            return interfaceLogInfo;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 没有明细时返回 null。
+     */
+    static InterfaceLogDetailInfo detail(ByteBuffer payload) {
+        int nameLength = payload.getShort(0);
+        int summaryOffset = Short.BYTES + nameLength;
+        int offset = summaryOffset + Integer.BYTES + payload.getInt(summaryOffset);
+        int length = payload.limit() - offset;
+        if (length <= 0) {
+            return null;
+        }
+        byte[] detail = new byte[length];
+        payload.get(offset, detail);
+        try {
+            InterfaceLogDetailInfo detailInfo = new InterfaceLogDetailInfo();
+            detailInfo.setMetadata(new Metadata());
+            detailInfo.getMetadata().setName(name(payload));
+            detailInfo.setSpec(OBJECT_MAPPER.readValue(detail,
+                InterfaceLogDetailInfo.InterfaceLogDetailInfoSpec.class));
+            return detailInfo;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package run.halo.interfaceLog.store.segment;
+
+import org.springframework.util.ObjectUtils;
+import run.halo.interfaceLog.IndexValueUtils;
+import run.halo.interfaceLog.extension.InterfaceLogInfo;
+import run.halo.interfaceLog.request.InterfaceLogRequest;
+
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 段存储的查询条件，语义与扩展存储的索引查询一致。
+ */
+final class SummaryFilter {
+
+    /**
+     * 按访问时间倒序，同一毫秒按名称倒序。名称由生成时间开头，与扩展存储按 metadata.name 倒序一致，
+     * 以访问时间为主是为了能按块索引的时间范围定位分页
+     */
+    static final Comparator<InterfaceLogInfo> LATEST = Comparator
+        .comparing((InterfaceLogInfo info) -> info.getSpec().getAccessTime())
+        .thenComparing(info -> info.getMetadata().getName())
+        .reversed();
+
+    static final Comparator<InterfaceLogInfo> SLOWEST = Comparator
+        .comparing((InterfaceLogInfo info) -> durationOf(info), Comparator.reverseOrder())
+        .thenComparing(LATEST);
+
+    private final Set<String> usernames;
+
+    private final Set<String> clientIps;
+
+    private final Set<String> paths;
+
+    private final long from;
+
+    private final long to;
+
+    private final Long minDurationMicros;
+
+    private final Long maxDurationMicros;
+
+    SummaryFilter(InterfaceLogRequest request) {
+        this.usernames = toSet(request.getUsername());
+        this.clientIps = toSet(request.getClientIp());
+        this.paths = toSet(request.getPath());
+        if (ObjectUtils.isEmpty(request.getAccessTimes())) {
+            this.from = Long.MIN_VALUE;
+            this.to = Long.MAX_VALUE;
+        } else {
+            this.from = IndexValueUtils.parseTime(request.getAccessTimes().get(0));
+            this.to = IndexValueUtils.parseTime(request.getAccessTimes().get(1));
+        }
+        this.minDurationMicros = request.getMinDurationMillis() == null ? null
+            : request.getMinDurationMillis() * 1000;
+        this.maxDurationMicros = request.getMaxDurationMillis() == null ? null
+            : request.getMaxDurationMillis() * 1000;
+    }
+
+    long getFrom() {
+        return from;
+    }
+
+    long getTo() {
+        return to;
+    }
+
+    /**
+     * 只有时间范围条件。
+     */
+    boolean isTimeOnly() {
+        return usernames == null && clientIps == null && paths == null
+            && minDurationMicros == null && maxDurationMicros == null;
+    }
+
+    boolean matches(InterfaceLogInfo info) {
+        InterfaceLogInfo.InterfaceLogInfoSpec spec = info.getSpec();
+        if (usernames != null && !usernames.contains(spec.getUsername())) {
+            return false;
+        }
+        if (clientIps != null && !clientIps.contains(spec.getClientIp())) {
+            return false;
+        }
+        if (paths != null && !paths.contains(spec.getPath())) {
+            return false;
+        }
+        long duration = durationOf(info);
+        if (minDurationMicros != null && duration < minDurationMicros) {
+            return false;
+        }
+        return maxDurationMicros == null || duration <= maxDurationMicros;
+    }
+
+    static Comparator<InterfaceLogInfo> sortOf(InterfaceLogRequest request) {
+        return "slowest".equals(request.getSort()) ? SLOWEST : LATEST;
+    }
+
+    private static long durationOf(InterfaceLogInfo info) {
+        Long duration = info.getSpec().getDurationMicros();
+        return duration == null ? 0 : duration;
+    }
+
+    private static Set<String> toSet(List<String> values) {
+        return ObjectUtils.isEmpty(values) ? null : new HashSet<>(values);
+    }
+}
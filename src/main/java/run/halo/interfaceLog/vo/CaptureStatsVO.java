@@ -0,0 +1,12 @@
+package run.halo.interfaceLog.vo;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+@Data
+@Accessors(chain = true)
+public class CaptureStatsVO {
+    private long budgetBytes;
+    private long usedBytes;
+    private long degraded;
+}
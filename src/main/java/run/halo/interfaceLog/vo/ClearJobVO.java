@@ -0,0 +1,22 @@
+package run.halo.interfaceLog.vo;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+@Data
+@Accessors(chain = true)
+public class ClearJobVO {
+    private String id;
+    /**
+     * RUNNING、SUCCEEDED 或 FAILED
+     */
+    private String state;
+    private long deleted;
+    /**
+     * 剩余条数的估计
+     */
+    private long remaining;
+    private long startedAt;
+    private Long finishedAt;
+    private String error;
+}
@@ -0,0 +1,24 @@
+package run.halo.interfaceLog.vo;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+import java.util.Map;
+
+@Data
+@Accessors(chain = true)
+public class CountStatsVO {
+    private long total;
+    /**
+     * 按访问日期（yyyy-MM-dd）
+     */
+    private Map<String, Long> perDay;
+    /**
+     * 按响应状态类别（2xx、4xx 等）
+     */
+    private Map<String, Long> perStatusClass;
+    /**
+     * 上次与存储校准的时间，0 表示尚未校准
+     */
+    private long reconciledAt;
+}
@@ -0,0 +1,18 @@
+package run.halo.interfaceLog.vo;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+import java.util.Map;
+
+@Data
+@Accessors(chain = true)
+public class DropStatsVO {
+    private String policy;
+    private int queueDepth;
+    private int queueCapacity;
+    /**
+     * 按原因统计的丢弃次数，bodyDropped 表示日志保留但丢弃了内容
+     */
+    private Map<String, Long> drops;
+}
@@ -0,0 +1,37 @@
+package run.halo.interfaceLog.vo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.Accessors;
+
+import java.util.List;
+
+/**
+ * 近似的请求最多的取值，真实次数介于 count - error 与 count 之间。
+ */
+@Data
+@Accessors(chain = true)
+public class HeavyHittersVO {
+    private String field;
+
+    private int minutes;
+
+    /**
+     * 窗口内计入的总请求数
+     */
+    private long total;
+
+    private List<Item> items;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+        private String value;
+
+        private long count;
+
+        private long error;
+    }
+}
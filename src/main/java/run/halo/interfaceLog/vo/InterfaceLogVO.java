@@ -25,6 +25,8 @@ public class InterfaceLogVO {
 
     private String responseStatus;
 
+    private Double durationMillis;
+
     public InterfaceLogVO(InterfaceLogInfo info) {
         SimpleDateFormat formatter = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
         formatter.setTimeZone(TimeZone.getTimeZone("Asia/Shanghai"));
@@ -35,6 +37,8 @@ public class InterfaceLogVO {
         this.requestType = info.getSpec().getRequestType();
         this.responseStatus = info.getSpec().getResponseStatus();
         this.id = info.getMetadata().getName();
+        this.durationMillis = info.getSpec().getDurationMicros() == null ? null
+                : info.getSpec().getDurationMicros() / 1000.0;
     }
 
     private String generatePath(InterfaceLogInfo info) {
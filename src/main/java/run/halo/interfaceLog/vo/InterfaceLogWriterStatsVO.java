@@ -0,0 +1,19 @@
+package run.halo.interfaceLog.vo;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+@Data
+@Accessors(chain = true)
+public class InterfaceLogWriterStatsVO {
+    private int queueDepth;
+    private int queueCapacity;
+    private long enqueued;
+    private long persisted;
+    private long failed;
+    private long rejected;
+    private long flushCount;
+    private long lastFlushMillis;
+    private long avgFlushMillis;
+    private long maxFlushMillis;
+}
@@ -0,0 +1,16 @@
+package run.halo.interfaceLog.vo;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+@Data
+@Accessors(chain = true)
+public class PersistenceStatsVO {
+    private String executorType;
+    private int poolSize;
+    private int activeTasks;
+    private int queuedTasks;
+    private int maxQueuedTasks;
+    private long completedTasks;
+    private long rejectedTasks;
+}
@@ -0,0 +1,19 @@
+package run.halo.interfaceLog.vo;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+import java.util.List;
+
+/**
+ * 按桶排列的日志条数，timestamps 与 counts 一一对应，没有日志的桶为 0。
+ */
+@Data
+@Accessors(chain = true)
+public class RollupSeriesVO {
+    private String resolution;
+
+    private List<Long> timestamps;
+
+    private List<Long> counts;
+}
@@ -0,0 +1,14 @@
+package run.halo.interfaceLog.vo;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+@Data
+@Accessors(chain = true)
+public class SamplingStatsVO {
+    private boolean adaptive;
+    private double observedPerSecond;
+    private double adaptiveRate;
+    private long sampled;
+    private long skipped;
+}
@@ -0,0 +1,401 @@
+package run.halo.interfaceLog.writer;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
+import run.halo.interfaceLog.codec.BodyCodecRegistry;
+import run.halo.interfaceLog.extension.InterfaceLogInfo;
+import run.halo.interfaceLog.extension.InterfaceLogSettingInfo;
+import run.halo.interfaceLog.service.InterfaceLogSettingService;
+import run.halo.interfaceLog.stats.InterfaceLogCounters;
+import run.halo.interfaceLog.stats.InterfaceLogFieldIndex;
+import run.halo.interfaceLog.stats.InterfaceLogRollups;
+import run.halo.interfaceLog.store.InterfaceLogStores;
+import run.halo.interfaceLog.vo.DropStatsVO;
+import run.halo.interfaceLog.vo.InterfaceLogWriterStatsVO;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+/**
+ * 日志异步写入器：过滤器只负责把完成的日志放入有界队列，
+ * 由后台按批量大小或时间间隔持久化，存储慢或失败都不会影响响应。
+ * 序列化、压缩和写入都在 {@link PersistenceScheduler} 的线程上执行。
+ */
+@Slf4j
+@Component
+@EnableScheduling
+public class InterfaceLogWriter {
+
+    private static final Duration RETRY_BACKOFF = Duration.ofMillis(100);
+
+    private static final Duration BLOCK_POLL_INTERVAL = Duration.ofMillis(10);
+
+    static final String DROP_REASON_QUEUE_FULL = "queueFull";
+
+    static final String DROP_REASON_OLDEST = "droppedOldest";
+
+    static final String DROP_REASON_BODY = "bodyDropped";
+
+    static final String DROP_REASON_BLOCK_TIMEOUT = "blockTimeout";
+
+    static final String DROP_REASON_CANCELLED = "cancelled";
+
+    private final InterfaceLogStores stores;
+
+    private final InterfaceLogSettingService settingService;
+
+    private final PersistenceScheduler persistenceScheduler;
+
+    private final BodyCodecRegistry bodyCodecRegistry;
+
+    private final InterfaceLogCounters counters;
+
+    private final InterfaceLogFieldIndex fieldIndex;
+
+    private final InterfaceLogRollups rollups;
+
+    private final BlockingQueue<PendingInterfaceLog> queue = new LinkedBlockingQueue<>();
+
+    /**
+     * 已占用的队列位置，先占位再入队，出队后归还。容量随设置变化，
+     * 因此不用有界队列，而是用 CAS 占位保证并发入队时不超过容量。
+     */
+    private final AtomicInteger queuedSlots = new AtomicInteger();
+
+    private final AtomicBoolean draining = new AtomicBoolean(false);
+
+    private final LongAdder enqueued = new LongAdder();
+
+    private final LongAdder persisted = new LongAdder();
+
+    private final LongAdder failed = new LongAdder();
+
+    private final LongAdder rejected = new LongAdder();
+
+    private final LongAdder blocked = new LongAdder();
+
+    private final Map<String, LongAdder> drops = new ConcurrentHashMap<>();
+
+    private final LongAdder flushCount = new LongAdder();
+
+    private final LongAdder totalFlushNanos = new LongAdder();
+
+    private final AtomicLong maxFlushNanos = new AtomicLong();
+
+    private volatile long lastFlushNanos;
+
+    private volatile long lastFlushAt = System.currentTimeMillis();
+
+    public InterfaceLogWriter(InterfaceLogStores stores,
+        InterfaceLogSettingService settingService, PersistenceScheduler persistenceScheduler,
+        BodyCodecRegistry bodyCodecRegistry, InterfaceLogCounters counters,
+        InterfaceLogFieldIndex fieldIndex, InterfaceLogRollups rollups) {
+        this.stores = stores;
+        this.settingService = settingService;
+        this.persistenceScheduler = persistenceScheduler;
+        this.bodyCodecRegistry = bodyCodecRegistry;
+        this.counters = counters;
+        this.fieldIndex = fieldIndex;
+        this.rollups = rollups;
+    }
+
+    public boolean enqueue(InterfaceLogInfo interfaceLogInfo) {
+        return enqueue(PendingInterfaceLog.of(interfaceLogInfo));
+    }
+
+    /**
+     * 非阻塞地提交一条日志，队列已满时按过载策略处理。
+     * BLOCK 策略在这里不等待，等同于丢弃新日志，需要等待时使用 {@link #submit}。
+     */
+    public boolean enqueue(PendingInterfaceLog pendingLog) {
+        InterfaceLogSettingInfo.WriterSetting setting = writerSetting();
+        OverloadPolicy policy = OverloadPolicy.of(setting.getOverloadPolicy());
+        int capacity = setting.getQueueCapacity();
+        if (policy == OverloadPolicy.DROP_BODIES
+            && queuedSlots.get() >= capacity * setting.getBodyDropRatio()
+            && pendingLog.dropDetail()) {
+            recordDrop(DROP_REASON_BODY);
+        }
+        if (policy == OverloadPolicy.DROP_OLDEST && capacity > 0) {
+            // 每腾出一个位置都要重新占位，并发的生产者不会一起挤过容量
+            while (!reserveSlot(capacity)) {
+                PendingInterfaceLog oldest = queue.poll();
+                if (oldest == null) {
+                    // 位置已被占但日志还没入队，或刚出队还没归还位置，很快就会变化
+                    Thread.onSpinWait();
+                    continue;
+                }
+                queuedSlots.decrementAndGet();
+                oldest.discard();
+                rejected.increment();
+                recordDrop(DROP_REASON_OLDEST);
+            }
+            offerReserved(pendingLog);
+            return true;
+        }
+        if (tryOffer(pendingLog)) {
+            return true;
+        }
+        drop(pendingLog, DROP_REASON_QUEUE_FULL);
+        return false;
+    }
+
+    /**
+     * 提交日志并返回完成信号。BLOCK 策略下队列已满时定时重试入队，
+     * 不占用线程，超时或被取消后丢弃；其它策略立即完成。
+     */
+    public Mono<Void> submit(PendingInterfaceLog pendingLog) {
+        InterfaceLogSettingInfo.WriterSetting setting = writerSetting();
+        if (OverloadPolicy.of(setting.getOverloadPolicy()) != OverloadPolicy.BLOCK) {
+            enqueue(pendingLog);
+            return Mono.empty();
+        }
+        if (tryOffer(pendingLog)) {
+            return Mono.empty();
+        }
+        blocked.increment();
+        drain();
+        // 入队和超时丢弃可能在不同线程上同时发生，只允许其中一个生效
+        AtomicBoolean settled = new AtomicBoolean(false);
+        return Flux.interval(BLOCK_POLL_INTERVAL)
+            .filter(tick -> settle(settled, () -> tryOffer(pendingLog)))
+            .next()
+            .timeout(Duration.ofMillis(setting.getBlockTimeoutMillis()),
+                Mono.<Long>fromRunnable(() -> settle(settled, () -> {
+                    drop(pendingLog, DROP_REASON_BLOCK_TIMEOUT);
+                    return true;
+                })))
+            .doOnCancel(() -> settle(settled, () -> {
+                drop(pendingLog, DROP_REASON_CANCELLED);
+                return true;
+            }))
+            .then();
+    }
+
+    private static boolean settle(AtomicBoolean settled, BooleanSupplier action) {
+        synchronized (settled) {
+            if (settled.get()) {
+                return false;
+            }
+            boolean done = action.getAsBoolean();
+            settled.set(done);
+            return done;
+        }
+    }
+
+    public DropStatsVO dropStats() {
+        InterfaceLogSettingInfo.WriterSetting setting = writerSetting();
+        Map<String, Long> counts = new TreeMap<>();
+        drops.forEach((reason, count) -> counts.put(reason, count.sum()));
+        counts.put("blocked", blocked.sum());
+        return new DropStatsVO()
+            .setPolicy(OverloadPolicy.of(setting.getOverloadPolicy()).name())
+            .setQueueDepth(queue.size())
+            .setQueueCapacity(setting.getQueueCapacity())
+            .setDrops(counts);
+    }
+
+    private boolean tryOffer(PendingInterfaceLog pendingLog) {
+        if (!reserveSlot(writerSetting().getQueueCapacity())) {
+            return false;
+        }
+        offerReserved(pendingLog);
+        return true;
+    }
+
+    private boolean reserveSlot(int capacity) {
+        while (true) {
+            int current = queuedSlots.get();
+            if (current >= capacity) {
+                return false;
+            }
+            if (queuedSlots.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private void offerReserved(PendingInterfaceLog pendingLog) {
+        queue.offer(pendingLog);
+        enqueued.increment();
+        if (queue.size() >= writerSetting().getBatchSize()) {
+            drain();
+        }
+    }
+
+    private void drop(PendingInterfaceLog pendingLog, String reason) {
+        pendingLog.discard();
+        rejected.increment();
+        recordDrop(reason);
+    }
+
+    private void recordDrop(String reason) {
+        drops.computeIfAbsent(reason, key -> new LongAdder()).increment();
+    }
+
+    @Scheduled(fixedDelay = 200)
+    public void tick() {
+        long interval = writerSetting().getFlushIntervalMillis();
+        if (!queue.isEmpty() && System.currentTimeMillis() - lastFlushAt >= interval) {
+            drain();
+        }
+    }
+
+    /**
+     * 同一时刻只允许一个批次在途，批次结束后若队列仍积压则继续下一批。
+     */
+    public void drain() {
+        if (!draining.compareAndSet(false, true)) {
+            return;
+        }
+        List<PendingInterfaceLog> batch = pollBatch();
+        if (batch.isEmpty()) {
+            draining.set(false);
+            return;
+        }
+        long start = System.nanoTime();
+        persist(batch)
+            .doFinally(signal -> {
+                recordFlush(start);
+                draining.set(false);
+                if (queue.size() >= writerSetting().getBatchSize()) {
+                    drain();
+                }
+            })
+            .subscribe();
+    }
+
+    /**
+     * 插件停止时调用，在超时前尽量把队列中的日志全部落库。
+     */
+    public void flush(Duration timeout) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (!queue.isEmpty() || draining.get()) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                log.warn("Interface log writer flush timed out, {} records left", queue.size());
+                return;
+            }
+            if (!draining.compareAndSet(false, true)) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+                continue;
+            }
+            long start = System.nanoTime();
+            try {
+                persist(pollBatch()).block(Duration.ofNanos(remaining));
+            } catch (Exception e) {
+                log.error("Failed to flush interface logs", e);
+                return;
+            } finally {
+                recordFlush(start);
+                draining.set(false);
+            }
+        }
+    }
+
+    public InterfaceLogWriterStatsVO stats() {
+        long flushes = flushCount.sum();
+        return new InterfaceLogWriterStatsVO()
+            .setQueueDepth(queue.size())
+            .setQueueCapacity(writerSetting().getQueueCapacity())
+            .setEnqueued(enqueued.sum())
+            .setPersisted(persisted.sum())
+            .setFailed(failed.sum())
+            .setRejected(rejected.sum())
+            .setFlushCount(flushes)
+            .setLastFlushMillis(TimeUnit.NANOSECONDS.toMillis(lastFlushNanos))
+            .setAvgFlushMillis(
+                flushes == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalFlushNanos.sum() / flushes))
+            .setMaxFlushMillis(TimeUnit.NANOSECONDS.toMillis(maxFlushNanos.get()));
+    }
+
+    /**
+     * 批次内最多同时写入持久化线程数条，线程池与排队上限由持久化设置控制；批次结束后归还调度器。
+     */
+    private Mono<Void> persist(List<PendingInterfaceLog> batch) {
+        int maxRetries = writerSetting().getMaxRetries();
+        int concurrency = Math.max(1,
+            settingService.getCurrentSetting().getPersistence().getPoolSize());
+        Scheduler scheduler;
+        try {
+            scheduler = persistenceScheduler.scheduler();
+        } catch (Exception e) {
+            return Mono.fromRunnable(() -> discard(batch, e));
+        }
+        // 持久化线程池不支持定时任务，退避计时放在 parallel 上，每次重试再回到持久化线程
+        Retry retry = Retry.backoff(maxRetries, RETRY_BACKOFF).scheduler(Schedulers.parallel());
+        return Flux.fromIterable(batch)
+            .flatMap(pendingLog -> Mono.fromRunnable(() -> {
+                    pendingLog.finish();
+                    if (pendingLog.getDetail() != null) {
+                        bodyCodecRegistry.encode(pendingLog.getDetail());
+                    }
+                })
+                .then(Mono.defer(() -> stores.current()
+                    .save(pendingLog.getInterfaceLogInfo(), pendingLog.getDetail())
+                    .subscribeOn(scheduler)
+                    .retryWhen(retry)))
+                // 订阅即切换到持久化线程，事件循环只负责入队
+                .subscribeOn(scheduler)
+                .doOnSuccess(v -> {
+                    persisted.increment();
+                    counters.recordWritten(pendingLog.getInterfaceLogInfo());
+                    fieldIndex.recordWritten(pendingLog.getInterfaceLogInfo());
+                    rollups.recordWritten(pendingLog.getInterfaceLogInfo());
+                })
+                .onErrorResume(e -> {
+                    failed.increment();
+                    pendingLog.discard();
+                    log.error("Failed to persist interface log {}",
+                        pendingLog.getInterfaceLogInfo().getMetadata().getName(), e);
+                    return Mono.empty();
+                }), concurrency)
+            .then()
+            .doFinally(signal -> persistenceScheduler.release(scheduler));
+    }
+
+    private void discard(List<PendingInterfaceLog> batch, Exception e) {
+        batch.forEach(PendingInterfaceLog::discard);
+        failed.add(batch.size());
+        log.error("Failed to schedule interface log persistence", e);
+    }
+
+    private List<PendingInterfaceLog> pollBatch() {
+        List<PendingInterfaceLog> batch = new ArrayList<>();
+        queuedSlots.addAndGet(-queue.drainTo(batch, writerSetting().getBatchSize()));
+        return batch;
+    }
+
+    private void recordFlush(long start) {
+        long elapsed = System.nanoTime() - start;
+        lastFlushNanos = elapsed;
+        lastFlushAt = System.currentTimeMillis();
+        flushCount.increment();
+        totalFlushNanos.add(elapsed);
+        maxFlushNanos.accumulateAndGet(elapsed, Math::max);
+    }
+
+    private InterfaceLogSettingInfo.WriterSetting writerSetting() {
+        return settingService.getCurrentSetting().getWriter();
+    }
+}
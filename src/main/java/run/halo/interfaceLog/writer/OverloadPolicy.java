@@ -0,0 +1,38 @@
+package run.halo.interfaceLog.writer;
+
+/**
+ * 写入队列积压时的处理方式。
+ */
+public enum OverloadPolicy {
+
+    /**
+     * 丢弃新到的日志
+     */
+    DROP_NEWEST,
+
+    /**
+     * 丢弃队列中最早的日志，为新日志腾出位置
+     */
+    DROP_OLDEST,
+
+    /**
+     * 队列超过水位后新日志只保存摘要，满了再丢弃新日志
+     */
+    DROP_BODIES,
+
+    /**
+     * 在超时前等待队列腾出位置，等待期间不占用线程，超时后丢弃
+     */
+    BLOCK;
+
+    public static OverloadPolicy of(String value) {
+        if (value == null) {
+            return DROP_NEWEST;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return DROP_NEWEST;
+        }
+    }
+}
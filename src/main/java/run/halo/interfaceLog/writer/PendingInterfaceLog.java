@@ -0,0 +1,90 @@
+package run.halo.interfaceLog.writer;
+
+import run.halo.app.extension.Metadata;
+import run.halo.interfaceLog.extension.InterfaceLogDetailInfo;
+import run.halo.interfaceLog.extension.InterfaceLogInfo;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * 已结束但尚未序列化的日志。
+ * <p>请求结束时只记录状态码、耗时等元数据，请求头序列化、内容解码等工作由 {@link #finish()}
+ * 在持久化线程上完成，结果写入与摘要同名的明细；无论完成还是丢弃，采集占用的资源都只释放一次。</p>
+ */
+public class PendingInterfaceLog {
+
+    private static final Consumer<InterfaceLogDetailInfo> NO_OP_FINISHER = detail -> {
+    };
+
+    private final InterfaceLogInfo interfaceLogInfo;
+
+    private final Consumer<InterfaceLogDetailInfo> finisher;
+
+    private final Runnable releaser;
+
+    private final AtomicBoolean done = new AtomicBoolean(false);
+
+    private volatile InterfaceLogDetailInfo detail;
+
+    public PendingInterfaceLog(InterfaceLogInfo interfaceLogInfo,
+        Consumer<InterfaceLogDetailInfo> finisher, Runnable releaser) {
+        this.interfaceLogInfo = interfaceLogInfo;
+        this.finisher = finisher;
+        this.releaser = releaser;
+    }
+
+    /**
+     * 只有摘要、没有明细的日志。
+     */
+    public static PendingInterfaceLog of(InterfaceLogInfo interfaceLogInfo) {
+        return new PendingInterfaceLog(interfaceLogInfo, NO_OP_FINISHER, () -> {
+        });
+    }
+
+    public InterfaceLogInfo getInterfaceLogInfo() {
+        return interfaceLogInfo;
+    }
+
+    /**
+     * 没有明细或明细已被丢弃时为空。
+     */
+    public InterfaceLogDetailInfo getDetail() {
+        return detail;
+    }
+
+    public InterfaceLogInfo finish() {
+        if (done.compareAndSet(false, true)) {
+            try {
+                if (finisher != NO_OP_FINISHER) {
+                    InterfaceLogDetailInfo created = new InterfaceLogDetailInfo();
+                    created.setMetadata(new Metadata());
+                    created.getMetadata().setName(interfaceLogInfo.getMetadata().getName());
+                    finisher.accept(created);
+                    detail = created;
+                }
+            } finally {
+                releaser.run();
+            }
+        }
+        return interfaceLogInfo;
+    }
+
+    /**
+     * 过载时丢弃明细，只保留摘要。返回是否真的丢弃了明细。
+     */
+    public boolean dropDetail() {
+        if (finisher == NO_OP_FINISHER || !done.compareAndSet(false, true)) {
+            return false;
+        }
+        releaser.run();
+        interfaceLogInfo.getSpec().setSummaryOnly(true);
+        return true;
+    }
+
+    public void discard() {
+        if (done.compareAndSet(false, true)) {
+            releaser.run();
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package run.halo.interfaceLog.writer;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import run.halo.interfaceLog.extension.InterfaceLogSettingInfo;
+import run.halo.interfaceLog.service.InterfaceLogSettingService;
+import run.halo.interfaceLog.vo.PersistenceStatsVO;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 日志持久化专用的有界调度器。
+ * <p>线程数和等待队列都有上限，虚拟线程模式下仍通过线程池限制并发，只是工作线程换成虚拟线程，
+ * 存储阻塞时只占用这里的线程，不会拖住 Netty 事件循环。</p>
+ * <p>配置变化后在下次取调度器时重建。调用方每取一次调度器都要在批次结束后 {@link #release}，
+ * 旧线程池等所有批次归还后才关闭，正在写入的批次不会因切换配置被拒绝。</p>
+ */
+@Slf4j
+@Component
+public class PersistenceScheduler implements DisposableBean {
+
+    static final String VIRTUAL = "virtual";
+
+    static final String FIXED = "fixed";
+
+    private final InterfaceLogSettingService settingService;
+
+    private final LongAdder rejected = new LongAdder();
+
+    private final AtomicLong threadIndex = new AtomicLong();
+
+    private volatile Holder holder;
+
+    /**
+     * 配置变化后等待归还的旧线程池
+     */
+    private final List<Holder> retiring = new CopyOnWriteArrayList<>();
+
+    public PersistenceScheduler(InterfaceLogSettingService settingService) {
+        this.settingService = settingService;
+    }
+
+    /**
+     * 取当前调度器并占用，批次结束后必须调用 {@link #release}。
+     */
+    public synchronized Scheduler scheduler() {
+        InterfaceLogSettingInfo.PersistenceSetting setting = persistenceSetting();
+        Holder current = holder;
+        if (current == null || !current.matches(setting)) {
+            Holder previous = current;
+            current = createHolder(setting);
+            holder = current;
+            if (previous != null) {
+                retiring.add(previous);
+                retire(previous);
+            }
+        }
+        current.users.incrementAndGet();
+        return current.scheduler;
+    }
+
+    /**
+     * 归还 {@link #scheduler()} 取到的调度器，已被替换的线程池在最后一次归还后关闭。
+     */
+    public synchronized void release(Scheduler scheduler) {
+        Holder current = holder;
+        if (current != null && current.scheduler == scheduler) {
+            current.users.decrementAndGet();
+            return;
+        }
+        for (Holder previous : retiring) {
+            if (previous.scheduler == scheduler) {
+                previous.users.decrementAndGet();
+                retire(previous);
+                return;
+            }
+        }
+    }
+
+    public PersistenceStatsVO stats() {
+        InterfaceLogSettingInfo.PersistenceSetting setting = persistenceSetting();
+        PersistenceStatsVO stats = new PersistenceStatsVO()
+            .setExecutorType(resolveType(setting.getExecutorType(), false))
+            .setPoolSize(setting.getPoolSize())
+            .setMaxQueuedTasks(setting.getMaxQueuedTasks())
+            .setRejectedTasks(rejected.sum());
+        Holder current = holder;
+        if (current != null) {
+            stats.setExecutorType(current.type)
+                .setActiveTasks(current.executor.getActiveCount())
+                .setQueuedTasks(current.executor.getQueue().size())
+                .setCompletedTasks(current.executor.getCompletedTaskCount());
+        }
+        return stats;
+    }
+
+    @Override
+    public void destroy() {
+        Holder current = holder;
+        if (current != null) {
+            current.scheduler.dispose();
+        }
+        retiring.forEach(previous -> previous.scheduler.dispose());
+        retiring.clear();
+    }
+
+    private void retire(Holder previous) {
+        if (previous.retire()) {
+            retiring.remove(previous);
+        }
+    }
+
+    private Holder createHolder(InterfaceLogSettingInfo.PersistenceSetting setting) {
+        String type = resolveType(setting.getExecutorType(), true);
+        int poolSize = Math.max(1, setting.getPoolSize());
+        int maxQueued = Math.max(1, setting.getMaxQueuedTasks());
+        ThreadFactory threadFactory = VIRTUAL.equals(type)
+            ? virtualThreadFactory()
+            : runnable -> {
+                Thread thread = new Thread(runnable,
+                    "interface-log-persist-" + threadIndex.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            };
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(poolSize, poolSize,
+            60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(maxQueued), threadFactory,
+            (runnable, pool) -> {
+                rejected.increment();
+                throw new RejectedExecutionException("Interface log persistence queue is full");
+            });
+        executor.allowCoreThreadTimeOut(true);
+        log.info("Interface log persistence uses {} threads, pool size {}, queue {}",
+            type, poolSize, maxQueued);
+        return new Holder(setting.getExecutorType(), poolSize, maxQueued, type, executor,
+            Schedulers.fromExecutorService(executor, "interface-log-persist"));
+    }
+
+    /**
+     * 只在创建线程池时提示不支持虚拟线程，统计接口轮询时不重复打印。
+     */
+    private String resolveType(String configured, boolean warn) {
+        if (FIXED.equals(configured)) {
+            return FIXED;
+        }
+        boolean supported = Runtime.version().feature() >= 21;
+        if (warn && VIRTUAL.equals(configured) && !supported) {
+            log.warn("Virtual threads require JDK 21+, falling back to a fixed pool");
+        }
+        return supported ? VIRTUAL : FIXED;
+    }
+
+    /**
+     * 插件按 JDK 17 编译，通过反射获取 {@code Thread.ofVirtual().name(..).factory()}。
+     */
+    private ThreadFactory virtualThreadFactory() {
+        try {
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderClass.getMethod("name", String.class, long.class)
+                .invoke(builder, "interface-log-persist-", 1L);
+            return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            log.warn("Failed to create virtual thread factory, using platform threads", e);
+            return Executors.defaultThreadFactory();
+        }
+    }
+
+    private InterfaceLogSettingInfo.PersistenceSetting persistenceSetting() {
+        return settingService.getCurrentSetting().getPersistence();
+    }
+
+    private static final class Holder {
+        private final String configuredType;
+
+        private final int poolSize;
+
+        private final int maxQueued;
+
+        private final String type;
+
+        private final ThreadPoolExecutor executor;
+
+        private final Scheduler scheduler;
+
+        private final AtomicInteger users = new AtomicInteger();
+
+        private final AtomicBoolean closed = new AtomicBoolean(false);
+
+        private Holder(String configuredType, int poolSize, int maxQueued, String type,
+            ThreadPoolExecutor executor, Scheduler scheduler) {
+            this.configuredType = configuredType;
+            this.poolSize = poolSize;
+            this.maxQueued = maxQueued;
+            this.type = type;
+            this.executor = executor;
+            this.scheduler = scheduler;
+        }
+
+        boolean matches(InterfaceLogSettingInfo.PersistenceSetting setting) {
+            return Objects.equals(configuredType, setting.getExecutorType())
+                && poolSize == Math.max(1, setting.getPoolSize())
+                && maxQueued == Math.max(1, setting.getMaxQueuedTasks());
+        }
+
+        /**
+         * 已被替换且没有批次占用时关闭。归还可能发生在本线程池的线程上，
+         * 因此在别的线程上等已提交的任务执行完再释放调度器。
+         */
+        boolean retire() {
+            if (users.get() > 0 || !closed.compareAndSet(false, true)) {
+                return false;
+            }
+            executor.shutdown();
+            CompletableFuture.runAsync(() -> {
+                try {
+                    executor.awaitTermination(30, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                scheduler.dispose();
+            });
+            return true;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package run.halo.interfaceLog;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.TimeZone;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 对比 spec.accessTime 旧的格式化字符串索引和毫秒时间戳索引的构建耗时。
+ * 通过 {@code ./gradlew benchmark} 单独运行。
+ */
+@Tag("benchmark")
+class AccessTimeIndexBenchmarkTest {
+
+    private static final int ENTITIES = 1_000_000;
+
+    private static final int ROUNDS = 5;
+
+    @Test
+    void compareIndexBuildTime() {
+        Date[] times = new Date[ENTITIES];
+        long base = System.currentTimeMillis();
+        for (int i = 0; i < ENTITIES; i++) {
+            times[i] = new Date(base - i * 37L);
+        }
+
+        Function<Date, String> legacy = accessTime -> {
+            SimpleDateFormat formatter = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+            formatter.setTimeZone(TimeZone.getTimeZone("Asia/Shanghai"));
+            return formatter.format(accessTime);
+        };
+        Function<Date, String> epochMillis = IndexValueUtils::padTime;
+
+        long legacyNanos = measure(times, legacy);
+        long epochNanos = measure(times, epochMillis);
+
+        System.out.printf("accessTime index build over %d entities: legacy=%dms, epochMillis=%dms%n",
+            ENTITIES, legacyNanos / 1_000_000, epochNanos / 1_000_000);
+        assertThat(epochNanos).isLessThan(legacyNanos);
+    }
+
+    private long measure(Date[] times, Function<Date, String> indexFunc) {
+        long best = Long.MAX_VALUE;
+        long sink = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (Date time : times) {
+                sink += indexFunc.apply(time).length();
+            }
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        assertThat(sink).isPositive();
+        return best;
+    }
+}
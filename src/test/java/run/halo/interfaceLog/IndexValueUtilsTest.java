@@ -0,0 +1,30 @@
+package run.halo.interfaceLog;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IndexValueUtilsTest {
+
+    @Test
+    void shouldParseSupportedTimeFormats() {
+        long expected = 1735660800123L;
+
+        assertThat(IndexValueUtils.parseTime("1735660800123")).isEqualTo(expected);
+        assertThat(IndexValueUtils.parseTime("2024-12-31T16:00:00.123Z")).isEqualTo(expected);
+        assertThat(IndexValueUtils.parseTime("2025-01-01T00:00:00.123+08:00")).isEqualTo(expected);
+        assertThat(IndexValueUtils.parseTime("2025-01-01 00:00:00")).isEqualTo(expected - 123);
+    }
+
+    @Test
+    void shouldKeepNumericOrderWithMillisecondResolution() {
+        String earlier = IndexValueUtils.padTime(new Date(999));
+        String later = IndexValueUtils.padTime(new Date(1000));
+
+        assertThat(earlier).hasSize(later.length());
+        assertThat(earlier).isLessThan(later);
+        assertThat(IndexValueUtils.padTime(null)).isNull();
+    }
+}
@@ -1,8 +1,8 @@
 package run.halo.interfaceLog;
 
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Sort;
@@ -10,39 +10,74 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 import run.halo.app.extension.ListOptions;
+import run.halo.app.extension.ListResult;
 import run.halo.app.extension.Metadata;
+import run.halo.app.extension.PageRequest;
 import run.halo.app.extension.ReactiveExtensionClient;
+import run.halo.interfaceLog.codec.BodyCodecRegistry;
+import run.halo.interfaceLog.extension.InterfaceLogDetailInfo;
 import run.halo.interfaceLog.extension.InterfaceLogInfo;
+import run.halo.interfaceLog.extension.InterfaceLogRollup;
+import run.halo.interfaceLog.schedule.InterfaceLogClearJob;
 import run.halo.interfaceLog.service.impl.InterfaceLogServiceImpl;
+import run.halo.interfaceLog.stats.InterfaceLogCounters;
+import run.halo.interfaceLog.stats.InterfaceLogFieldIndex;
+import run.halo.interfaceLog.stats.InterfaceLogHeavyHitters;
+import run.halo.interfaceLog.stats.InterfaceLogRollups;
+import run.halo.interfaceLog.vo.CountStatsVO;
+import run.halo.interfaceLog.store.ExtensionInterfaceLogStore;
+import run.halo.interfaceLog.store.InterfaceLogStores;
 
 import java.time.Instant;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 public class InterfaceLogServiceImplTest {
 
-    @InjectMocks
     private InterfaceLogServiceImpl interfaceLogService;
 
+    private InterfaceLogCounters counters;
+
+    private InterfaceLogRollups rollups;
+
+    private InterfaceLogHeavyHitters heavyHitters;
+
     @Mock
     private ReactiveExtensionClient client;
 
+    @Mock
+    private InterfaceLogStores stores;
+
+    @Mock
+    private BodyCodecRegistry bodyCodecRegistry;
+
+    @BeforeEach
+    void setUp() {
+        counters = new InterfaceLogCounters(stores);
+        rollups = new InterfaceLogRollups(client);
+        heavyHitters = new InterfaceLogHeavyHitters();
+        InterfaceLogFieldIndex fieldIndex = new InterfaceLogFieldIndex(stores);
+        interfaceLogService = new InterfaceLogServiceImpl(stores, bodyCodecRegistry,
+                new InterfaceLogClearJob(stores, counters, fieldIndex, rollups, heavyHitters),
+                counters, fieldIndex);
+        when(stores.current()).thenReturn(new ExtensionInterfaceLogStore(client));
+    }
+
     @Test
     void countTest() {
-        // deleted
-        InterfaceLogInfo deleted = createMockInterfaceLogInfo();
-        deleted.getMetadata().setDeletionTimestamp(Instant.now());
-        // not deleted
-        InterfaceLogInfo noDelete = createMockInterfaceLogInfo();
-
-        when(client.listAll(eq(InterfaceLogInfo.class), any(ListOptions.class), any(Sort.class)))
-                .thenReturn(Flux.just(deleted, noDelete));
+        // 计数还没有校准时按索引统计未删除的日志
+        when(client.listBy(eq(InterfaceLogInfo.class), any(ListOptions.class), any(PageRequest.class)))
+                .thenReturn(Mono.just(new ListResult<>(1, 1, 1, List.of(createMockInterfaceLogInfo()))));
 
         StepVerifier.create(interfaceLogService.count())
                 .expectNext(1L)
@@ -51,20 +86,51 @@ public class InterfaceLogServiceImplTest {
 
     @Test
     void deleteAllTest() {
-        // deleted
-        InterfaceLogInfo deleted = createMockInterfaceLogInfo();
-        deleted.getMetadata().setDeletionTimestamp(Instant.now());
-        // not deleted
-        InterfaceLogInfo noDelete = createMockInterfaceLogInfo();
+        InterfaceLogInfo first = createMockInterfaceLogInfo();
+        first.getMetadata().setName("first");
+        InterfaceLogInfo second = createMockInterfaceLogInfo();
+        second.getMetadata().setName("second");
 
-        when(client.listAll(eq(InterfaceLogInfo.class), any(ListOptions.class), any(Sort.class)))
-                .thenReturn(Flux.just(deleted, noDelete));
-        when(client.delete(deleted)).thenReturn(Mono.just(deleted));
-        when(client.delete(noDelete)).thenReturn(Mono.just(noDelete));
+        when(client.listBy(eq(InterfaceLogInfo.class), any(ListOptions.class), any(PageRequest.class)))
+                .thenReturn(Mono.just(new ListResult<>(1, 1, 2, List.of(first))))
+                .thenReturn(Mono.just(new ListResult<>(1, 1, 1, List.of(second))))
+                .thenReturn(Mono.just(new ListResult<>(1, 1, 0, List.of())));
+        when(client.delete(any(InterfaceLogInfo.class)))
+                .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        when(client.fetch(eq(InterfaceLogDetailInfo.class), any(String.class)))
+                .thenReturn(Mono.empty());
+        InterfaceLogRollup rollup = new InterfaceLogRollup();
+        when(client.listAll(eq(InterfaceLogRollup.class), any(ListOptions.class), any(Sort.class)))
+                .thenReturn(Flux.just(rollup));
+        doReturn(Mono.just(rollup)).when(client).delete(rollup);
+        // 计数比删除批次多一条，清空后也要归零
+        for (int i = 0; i < 3; i++) {
+            InterfaceLogInfo written = createMockInterfaceLogInfo();
+            counters.recordWritten(written);
+            rollups.recordWritten(written);
+            heavyHitters.record(written);
+        }
 
         StepVerifier.create(interfaceLogService.deleteAll())
-                .expectNext(true)
+                .assertNext(job -> assertThat(job.getId()).isNotBlank())
+                .verifyComplete();
+
+        StepVerifier.create(interfaceLogService.getDeleteAllJob())
+                .assertNext(job -> {
+                    assertThat(job.getState()).isEqualTo(InterfaceLogClearJob.STATE_SUCCEEDED);
+                    assertThat(job.getDeleted()).isEqualTo(2);
+                    assertThat(job.getRemaining()).isZero();
+                })
                 .verifyComplete();
+        verify(client).delete(first);
+        verify(client).delete(second);
+        verify(client).delete(rollup);
+        CountStatsVO stats = counters.stats();
+        assertThat(stats.getTotal()).isZero();
+        assertThat(stats.getPerDay()).isEmpty();
+        assertThat(stats.getPerStatusClass()).isEmpty();
+        assertThat(heavyHitters.top(InterfaceLogHeavyHitters.FIELD_PATH, 60, 10).getItems())
+                .isEmpty();
     }
 
     private InterfaceLogInfo createMockInterfaceLogInfo() {
@@ -0,0 +1,111 @@
+package run.halo.interfaceLog;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import run.halo.app.extension.ReactiveExtensionClient;
+import run.halo.interfaceLog.extension.InterfaceLogSettingInfo;
+import run.halo.interfaceLog.filter.CapturePolicy;
+import run.halo.interfaceLog.service.impl.InterfaceLogSettingServiceImpl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class InterfaceLogSettingServiceImplTest {
+
+    @Mock
+    private ReactiveExtensionClient client;
+
+    private InterfaceLogSettingServiceImpl settingService;
+
+    @BeforeEach
+    void setUp() {
+        settingService = new InterfaceLogSettingServiceImpl(client);
+    }
+
+    @Test
+    void shouldFillDefaultsForPartialSetting() {
+        when(client.fetch(eq(InterfaceLogSettingInfo.class), eq(InterfaceLogSettingInfo.NAME)))
+            .thenReturn(Mono.empty());
+        when(client.create(any(InterfaceLogSettingInfo.class)))
+            .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        InterfaceLogSettingInfo.InterfaceLogSettingInfoSpec spec =
+            new InterfaceLogSettingInfo.InterfaceLogSettingInfoSpec().setWriter(null);
+        spec.getCapture().setMaxBodyBytes(null).setDenyContentTypes(null)
+            .setSlowThresholdMillis(null);
+
+        StepVerifier.create(settingService.setSetting(spec)).expectNext(true).verifyComplete();
+
+        ArgumentCaptor<InterfaceLogSettingInfo> created =
+            ArgumentCaptor.forClass(InterfaceLogSettingInfo.class);
+        verify(client).create(created.capture());
+        InterfaceLogSettingInfo.CaptureSetting capture =
+            created.getValue().getSpec().getCapture();
+        assertThat(capture.getMaxBodyBytes()).isEqualTo(64 * 1024);
+        assertThat(capture.getDenyContentTypes()).contains("multipart/*");
+        assertThat(created.getValue().getSpec().getWriter()).isNotNull();
+        // 补齐后按设置生成采集策略不再抛空指针
+        assertThat(new CapturePolicy(settingService.getCurrentSetting().getCapture(), null)
+            .getMaxBodyBytes()).isEqualTo(64 * 1024);
+    }
+
+    @Test
+    void shouldRejectInvalidCaptureSetting() {
+        InterfaceLogSettingInfo.InterfaceLogSettingInfoSpec spec =
+            new InterfaceLogSettingInfo.InterfaceLogSettingInfoSpec();
+        spec.getCapture().setMaxBodyBytes(-1);
+
+        StepVerifier.create(settingService.setSetting(spec))
+            .expectError(IllegalArgumentException.class)
+            .verify();
+        verify(client, never()).fetch(eq(InterfaceLogSettingInfo.class), any(String.class));
+    }
+
+    @Test
+    void shouldRejectInvalidWriterSetting() {
+        InterfaceLogSettingInfo.InterfaceLogSettingInfoSpec zeroCapacity =
+            new InterfaceLogSettingInfo.InterfaceLogSettingInfoSpec();
+        zeroCapacity.getWriter().setQueueCapacity(0);
+        InterfaceLogSettingInfo.InterfaceLogSettingInfoSpec negativeBatch =
+            new InterfaceLogSettingInfo.InterfaceLogSettingInfoSpec();
+        negativeBatch.getWriter().setBatchSize(-1);
+        InterfaceLogSettingInfo.InterfaceLogSettingInfoSpec ratioAboveOne =
+            new InterfaceLogSettingInfo.InterfaceLogSettingInfoSpec();
+        ratioAboveOne.getWriter().setBodyDropRatio(1.5);
+
+        for (InterfaceLogSettingInfo.InterfaceLogSettingInfoSpec spec
+            : new InterfaceLogSettingInfo.InterfaceLogSettingInfoSpec[] {
+                zeroCapacity, negativeBatch, ratioAboveOne}) {
+            StepVerifier.create(settingService.setSetting(spec))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+        }
+        verify(client, never()).fetch(eq(InterfaceLogSettingInfo.class), any(String.class));
+    }
+
+    @Test
+    void shouldApplyDefaultsToStoredPartialSetting() {
+        InterfaceLogSettingInfo.InterfaceLogSettingInfoSpec spec =
+            new InterfaceLogSettingInfo.InterfaceLogSettingInfoSpec().setCapture(null);
+        spec.getWriter().setQueueCapacity(null).setBodyDropRatio(null);
+
+        settingService.applySetting(spec);
+
+        assertThat(settingService.getCurrentSetting().getWriter().getQueueCapacity())
+            .isEqualTo(10000);
+        assertThat(settingService.getCurrentSetting().getWriter().getBodyDropRatio())
+            .isEqualTo(0.8);
+        assertThat(settingService.getCurrentSetting().getCapture().getTailStatuses())
+            .containsExactly("4xx", "5xx");
+    }
+}
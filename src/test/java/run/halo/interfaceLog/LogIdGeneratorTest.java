@@ -0,0 +1,34 @@
+package run.halo.interfaceLog;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LogIdGeneratorTest {
+
+    @Test
+    void shouldGenerateUniqueAndOrderedIds() {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 100000; i++) {
+            ids.add(LogIdGenerator.nextId());
+        }
+        Set<String> unique = new HashSet<>(ids);
+
+        assertThat(unique).hasSize(ids.size());
+        assertThat(ids).isSorted();
+    }
+
+    @Test
+    void shouldSortAfterLegacyTimestampNames() {
+        String legacy = String.valueOf(System.currentTimeMillis() - 1);
+        String id = LogIdGenerator.nextId();
+
+        assertThat(id).matches("\\d{13}-[0-9a-z]{4}-[0-9a-z]{8}");
+        assertThat(id.compareTo(legacy)).isPositive();
+    }
+}
@@ -0,0 +1,74 @@
+package run.halo.interfaceLog.codec;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 在接近真实接口返回的 JSON 上统计 GZIP 压缩率和单次编码、解码耗时。
+ * 通过 {@code ./gradlew benchmark} 单独运行。
+ */
+@Tag("benchmark")
+class BodyCodecBenchmarkTest {
+
+    private static final int ITERATIONS = 2_000;
+
+    private final GzipBodyCodec codec = new GzipBodyCodec();
+
+    @Test
+    void reportCompressionRatioAndCost() {
+        for (int items : new int[] {5, 50, 500}) {
+            String json = postListJson(items);
+            String encoded = codec.encode(json);
+            assertThat(codec.decode(encoded)).isEqualTo(json);
+
+            long encodeNanos = measure(() -> codec.encode(json));
+            long decodeNanos = measure(() -> codec.decode(encoded));
+            System.out.printf(
+                "%d items: %d -> %d chars (ratio %.2f), encode %dus/op, decode %dus/op%n",
+                items, json.length(), encoded.length(), (double) encoded.length() / json.length(),
+                encodeNanos / ITERATIONS / 1000, decodeNanos / ITERATIONS / 1000);
+        }
+    }
+
+    private long measure(Runnable task) {
+        for (int i = 0; i < ITERATIONS / 10; i++) {
+            task.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            task.run();
+        }
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * 模拟 Halo 文章列表接口的返回结构
+     */
+    private String postListJson(int items) {
+        Random random = new Random(items);
+        StringBuilder builder = new StringBuilder("{\"page\":1,\"size\":")
+            .append(items).append(",\"total\":").append(items * 7).append(",\"items\":[");
+        for (int i = 0; i < items; i++) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            builder.append("{\"metadata\":{\"name\":\"post-").append(random.nextInt(1_000_000))
+                .append("\",\"version\":").append(random.nextInt(50))
+                .append(",\"creationTimestamp\":\"2024-0").append(1 + random.nextInt(9))
+                .append("-1").append(random.nextInt(10)).append("T08:00:00Z\"},")
+                .append("\"spec\":{\"title\":\"Title ").append(Long.toHexString(random.nextLong()))
+                .append("\",\"slug\":\"slug-").append(random.nextInt(100_000))
+                .append("\",\"owner\":\"admin\",\"visible\":\"PUBLIC\",\"pinned\":")
+                .append(random.nextBoolean()).append(",\"tags\":[\"tag-")
+                .append(random.nextInt(20)).append("\"]},")
+                .append("\"stats\":{\"visit\":").append(random.nextInt(10_000))
+                .append(",\"upvote\":").append(random.nextInt(100))
+                .append(",\"comment\":").append(random.nextInt(30)).append("}}");
+        }
+        return builder.append("]}").toString();
+    }
+}
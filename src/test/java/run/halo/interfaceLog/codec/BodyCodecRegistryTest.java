@@ -0,0 +1,75 @@
+package run.halo.interfaceLog.codec;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import run.halo.app.extension.Metadata;
+import run.halo.interfaceLog.extension.InterfaceLogDetailInfo;
+import run.halo.interfaceLog.extension.InterfaceLogSettingInfo;
+import run.halo.interfaceLog.service.InterfaceLogSettingService;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BodyCodecRegistryTest {
+
+    private final InterfaceLogSettingInfo.InterfaceLogSettingInfoSpec setting =
+        new InterfaceLogSettingInfo.InterfaceLogSettingInfoSpec();
+
+    private BodyCodecRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        InterfaceLogSettingService settingService = mock(InterfaceLogSettingService.class);
+        when(settingService.getCurrentSetting()).thenReturn(setting);
+        registry = new BodyCodecRegistry(List.of(new GzipBodyCodec(), new IdentityBodyCodec()),
+            settingService);
+    }
+
+    @Test
+    void shouldCompressAboveThresholdAndRestoreOnDecode() {
+        String body = "{\"items\":[" + "{\"id\":1,\"name\":\"halo\"},".repeat(200) + "{}]}";
+        InterfaceLogDetailInfo detail = createDetail(body);
+
+        registry.encode(detail);
+
+        assertThat(detail.getSpec().getBodyCodec()).isEqualTo(GzipBodyCodec.NAME);
+        assertThat(detail.getSpec().getResponseBody().length()).isLessThan(body.length());
+
+        registry.decode(detail);
+
+        assertThat(detail.getSpec().getBodyCodec()).isNull();
+        assertThat(detail.getSpec().getResponseBody()).isEqualTo(body);
+        assertThat(detail.getSpec().getRequestBody()).isNull();
+    }
+
+    @Test
+    void shouldKeepSmallBodiesAsIs() {
+        InterfaceLogDetailInfo detail = createDetail("{\"ok\":true}");
+
+        registry.encode(detail);
+
+        assertThat(detail.getSpec().getBodyCodec()).isNull();
+        assertThat(detail.getSpec().getResponseBody()).isEqualTo("{\"ok\":true}");
+    }
+
+    @Test
+    void shouldSkipWhenIdentityConfigured() {
+        setting.getCompression().setCodec(IdentityBodyCodec.NAME);
+        InterfaceLogDetailInfo detail = createDetail("x".repeat(4096));
+
+        registry.encode(detail);
+
+        assertThat(detail.getSpec().getBodyCodec()).isNull();
+    }
+
+    private InterfaceLogDetailInfo createDetail(String responseBody) {
+        InterfaceLogDetailInfo detail = new InterfaceLogDetailInfo();
+        detail.setMetadata(new Metadata());
+        detail.getMetadata().setName("1");
+        detail.getSpec().setResponseBody(responseBody);
+        return detail;
+    }
+}
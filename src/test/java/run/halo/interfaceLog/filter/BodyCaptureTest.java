@@ -0,0 +1,56 @@
+package run.halo.interfaceLog.filter;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BodyCaptureTest {
+
+    private final DefaultDataBufferFactory bufferFactory = DefaultDataBufferFactory.sharedInstance;
+
+    @Test
+    void shouldCopyWithoutConsumingBuffer() {
+        BodyCapture capture = new BodyCapture(1024);
+        DataBuffer buffer = buffer("{\"key\":\"value\"}");
+
+        capture.append(buffer);
+
+        assertThat(buffer.readableByteCount()).isEqualTo(15);
+        assertThat(capture.asString(StandardCharsets.UTF_8)).isEqualTo("{\"key\":\"value\"}");
+        assertThat(capture.isTruncated()).isFalse();
+    }
+
+    @Test
+    void shouldStopCopyingAtLimit() {
+        BodyCapture capture = new BodyCapture(4);
+
+        capture.append(buffer("abc"));
+        capture.append(buffer("defgh"));
+
+        assertThat(capture.asString(StandardCharsets.UTF_8)).isEqualTo("abcd");
+        assertThat(capture.getTotalBytes()).isEqualTo(8);
+        assertThat(capture.isTruncated()).isTrue();
+    }
+
+    @Test
+    void shouldRenderTruncationMarkerAndSkippedBodies() {
+        BodyCapture truncated = new BodyCapture(3);
+        truncated.append(buffer("abcdef"));
+        assertThat(truncated.render(StandardCharsets.UTF_8, "...")).isEqualTo("abc...");
+
+        BodyCapture skipped = new BodyCapture(1024);
+        skipped.skip("image/png");
+        skipped.append(buffer("binary"));
+        assertThat(skipped.render(StandardCharsets.UTF_8, "..."))
+            .isEqualTo("[body omitted: image/png, 6 bytes]");
+        assertThat(skipped.getTotalBytes()).isEqualTo(6);
+    }
+
+    private DataBuffer buffer(String content) {
+        return bufferFactory.wrap(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
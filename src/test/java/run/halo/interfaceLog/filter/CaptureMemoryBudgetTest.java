@@ -0,0 +1,125 @@
+package run.halo.interfaceLog.filter;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import run.halo.app.extension.Metadata;
+import run.halo.interfaceLog.extension.InterfaceLogInfo;
+import run.halo.interfaceLog.extension.InterfaceLogSettingInfo;
+import run.halo.interfaceLog.service.InterfaceLogSettingService;
+import run.halo.interfaceLog.writer.PendingInterfaceLog;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CaptureMemoryBudgetTest {
+
+    @Mock
+    private InterfaceLogSettingService settingService;
+
+    private final InterfaceLogSettingInfo.InterfaceLogSettingInfoSpec setting =
+        new InterfaceLogSettingInfo.InterfaceLogSettingInfoSpec();
+
+    private CaptureMemoryBudget budget;
+
+    @BeforeEach
+    void setUp() {
+        setting.getCapture().setMemoryBudgetBytes(1024L);
+        when(settingService.getCurrentSetting()).thenReturn(setting);
+        budget = new CaptureMemoryBudget(settingService);
+    }
+
+    @Test
+    void shouldReserveUpToLimit() {
+        assertThat(budget.tryAcquire(600)).isTrue();
+        assertThat(budget.tryAcquire(424)).isTrue();
+        assertThat(budget.isExhausted()).isTrue();
+        assertThat(budget.tryAcquire(1)).isFalse();
+        assertThat(budget.stats().getUsedBytes()).isEqualTo(1024);
+
+        budget.release(424);
+        assertThat(budget.isExhausted()).isFalse();
+        assertThat(budget.tryAcquire(424)).isTrue();
+    }
+
+    @Test
+    void shouldDegradeToMetadataOnlyWhenExhausted() {
+        setting.getCapture().setMemoryBudgetBytes(256L);
+        BodyCapture first = new BodyCapture(1024, budget);
+        first.append(buffer("a".repeat(200)));
+        assertThat(budget.isExhausted()).isTrue();
+
+        // 已在采集中的内容不再扩容，只统计字节数
+        first.append(buffer("b".repeat(100)));
+        assertThat(first.asString(StandardCharsets.UTF_8)).hasSize(200);
+        assertThat(first.getTotalBytes()).isEqualTo(300);
+
+        // 新的采集一个字节都复制不了
+        BodyCapture second = new BodyCapture(1024, budget);
+        second.append(buffer("c"));
+        assertThat(second.asString(StandardCharsets.UTF_8)).isEmpty();
+        assertThat(second.isTruncated()).isTrue();
+        assertThat(budget.stats().getDegraded()).isEqualTo(2);
+        assertThat(budget.stats().getUsedBytes()).isEqualTo(256);
+
+        first.release();
+        second.release();
+        assertThat(budget.stats().getUsedBytes()).isZero();
+    }
+
+    @Test
+    void shouldReleaseOnceWhenFinished() {
+        assertReleasedOnce(PendingInterfaceLog::finish);
+    }
+
+    @Test
+    void shouldReleaseOnceWhenDiscarded() {
+        assertReleasedOnce(PendingInterfaceLog::discard);
+    }
+
+    @Test
+    void shouldReleaseOnceWhenDetailDropped() {
+        assertReleasedOnce(PendingInterfaceLog::dropDetail);
+    }
+
+    private void assertReleasedOnce(Consumer<PendingInterfaceLog> first) {
+        BodyCapture capture = new BodyCapture(1024, budget);
+        capture.append(buffer("payload"));
+        assertThat(budget.stats().getUsedBytes()).isEqualTo(256);
+        AtomicInteger releases = new AtomicInteger();
+        PendingInterfaceLog pendingLog = new PendingInterfaceLog(createLog(), detail -> {
+        }, () -> {
+            releases.incrementAndGet();
+            capture.release();
+        });
+
+        first.accept(pendingLog);
+        pendingLog.finish();
+        pendingLog.discard();
+        pendingLog.dropDetail();
+
+        assertThat(releases).hasValue(1);
+        assertThat(budget.stats().getUsedBytes()).isZero();
+    }
+
+    private InterfaceLogInfo createLog() {
+        InterfaceLogInfo info = new InterfaceLogInfo();
+        info.setMetadata(new Metadata());
+        info.getMetadata().setName("log");
+        return info;
+    }
+
+    private DataBuffer buffer(String content) {
+        return DefaultDataBufferFactory.sharedInstance
+            .wrap(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,52 @@
+package run.halo.interfaceLog.filter;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import run.halo.interfaceLog.extension.InterfaceLogRuleInfo;
+import run.halo.interfaceLog.extension.InterfaceLogSettingInfo;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CapturePolicyTest {
+
+    @Test
+    void shouldSkipDeniedContentTypes() {
+        CapturePolicy policy = new CapturePolicy(new InterfaceLogSettingInfo.CaptureSetting(), null);
+
+        assertThat(policy.shouldCapture(MediaType.APPLICATION_JSON)).isTrue();
+        assertThat(policy.shouldCapture(null)).isTrue();
+        assertThat(policy.shouldCapture(MediaType.MULTIPART_FORM_DATA)).isFalse();
+        assertThat(policy.shouldCapture(MediaType.IMAGE_PNG)).isFalse();
+        assertThat(policy.shouldCapture(MediaType.APPLICATION_OCTET_STREAM)).isFalse();
+    }
+
+    @Test
+    void shouldPreferRuleOverrides() {
+        InterfaceLogRuleInfo.InterfaceLogRuleInfoSpec rule = new InterfaceLogRuleInfo.InterfaceLogRuleInfoSpec()
+            .setMaxBodyBytes(16)
+            .setAllowContentTypes(List.of("application/json"))
+            .setDenyContentTypes(List.of());
+        CapturePolicy policy = new CapturePolicy(new InterfaceLogSettingInfo.CaptureSetting(), rule);
+
+        assertThat(policy.getMaxBodyBytes()).isEqualTo(16);
+        assertThat(policy.shouldCapture(MediaType.APPLICATION_JSON)).isTrue();
+        assertThat(policy.shouldCapture(MediaType.TEXT_HTML)).isFalse();
+    }
+
+    @Test
+    void shouldKeepDetailOnlyForErrorsAndSlowRequestsInTailMode() {
+        InterfaceLogSettingInfo.CaptureSetting setting = new InterfaceLogSettingInfo.CaptureSetting()
+            .setTailMode(true)
+            .setTailStatuses(List.of("5xx", "429"))
+            .setSlowThresholdMillis(500L);
+        CapturePolicy policy = new CapturePolicy(setting, null);
+
+        assertThat(policy.shouldKeepDetail(200, 10)).isFalse();
+        assertThat(policy.shouldKeepDetail(404, 10)).isFalse();
+        assertThat(policy.shouldKeepDetail(429, 10)).isTrue();
+        assertThat(policy.shouldKeepDetail(503, 10)).isTrue();
+        assertThat(policy.shouldKeepDetail(200, 800)).isTrue();
+    }
+}
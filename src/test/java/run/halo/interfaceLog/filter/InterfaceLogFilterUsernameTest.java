@@ -0,0 +1,81 @@
+package run.halo.interfaceLog.filter;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.web.server.context.ServerSecurityContextRepository;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class InterfaceLogFilterUsernameTest {
+
+    private ServerSecurityContextRepository repository;
+
+    private InterfaceLogFilter filter;
+
+    private MockServerWebExchange exchange;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(ServerSecurityContextRepository.class);
+        filter = new InterfaceLogFilter(repository, null, null, null, null, null);
+        exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/test").build());
+    }
+
+    @Test
+    void shouldReuseResolvedSecurityContext() {
+        SecurityContextImpl context = new SecurityContextImpl(
+            UsernamePasswordAuthenticationToken.authenticated("admin", null,
+                AuthorityUtils.createAuthorityList("ROLE_ADMIN")));
+
+        StepVerifier.create(filter.getUsername(exchange)
+                .contextWrite(ReactiveSecurityContextHolder.withSecurityContext(Mono.just(context))))
+            .expectNext("admin")
+            .verifyComplete();
+        verify(repository, never()).load(any());
+    }
+
+    @Test
+    void shouldTreatAnonymousAsVisitor() {
+        SecurityContextImpl context = new SecurityContextImpl(
+            new AnonymousAuthenticationToken("key", "anonymousUser",
+                AuthorityUtils.createAuthorityList("ROLE_ANONYMOUS")));
+
+        StepVerifier.create(filter.getUsername(exchange)
+                .contextWrite(ReactiveSecurityContextHolder.withSecurityContext(Mono.just(context))))
+            .expectNext(InterfaceLogFilter.VISITOR)
+            .verifyComplete();
+    }
+
+    @Test
+    void shouldFallBackToRepository() {
+        when(repository.load(exchange)).thenReturn(Mono.just(new SecurityContextImpl(
+            UsernamePasswordAuthenticationToken.authenticated("editor", null,
+                AuthorityUtils.NO_AUTHORITIES))));
+
+        StepVerifier.create(filter.getUsername(exchange))
+            .expectNext("editor")
+            .verifyComplete();
+    }
+
+    @Test
+    void shouldDefaultToVisitorWithoutContext() {
+        when(repository.load(exchange)).thenReturn(Mono.empty());
+
+        StepVerifier.create(filter.getUsername(exchange))
+            .expectNext(InterfaceLogFilter.VISITOR)
+            .verifyComplete();
+    }
+}
@@ -0,0 +1,75 @@
+package run.halo.interfaceLog.filter;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.web.server.context.WebSessionServerSecurityContextRepository;
+import org.springframework.web.server.WebSession;
+import org.springframework.web.server.session.InMemoryWebSessionStore;
+
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 对比直接从会话仓库加载安全上下文与从 Reactor 上下文读取的用户名解析耗时。
+ * 上下文按 ReactorContextWebFilter 的方式放入惰性的 {@code repository.load(exchange)}，
+ * 读取时同样会访问会话，两者只差调用开销，不代表省掉了会话查询。
+ * 通过 {@code ./gradlew benchmark} 单独运行。
+ */
+@Tag("benchmark")
+class UsernameResolutionBenchmarkTest {
+
+    private static final int REQUESTS = 200_000;
+
+    private static final int ROUNDS = 5;
+
+    @Test
+    void compareUsernameResolution() {
+        SecurityContext context = new SecurityContextImpl(
+            UsernamePasswordAuthenticationToken.authenticated("admin", null,
+                AuthorityUtils.createAuthorityList("ROLE_ADMIN")));
+        WebSession session = new InMemoryWebSessionStore().createWebSession().block();
+        session.getAttributes()
+            .put(WebSessionServerSecurityContextRepository.DEFAULT_SPRING_SECURITY_CONTEXT_ATTR_NAME,
+                context);
+        WebSessionServerSecurityContextRepository repository =
+            new WebSessionServerSecurityContextRepository();
+        InterfaceLogFilter filter = new InterfaceLogFilter(repository, null, null, null, null);
+        Supplier<MockServerWebExchange> exchanges = () -> MockServerWebExchange.builder(
+            MockServerHttpRequest.get("/api/test").build()).session(session).build();
+
+        long reloadNanos = measure(() -> repository.load(exchanges.get())
+            .map(securityContext -> securityContext.getAuthentication().getName())
+            .block());
+        long contextNanos = measure(() -> {
+            MockServerWebExchange exchange = exchanges.get();
+            return filter.getUsername(exchange)
+                .contextWrite(
+                    ReactiveSecurityContextHolder.withSecurityContext(repository.load(exchange)))
+                .block();
+        });
+
+        System.out.printf(
+            "username resolution over %d requests: repository=%dns/op, context=%dns/op%n",
+            REQUESTS, reloadNanos / REQUESTS, contextNanos / REQUESTS);
+    }
+
+    private long measure(Supplier<String> resolve) {
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < REQUESTS; i++) {
+                assertThat(resolve.get()).isEqualTo("admin");
+            }
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+}
@@ -0,0 +1,90 @@
+package run.halo.interfaceLog.matcher;
+
+import org.junit.jupiter.api.Test;
+import run.halo.interfaceLog.extension.InterfaceLogRuleInfo;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompiledRuleSetTest {
+
+    @Test
+    void shouldMatchNothingWithoutIncludeRules() {
+        CompiledRuleSet ruleSet = new CompiledRuleSet(List.of(rule(false, "/apis/**")));
+
+        assertThat(ruleSet.matches("/apis/test")).isFalse();
+        assertThat(CompiledRuleSet.EMPTY.matches("/")).isFalse();
+    }
+
+    @Test
+    void shouldMatchPrefixAndExactRules() {
+        CompiledRuleSet ruleSet = new CompiledRuleSet(List.of(
+            rule(true, "/apis/**"),
+            rule(true, "/login")));
+
+        assertThat(ruleSet.matches("/apis")).isTrue();
+        assertThat(ruleSet.matches("/apis/content.halo.run/v1alpha1/posts")).isTrue();
+        assertThat(ruleSet.matches("/login")).isTrue();
+        assertThat(ruleSet.matches("/login/other")).isFalse();
+        assertThat(ruleSet.matches("/console")).isFalse();
+    }
+
+    @Test
+    void shouldApplyExcludeRules() {
+        CompiledRuleSet ruleSet = new CompiledRuleSet(List.of(
+            rule(true, "/**"),
+            rule(false, "/**/*.js"),
+            rule(false, "/apis/dailyActive.halo.run/v1alpha1/interfaceLog/*"),
+            rule(false, "/themes/{name}/assets/**")));
+
+        assertThat(ruleSet.matches("/apis/api.halo.run/v1alpha1/posts")).isTrue();
+        assertThat(ruleSet.matches("/console/assets/index.js")).isFalse();
+        assertThat(ruleSet.matches("/apis/dailyActive.halo.run/v1alpha1/interfaceLog/count"))
+            .isFalse();
+        assertThat(ruleSet.matches("/themes/earth/assets/style.css")).isFalse();
+    }
+
+    @Test
+    void shouldReturnMostSpecificIncludeRule() {
+        InterfaceLogRuleInfo.InterfaceLogRuleInfoSpec all = rule(true, "/apis/**");
+        InterfaceLogRuleInfo.InterfaceLogRuleInfoSpec uploads =
+            rule(true, "/apis/api.console.halo.run/**").setMaxBodyBytes(0);
+        CompiledRuleSet ruleSet = new CompiledRuleSet(List.of(all, uploads));
+
+        assertThat(ruleSet.match("/apis/api.console.halo.run/v1alpha1/attachments/upload"))
+            .isSameAs(uploads);
+        assertThat(ruleSet.match("/apis/api.halo.run/v1alpha1/posts")).isSameAs(all);
+        assertThat(ruleSet.match("/console")).isNull();
+    }
+
+    @Test
+    void shouldPreferSpecificRuleOverCatchAll() {
+        InterfaceLogRuleInfo.InterfaceLogRuleInfoSpec all = rule(true, "/**");
+        InterfaceLogRuleInfo.InterfaceLogRuleInfoSpec upload =
+            rule(true, "/apis/upload/{id}").setMaxBodyBytes(0);
+        InterfaceLogRuleInfo.InterfaceLogRuleInfoSpec scripts = rule(true, "/**/*.js");
+        CompiledRuleSet ruleSet = new CompiledRuleSet(List.of(all, upload, scripts));
+
+        assertThat(ruleSet.match("/apis/upload/42")).isSameAs(upload);
+        assertThat(ruleSet.match("/console/assets/index.js")).isSameAs(scripts);
+        assertThat(ruleSet.match("/apis/upload/42/parts")).isSameAs(all);
+    }
+
+    @Test
+    void shouldPreferPatternOverShorterPrefix() {
+        InterfaceLogRuleInfo.InterfaceLogRuleInfoSpec apis = rule(true, "/apis/**");
+        InterfaceLogRuleInfo.InterfaceLogRuleInfoSpec posts =
+            rule(true, "/apis/{group}/v1alpha1/posts");
+        CompiledRuleSet ruleSet = new CompiledRuleSet(List.of(apis, posts));
+
+        assertThat(ruleSet.match("/apis/api.halo.run/v1alpha1/posts")).isSameAs(posts);
+        assertThat(ruleSet.match("/apis/api.halo.run/v1alpha1/tags")).isSameAs(apis);
+    }
+
+    private InterfaceLogRuleInfo.InterfaceLogRuleInfoSpec rule(boolean include, String pattern) {
+        return new InterfaceLogRuleInfo.InterfaceLogRuleInfoSpec()
+            .setIsInclude(include)
+            .setRule(pattern);
+    }
+}
@@ -0,0 +1,31 @@
+package run.halo.interfaceLog.matcher;
+
+import org.junit.jupiter.api.Test;
+import run.halo.interfaceLog.extension.InterfaceLogRuleInfo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PathMatcherTest {
+
+    @Test
+    void shouldPickEquallySpecificRuleByNameRegardlessOfOrder() {
+        InterfaceLogRuleInfo.InterfaceLogRuleInfoSpec first = rule("/apis/{group}/posts");
+        InterfaceLogRuleInfo.InterfaceLogRuleInfoSpec second = rule("/apis/{kind}/posts");
+
+        PathMatcher forward = new PathMatcher();
+        forward.putRule("a-rule", first);
+        forward.putRule("b-rule", second);
+        PathMatcher backward = new PathMatcher();
+        backward.putRule("b-rule", second);
+        backward.putRule("a-rule", first);
+
+        assertThat(forward.match("/apis/content/posts")).isSameAs(first);
+        assertThat(backward.match("/apis/content/posts")).isSameAs(first);
+    }
+
+    private InterfaceLogRuleInfo.InterfaceLogRuleInfoSpec rule(String pattern) {
+        return new InterfaceLogRuleInfo.InterfaceLogRuleInfoSpec()
+            .setIsInclude(true)
+            .setRule(pattern);
+    }
+}
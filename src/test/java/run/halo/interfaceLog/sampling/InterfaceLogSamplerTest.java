@@ -0,0 +1,93 @@
+package run.halo.interfaceLog.sampling;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import run.halo.interfaceLog.extension.InterfaceLogRuleInfo;
+import run.halo.interfaceLog.extension.InterfaceLogSettingInfo;
+import run.halo.interfaceLog.service.InterfaceLogSettingService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.Mockito.lenient;
+
+@ExtendWith(MockitoExtension.class)
+class InterfaceLogSamplerTest {
+
+    @Mock
+    private InterfaceLogSettingService settingService;
+
+    @InjectMocks
+    private InterfaceLogSampler sampler;
+
+    private final InterfaceLogSettingInfo.InterfaceLogSettingInfoSpec setting =
+        new InterfaceLogSettingInfo.InterfaceLogSettingInfoSpec();
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(settingService.getCurrentSetting()).thenReturn(setting);
+    }
+
+    @Test
+    void shouldRecordEverythingWithoutSampleRate() {
+        assertThat(sampler.sample(rule(null))).isEqualTo(1.0);
+        assertThat(sampler.sample(null)).isEqualTo(1.0);
+    }
+
+    @Test
+    void shouldSkipEverythingWithZeroRate() {
+        assertThat(sampler.sample(rule(0.0))).isEqualTo(InterfaceLogSampler.NOT_SAMPLED);
+    }
+
+    @Test
+    void shouldScaleWeightByRate() {
+        InterfaceLogRuleInfo.InterfaceLogRuleInfoSpec rule = rule(0.25);
+        double estimated = 0;
+        int requests = 20000;
+        for (int i = 0; i < requests; i++) {
+            double weight = sampler.sample(rule);
+            if (weight != InterfaceLogSampler.NOT_SAMPLED) {
+                assertThat(weight).isEqualTo(4.0);
+                estimated += weight;
+            }
+        }
+        assertThat(estimated).isCloseTo(requests, within(requests * 0.1));
+    }
+
+    @Test
+    void shouldConvergeToMaxRecordsPerSecondWhenAdaptive() {
+        setting.getSampling().setAdaptive(true).setMaxRecordsPerSecond(100);
+        InterfaceLogRuleInfo.InterfaceLogRuleInfoSpec rule = rule(0.5);
+        int requestsPerSecond = 2000;
+        int seconds = 12;
+        int saved = 0;
+        for (int second = 0; second < seconds; second++) {
+            saved = 0;
+            for (int i = 0; i < requestsPerSecond; i++) {
+                double weight = sampler.sample(rule, second * 1000L + i % 1000);
+                if (weight == InterfaceLogSampler.NOT_SAMPLED) {
+                    continue;
+                }
+                saved++;
+                // 同一秒内自适应采样率不变，权重为两级采样率乘积的倒数
+                double adaptiveRate = sampler.stats().getAdaptiveRate();
+                assertThat(weight).isCloseTo(1 / (0.5 * adaptiveRate), within(1e-9));
+            }
+        }
+
+        // 通过规则采样的候选量约为每秒 1000，平滑后的观测值逐秒逼近它
+        assertThat(sampler.stats().getObservedPerSecond()).isCloseTo(1000, within(100.0));
+        assertThat(sampler.stats().getAdaptiveRate()).isCloseTo(0.1, within(0.02));
+        assertThat(saved).isCloseTo(100, within(40));
+    }
+
+    private InterfaceLogRuleInfo.InterfaceLogRuleInfoSpec rule(Double sampleRate) {
+        return new InterfaceLogRuleInfo.InterfaceLogRuleInfoSpec()
+            .setIsInclude(true)
+            .setRule("/**")
+            .setSampleRate(sampleRate);
+    }
+}
@@ -0,0 +1,66 @@
+package run.halo.interfaceLog.schedule;
+
+import org.junit.jupiter.api.Test;
+import run.halo.interfaceLog.extension.RetentionDurationInfo;
+import run.halo.interfaceLog.store.StorageUsage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RetentionLimitsTest {
+
+    private final RetentionDurationInfo.RetentionDurationInfoSpec spec =
+        new RetentionDurationInfo.RetentionDurationInfoSpec();
+
+    @Test
+    void shouldNotEvictWithoutLimits() {
+        RetentionLimits.Excess excess =
+            RetentionLimits.excess(spec, new StorageUsage(1000, 1_000_000, 1000), 100, 1);
+
+        assertThat(excess.records()).isZero();
+        assertThat(excess.reason()).isNull();
+    }
+
+    @Test
+    void shouldEvictRecordsAboveMaxRecords() {
+        spec.setMaxRecords(800L);
+
+        RetentionLimits.Excess excess =
+            RetentionLimits.excess(spec, new StorageUsage(1000, 1_000_000, 1000), 100, 50);
+
+        assertThat(excess).isEqualTo(
+            new RetentionLimits.Excess(200, RetentionLimits.REASON_MAX_RECORDS));
+    }
+
+    @Test
+    void shouldTakeTheStrictestLimit() {
+        spec.setMaxRecords(800L).setMaxStorageBytes(500_000L);
+
+        RetentionLimits.Excess excess =
+            RetentionLimits.excess(spec, new StorageUsage(1000, 1_000_000, 1000), 100, 50);
+
+        assertThat(excess).isEqualTo(
+            new RetentionLimits.Excess(500, RetentionLimits.REASON_MAX_STORAGE_BYTES));
+    }
+
+    @Test
+    void shouldFreeDiskDownToMinFreePercent() {
+        spec.setMinFreeDiskPercent(10);
+
+        // 磁盘 1 MB，剩余 50 KB，需要再释放 50 KB，即约 50 条
+        RetentionLimits.Excess excess = RetentionLimits.excess(spec,
+            new StorageUsage(1000, 1_000_000, 1000), 1_000_000, 50_000);
+
+        assertThat(excess).isEqualTo(
+            new RetentionLimits.Excess(50, RetentionLimits.REASON_MIN_FREE_DISK));
+    }
+
+    @Test
+    void shouldNotEvictMoreThanStored() {
+        spec.setMinFreeDiskPercent(90);
+
+        RetentionLimits.Excess excess = RetentionLimits.excess(spec,
+            new StorageUsage(10, 10_000, 1000), 1_000_000, 0);
+
+        assertThat(excess.records()).isEqualTo(10);
+    }
+}
@@ -0,0 +1,71 @@
+package run.halo.interfaceLog.stats;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FieldValueDictionaryTest {
+
+    @Test
+    void shouldRankPrefixMatchesByFrequency() {
+        FieldValueDictionary dictionary = new FieldValueDictionary(100);
+        dictionary.record("/api/users", "2024-01-01");
+        dictionary.record("/api/posts", "2024-01-01");
+        dictionary.record("/api/posts", "2024-01-01");
+        dictionary.record("/apis", "2024-01-01");
+        dictionary.record("/console", "2024-01-01");
+
+        assertThat(dictionary.top("/api/", 10)).containsExactly("/api/posts", "/api/users");
+        assertThat(dictionary.top("/api", 2)).containsExactly("/api/posts", "/api/users");
+        assertThat(dictionary.top("", 10)).hasSize(4);
+        assertThat(dictionary.top("/x", 10)).isEmpty();
+    }
+
+    @Test
+    void shouldPruneValuesLastSeenBeforeDay() {
+        FieldValueDictionary dictionary = new FieldValueDictionary(100);
+        dictionary.record("old", "2024-01-01");
+        dictionary.record("kept", "2024-01-01");
+        dictionary.record("kept", "2024-01-03");
+
+        dictionary.pruneBefore("2024-01-02");
+
+        assertThat(dictionary.top("", 10)).containsExactly("kept");
+    }
+
+    @Test
+    void shouldEvictRareValuesWhenFull() {
+        FieldValueDictionary dictionary = new FieldValueDictionary(3);
+        for (int i = 0; i < 4; i++) {
+            dictionary.record("popular", "2024-01-01");
+        }
+        dictionary.record("a", "2024-01-01");
+        dictionary.record("b", "2024-01-01");
+        dictionary.record("c", "2024-01-01");
+
+        assertThat(dictionary.size()).isLessThanOrEqualTo(3);
+        assertThat(dictionary.top("", 10)).contains("popular");
+    }
+
+    @Test
+    void shouldEvictOnlyLowestValuesWhenOverCapacity() {
+        FieldValueDictionary dictionary = new FieldValueDictionary(100);
+        dictionary.record("frequent", "2024-01-01");
+        dictionary.record("frequent", "2024-01-01");
+        for (int i = 0; i < 99; i++) {
+            dictionary.record(String.format("v%03d", i), "2024-01-01");
+        }
+        assertThat(dictionary.isTruncated()).isFalse();
+
+        // 预热时每个取值次数都是 1，超出一个只淘汰一小部分，不会清空字典
+        dictionary.record("overflow", "2024-01-02");
+
+        assertThat(dictionary.size()).isEqualTo(90);
+        assertThat(dictionary.isTruncated()).isTrue();
+        assertThat(dictionary.top("frequent", 10)).containsExactly("frequent");
+        assertThat(dictionary.top("overflow", 10)).containsExactly("overflow");
+
+        dictionary.clear();
+        assertThat(dictionary.isTruncated()).isFalse();
+    }
+}
@@ -0,0 +1,124 @@
+package run.halo.interfaceLog.stats;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import run.halo.app.extension.Metadata;
+import run.halo.interfaceLog.extension.InterfaceLogInfo;
+import run.halo.interfaceLog.store.InterfaceLogStore;
+import run.halo.interfaceLog.store.InterfaceLogStores;
+import run.halo.interfaceLog.store.LogCounts;
+import run.halo.interfaceLog.vo.CountStatsVO;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class InterfaceLogCountersTest {
+
+    @Mock
+    private InterfaceLogStores stores;
+
+    @Mock
+    private InterfaceLogStore store;
+
+    private InterfaceLogCounters counters;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(stores.current()).thenReturn(store);
+        counters = new InterfaceLogCounters(stores);
+    }
+
+    @Test
+    void shouldCountWritesAndDeletesAfterReconcile() {
+        when(store.countAll(any(ZoneId.class)))
+            .thenReturn(Mono.just(new LogCounts(10, Map.of("2024-01-01", 10L), Map.of("2xx", 10L))));
+        StepVerifier.create(counters.reconcileNow()).verifyComplete();
+
+        counters.recordWritten(createLog("500"));
+        counters.recordWritten(createLog("200"));
+        counters.recordDeleted(3, null);
+
+        StepVerifier.create(counters.count()).expectNext(9L).verifyComplete();
+        CountStatsVO stats = counters.stats();
+        assertThat(stats.getPerStatusClass()).containsEntry("2xx", 11L).containsEntry("5xx", 1L);
+        assertThat(stats.getPerDay()).containsEntry("2024-01-01", 10L)
+            .containsEntry(LocalDate.now().toString(), 2L);
+        assertThat(stats.getReconciledAt()).isPositive();
+        verify(store, never()).count();
+    }
+
+    @Test
+    void shouldKeepWritesMadeDuringReconcile() {
+        // 存储统计返回前又写入了两条，统计结果里没有它们
+        when(store.countAll(any(ZoneId.class))).thenReturn(Mono.fromSupplier(() -> {
+            counters.recordWritten(createLog("200"));
+            counters.recordWritten(createLog("404"));
+            return new LogCounts(10, Map.of("2024-01-01", 10L), Map.of("2xx", 10L));
+        }));
+
+        StepVerifier.create(counters.reconcileNow()).verifyComplete();
+
+        CountStatsVO stats = counters.stats();
+        assertThat(stats.getTotal()).isEqualTo(12);
+        assertThat(stats.getPerStatusClass()).containsEntry("2xx", 11L).containsEntry("4xx", 1L);
+        assertThat(stats.getPerDay()).containsEntry("2024-01-01", 10L)
+            .containsEntry(LocalDate.now().toString(), 2L);
+    }
+
+    @Test
+    void shouldSubtractDeletedRecordsFromMatchingBuckets() {
+        when(store.countAll(any(ZoneId.class))).thenReturn(Mono.just(new LogCounts(10,
+            Map.of("2024-01-01", 4L, "2024-01-02", 6L), Map.of("2xx", 8L, "5xx", 2L))));
+        StepVerifier.create(counters.reconcileNow()).verifyComplete();
+
+        counters.recordDeleted(5, new LogCounts(5, Map.of("2024-01-01", 4L, "2024-01-02", 1L),
+            Map.of("2xx", 3L, "5xx", 2L)));
+
+        CountStatsVO stats = counters.stats();
+        assertThat(stats.getTotal()).isEqualTo(5);
+        assertThat(stats.getPerDay()).containsOnly(Map.entry("2024-01-02", 5L));
+        assertThat(stats.getPerStatusClass()).containsOnly(Map.entry("2xx", 5L));
+    }
+
+    @Test
+    void shouldAskStoreBeforeFirstReconcile() {
+        when(store.count()).thenReturn(Mono.just(5L));
+
+        StepVerifier.create(counters.count()).expectNext(5L).verifyComplete();
+    }
+
+    @Test
+    void shouldPruneDaysBeforeCutoff() {
+        when(store.countAll(any(ZoneId.class))).thenReturn(Mono.just(new LogCounts(3,
+            Map.of("2024-01-01", 1L, "2024-01-02", 2L), Map.of())));
+        StepVerifier.create(counters.reconcileNow()).verifyComplete();
+
+        counters.pruneDaysBefore(LocalDate.parse("2024-01-02")
+            .atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli());
+
+        assertThat(counters.stats().getPerDay()).containsOnlyKeys("2024-01-02");
+    }
+
+    private InterfaceLogInfo createLog(String status) {
+        InterfaceLogInfo info = new InterfaceLogInfo();
+        info.setMetadata(new Metadata());
+        info.getSpec().setAccessTime(new Date());
+        info.getSpec().setResponseStatus(status);
+        return info;
+    }
+}
@@ -0,0 +1,83 @@
+package run.halo.interfaceLog.stats;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+import run.halo.interfaceLog.store.InterfaceLogStore;
+import run.halo.interfaceLog.store.InterfaceLogStores;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class InterfaceLogFieldIndexTest {
+
+    @Mock
+    private InterfaceLogStores stores;
+
+    @Mock
+    private InterfaceLogStore store;
+
+    private InterfaceLogFieldIndex fieldIndex;
+
+    @BeforeEach
+    void setUp() {
+        when(stores.current()).thenReturn(store);
+        fieldIndex = new InterfaceLogFieldIndex(stores);
+    }
+
+    @Test
+    void shouldWarmUpFromDistinctValues() {
+        // 同一用户的日志远多于预热上限，排在后面的取值也要进入字典
+        when(store.fieldValues(anyString(), eq(""))).thenReturn(Flux.empty());
+        when(store.fieldValues(InterfaceLogFieldIndex.FIELD_USERNAME, "")).thenReturn(
+            Flux.range(0, InterfaceLogFieldIndex.WARM_UP_VALUES + 10).map(i -> "admin")
+                .concatWith(Flux.just("bob", "carol")));
+
+        StepVerifier.create(fieldIndex.warmUpNow()).verifyComplete();
+
+        StepVerifier.create(fieldIndex.values(InterfaceLogFieldIndex.FIELD_USERNAME, "c", 10))
+            .expectNext("carol")
+            .verifyComplete();
+    }
+
+    @Test
+    void shouldFallBackToStoreWhenDictionaryIsTruncated() {
+        when(store.fieldValues(anyString(), anyString())).thenReturn(Flux.empty());
+        when(store.fieldValues(InterfaceLogFieldIndex.FIELD_PATH, "")).thenReturn(
+            Flux.range(0, InterfaceLogFieldIndex.MAX_VALUES + 1)
+                .map(i -> String.format("/p%05d", i)));
+        when(store.fieldValues(InterfaceLogFieldIndex.FIELD_PATH, "/p00000"))
+            .thenReturn(Flux.just("/p00000"));
+
+        StepVerifier.create(fieldIndex.warmUpNow()).verifyComplete();
+
+        // 超出容量只淘汰一小部分，能凑满的查询仍走字典
+        StepVerifier.create(fieldIndex.values(InterfaceLogFieldIndex.FIELD_PATH, "/p", 10))
+            .expectNextCount(10)
+            .verifyComplete();
+        StepVerifier.create(fieldIndex.values(InterfaceLogFieldIndex.FIELD_PATH, "/p00000", 10))
+            .expectNext("/p00000")
+            .verifyComplete();
+    }
+
+    @Test
+    void shouldKeepQueryingStoreWhenValuesExceedWarmUpLimit() {
+        when(store.fieldValues(anyString(), anyString())).thenReturn(Flux.empty());
+        when(store.fieldValues(InterfaceLogFieldIndex.FIELD_PATH, "")).thenReturn(
+            Flux.range(0, InterfaceLogFieldIndex.WARM_UP_VALUES + 1).map(i -> "/p" + i));
+        when(store.fieldValues(InterfaceLogFieldIndex.FIELD_PATH, "/late"))
+            .thenReturn(Flux.just("/late", "/late"));
+
+        StepVerifier.create(fieldIndex.warmUpNow()).verifyComplete();
+
+        StepVerifier.create(fieldIndex.values(InterfaceLogFieldIndex.FIELD_PATH, "/late", 10))
+            .expectNext("/late")
+            .verifyComplete();
+    }
+}
@@ -0,0 +1,87 @@
+package run.halo.interfaceLog.stats;
+
+import org.junit.jupiter.api.Test;
+import run.halo.interfaceLog.extension.InterfaceLogInfo;
+import run.halo.interfaceLog.vo.HeavyHittersVO;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+class InterfaceLogHeavyHittersTest {
+
+    private final AtomicLong now = new AtomicLong(1_000L * 60_000L);
+
+    private final InterfaceLogHeavyHitters heavyHitters = new InterfaceLogHeavyHitters(now::get);
+
+    @Test
+    void shouldKeepHeavyHittersUnderHighCardinality() {
+        for (int i = 0; i < 10_000; i++) {
+            heavyHitters.record(createLog("/api/posts", 1.0));
+            heavyHitters.record(createLog("/api/unique/" + i, 1.0));
+            if (i % 4 == 0) {
+                heavyHitters.record(createLog("/api/users", 1.0));
+            }
+        }
+
+        HeavyHittersVO top = heavyHitters.top(InterfaceLogHeavyHitters.FIELD_PATH, 1, 2);
+        assertThat(top.getTotal()).isEqualTo(22_500);
+        assertThat(top.getItems()).extracting(HeavyHittersVO.Item::getValue)
+            .containsExactly("/api/posts", "/api/users");
+        HeavyHittersVO.Item posts = top.getItems().get(0);
+        assertThat(posts.getCount() - posts.getError()).isLessThanOrEqualTo(10_000);
+        assertThat(posts.getCount()).isGreaterThanOrEqualTo(10_000);
+    }
+
+    @Test
+    void shouldMergeMinutesInWindowAndWeightSamples() {
+        heavyHitters.record(createLog("/api/posts", 1.0));
+        now.addAndGet(60_000L);
+        heavyHitters.record(createLog("/api/users", 4.0));
+
+        assertThat(heavyHitters.top(InterfaceLogHeavyHitters.FIELD_PATH, 1, 10).getItems())
+            .extracting(HeavyHittersVO.Item::getValue).containsExactly("/api/users");
+        assertThat(heavyHitters.top(InterfaceLogHeavyHitters.FIELD_PATH, 2, 10).getItems())
+            .extracting(HeavyHittersVO.Item::getValue, HeavyHittersVO.Item::getCount)
+            .containsExactly(
+                tuple("/api/users", 4L),
+                tuple("/api/posts", 1L));
+    }
+
+    @Test
+    void shouldKeepExpectedCountForFractionalWeights() {
+        int records = 2000;
+        for (int i = 0; i < records; i++) {
+            heavyHitters.record(createLog("/api/posts", 1.4));
+        }
+
+        // 逐条四舍五入会得到 2000，按概率取整的期望为 2800
+        HeavyHittersVO top = heavyHitters.top(InterfaceLogHeavyHitters.FIELD_PATH, 1, 1);
+        assertThat(top.getItems()).singleElement()
+            .extracting(HeavyHittersVO.Item::getCount)
+            .satisfies(count -> assertThat(count).isBetween(2700L, 2900L));
+    }
+
+    @Test
+    void shouldForgetMinutesOlderThanWindow() {
+        heavyHitters.record(createLog("/api/posts", 1.0));
+        now.addAndGet(InterfaceLogHeavyHitters.WINDOW_MINUTES * 60_000L);
+        heavyHitters.record(createLog("/api/users", 1.0));
+
+        assertThat(heavyHitters.top(InterfaceLogHeavyHitters.FIELD_PATH, 60, 10).getItems())
+            .extracting(HeavyHittersVO.Item::getValue).containsExactly("/api/users");
+        assertThatThrownBy(() -> heavyHitters.top("method", 5, 10))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private InterfaceLogInfo createLog(String path, double sampleWeight) {
+        InterfaceLogInfo info = new InterfaceLogInfo();
+        info.getSpec().setPath(path);
+        info.getSpec().setClientIp("127.0.0.1");
+        info.getSpec().setUsername("admin");
+        info.getSpec().setSampleWeight(sampleWeight);
+        return info;
+    }
+}
@@ -0,0 +1,168 @@
+package run.halo.interfaceLog.stats;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Sort;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import run.halo.app.extension.ListOptions;
+import run.halo.app.extension.Metadata;
+import run.halo.app.extension.ReactiveExtensionClient;
+import run.halo.interfaceLog.extension.InterfaceLogInfo;
+import run.halo.interfaceLog.extension.InterfaceLogRollup;
+import run.halo.interfaceLog.param.RollupSeriesParam;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class InterfaceLogRollupsTest {
+
+    @Mock
+    private ReactiveExtensionClient client;
+
+    @InjectMocks
+    private InterfaceLogRollups rollups;
+
+    @Test
+    void shouldFlushEveryResolution() {
+        when(client.fetch(eq(InterfaceLogRollup.class), anyString())).thenReturn(Mono.empty());
+        when(client.create(any(InterfaceLogRollup.class)))
+            .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        rollups.recordWritten(createLog("/api/posts", "200"));
+        rollups.recordWritten(createLog("/api/posts", "201"));
+        rollups.recordWritten(createLog("/api/users", "404"));
+
+        StepVerifier.create(rollups.flushNow()).verifyComplete();
+
+        ArgumentCaptor<InterfaceLogRollup> created =
+            ArgumentCaptor.forClass(InterfaceLogRollup.class);
+        verify(client, times(3)).create(created.capture());
+        assertThat(created.getAllValues())
+            .extracting(rollup -> rollup.getSpec().getResolution())
+            .containsExactlyInAnyOrder("MINUTE", "HOUR", "DAY");
+        assertThat(created.getAllValues()).allSatisfy(rollup ->
+            assertThat(rollup.getSpec().getEntries())
+                .extracting(InterfaceLogRollup.RollupEntry::getPath,
+                    InterfaceLogRollup.RollupEntry::getStatusClass,
+                    InterfaceLogRollup.RollupEntry::getCount)
+                .containsExactlyInAnyOrder(
+                    tuple("/api/posts", "2xx", 2L),
+                    tuple("/api/users", "4xx", 1L)));
+    }
+
+    @Test
+    void shouldMergeIntoExistingBucket() {
+        InterfaceLogRollup existing = new InterfaceLogRollup();
+        existing.setMetadata(new Metadata());
+        existing.getSpec().getEntries().add(
+            new InterfaceLogRollup.RollupEntry("/api/posts", "2xx", "GET", "admin", 5L));
+        when(client.fetch(eq(InterfaceLogRollup.class), anyString()))
+            .thenReturn(Mono.just(existing));
+        when(client.update(any(InterfaceLogRollup.class)))
+            .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        rollups.recordWritten(createLog("/api/posts", "200"));
+
+        StepVerifier.create(rollups.flushNow()).verifyComplete();
+
+        // 三个精度取到的是同一个对象
+        assertThat(existing.getSpec().getEntries()).singleElement()
+            .extracting(InterfaceLogRollup.RollupEntry::getCount).isEqualTo(8L);
+    }
+
+    @Test
+    void shouldScaleSampledLogsByWeight() {
+        when(client.fetch(eq(InterfaceLogRollup.class), anyString())).thenReturn(Mono.empty());
+        when(client.create(any(InterfaceLogRollup.class)))
+            .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        InterfaceLogInfo sampled = createLog("/api/posts", "200");
+        sampled.getSpec().setSampleWeight(10.0);
+        rollups.recordWritten(sampled);
+        rollups.recordWritten(createLog("/api/posts", "200"));
+
+        StepVerifier.create(rollups.flushNow()).verifyComplete();
+
+        ArgumentCaptor<InterfaceLogRollup> created =
+            ArgumentCaptor.forClass(InterfaceLogRollup.class);
+        verify(client, times(3)).create(created.capture());
+        assertThat(created.getAllValues()).allSatisfy(rollup ->
+            assertThat(rollup.getSpec().getEntries()).singleElement()
+                .extracting(InterfaceLogRollup.RollupEntry::getCount).isEqualTo(11L));
+    }
+
+    @Test
+    void shouldKeepExpectedCountForFractionalWeights() {
+        when(client.fetch(eq(InterfaceLogRollup.class), anyString())).thenReturn(Mono.empty());
+        when(client.create(any(InterfaceLogRollup.class)))
+            .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        Date accessTime = new Date();
+        int records = 2000;
+        for (int i = 0; i < records; i++) {
+            InterfaceLogInfo sampled = createLog("/api/posts", "200");
+            sampled.getSpec().setAccessTime(accessTime);
+            sampled.getSpec().setSampleWeight(2.5);
+            rollups.recordWritten(sampled);
+        }
+
+        StepVerifier.create(rollups.flushNow()).verifyComplete();
+
+        // 逐条四舍五入会得到 6000，按概率取整的期望为 5000
+        ArgumentCaptor<InterfaceLogRollup> created =
+            ArgumentCaptor.forClass(InterfaceLogRollup.class);
+        verify(client, times(3)).create(created.capture());
+        assertThat(created.getAllValues()).allSatisfy(rollup ->
+            assertThat(rollup.getSpec().getEntries()).singleElement()
+                .extracting(InterfaceLogRollup.RollupEntry::getCount)
+                .satisfies(count -> assertThat(count).isBetween(4800L, 5200L)));
+    }
+
+    @Test
+    void shouldBuildZeroFilledDailySeries() {
+        ZoneId zone = ZoneId.systemDefault();
+        long day1 = LocalDate.of(2024, 1, 1).atStartOfDay(zone).toInstant().toEpochMilli();
+        long day3 = LocalDate.of(2024, 1, 3).atStartOfDay(zone).toInstant().toEpochMilli();
+        long end = LocalDate.of(2024, 1, 4).atStartOfDay(zone).toInstant().toEpochMilli();
+        InterfaceLogRollup rollup = new InterfaceLogRollup();
+        rollup.getSpec().setResolution("DAY").setBucketStart(day3).setEntries(List.of(
+            new InterfaceLogRollup.RollupEntry("/api/posts", "2xx", "GET", "admin", 4L),
+            new InterfaceLogRollup.RollupEntry("/api/users", "5xx", "GET", "admin", 1L)));
+        when(client.listAll(eq(InterfaceLogRollup.class), any(ListOptions.class), any(Sort.class)))
+            .thenReturn(Flux.just(rollup));
+
+        StepVerifier.create(rollups.series(new RollupSeriesParam()
+                .setResolution("day").setFrom(day1).setTo(end).setStatusClass("2xx")))
+            .assertNext(series -> {
+                assertThat(series.getResolution()).isEqualTo("DAY");
+                assertThat(series.getTimestamps()).hasSize(3).startsWith(day1).endsWith(day3);
+                assertThat(series.getCounts()).containsExactly(0L, 0L, 4L);
+            })
+            .verifyComplete();
+    }
+
+    private InterfaceLogInfo createLog(String path, String status) {
+        InterfaceLogInfo info = new InterfaceLogInfo();
+        info.setMetadata(new Metadata());
+        info.getSpec().setAccessTime(new Date());
+        info.getSpec().setPath(path);
+        info.getSpec().setResponseStatus(status);
+        info.getSpec().setRequestType("GET");
+        info.getSpec().setUsername("admin");
+        return info;
+    }
+}
@@ -0,0 +1,24 @@
+package run.halo.interfaceLog.stats;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SampleWeightsTest {
+
+    @Test
+    void shouldRoundFractionByProbability() {
+        assertThat(SampleWeights.count(2.5, 0.49)).isEqualTo(3);
+        assertThat(SampleWeights.count(2.5, 0.5)).isEqualTo(2);
+        assertThat(SampleWeights.count(1.4, 0.3)).isEqualTo(2);
+        assertThat(SampleWeights.count(1.4, 0.4)).isEqualTo(1);
+        assertThat(SampleWeights.count(4.0, 0.99)).isEqualTo(4);
+    }
+
+    @Test
+    void shouldCountUnweightedLogsOnce() {
+        assertThat(SampleWeights.count(null, 0.9)).isEqualTo(1);
+        assertThat(SampleWeights.count(0.0, 0.9)).isEqualTo(1);
+        assertThat(SampleWeights.count(Double.NaN, 0.9)).isEqualTo(1);
+    }
+}
@@ -0,0 +1,93 @@
+package run.halo.interfaceLog.store;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import run.halo.app.extension.ListOptions;
+import run.halo.app.extension.ListResult;
+import run.halo.app.extension.Metadata;
+import run.halo.app.extension.PageRequest;
+import run.halo.app.extension.ReactiveExtensionClient;
+import run.halo.interfaceLog.extension.InterfaceLogDetailInfo;
+import run.halo.interfaceLog.extension.InterfaceLogInfo;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ExtensionInterfaceLogStoreTest {
+
+    @Mock
+    private ReactiveExtensionClient client;
+
+    @InjectMocks
+    private ExtensionInterfaceLogStore store;
+
+    @Test
+    void shouldDeleteOneBatchAndAdvanceCheckpoint() {
+        InterfaceLogInfo first = createLog("1", 1000L);
+        InterfaceLogInfo second = createLog("2", 2000L);
+        when(client.listBy(eq(InterfaceLogInfo.class), any(ListOptions.class),
+            any(PageRequest.class)))
+            .thenReturn(Mono.just(new ListResult<>(1, 2, 5, List.of(first, second))));
+        when(client.delete(any(InterfaceLogInfo.class)))
+            .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        when(client.fetch(eq(InterfaceLogDetailInfo.class), anyString())).thenReturn(Mono.empty());
+
+        StepVerifier.create(store.deleteBatch(0, 10_000L, 2, 2, 1000))
+            .assertNext(batch -> {
+                assertThat(batch.deleted()).isEqualTo(2);
+                assertThat(batch.checkpoint()).isEqualTo(2000L);
+                assertThat(batch.backlog()).isEqualTo(3);
+                // 删除的日志按天、按状态类别带回，供计数器扣减
+                String day = LocalDate.ofInstant(Instant.ofEpochMilli(1000L),
+                    ZoneId.systemDefault()).toString();
+                assertThat(batch.removed().perDay()).containsExactly(Map.entry(day, 2L));
+                assertThat(batch.removed().perStatusClass())
+                    .containsExactly(Map.entry("other", 2L));
+            })
+            .verifyComplete();
+
+        verify(client, times(2)).delete(any(InterfaceLogInfo.class));
+    }
+
+    @Test
+    void shouldKeepCheckpointWhenNothingExpired() {
+        when(client.listBy(eq(InterfaceLogInfo.class), any(ListOptions.class),
+            any(PageRequest.class)))
+            .thenReturn(Mono.just(new ListResult<>(1, 2, 0, List.of())));
+
+        StepVerifier.create(store.deleteBatch(500L, 10_000L, 2, 2, 0))
+            .expectNext(new PurgeBatch(0, 500L, 0))
+            .verifyComplete();
+
+        verify(client, never()).delete(any(InterfaceLogInfo.class));
+    }
+
+    private InterfaceLogInfo createLog(String name, long accessTime) {
+        InterfaceLogInfo info = new InterfaceLogInfo();
+        info.setMetadata(new Metadata());
+        info.getMetadata().setName(name);
+        InterfaceLogInfo.InterfaceLogInfoSpec spec = new InterfaceLogInfo.InterfaceLogInfoSpec();
+        spec.setAccessTime(new Date(accessTime));
+        info.setSpec(spec);
+        return info;
+    }
+}
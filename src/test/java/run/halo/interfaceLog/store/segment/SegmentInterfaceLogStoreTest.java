@@ -0,0 +1,234 @@
+package run.halo.interfaceLog.store.segment;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.env.Environment;
+import reactor.test.StepVerifier;
+import run.halo.app.extension.ListResult;
+import run.halo.app.extension.Metadata;
+import run.halo.interfaceLog.extension.InterfaceLogDetailInfo;
+import run.halo.interfaceLog.extension.InterfaceLogInfo;
+import run.halo.interfaceLog.extension.InterfaceLogSettingInfo;
+import run.halo.interfaceLog.request.InterfaceLogRequest;
+import run.halo.interfaceLog.service.InterfaceLogSettingService;
+import run.halo.interfaceLog.store.PurgeBatch;
+import run.halo.interfaceLog.store.StorageUsage;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SegmentInterfaceLogStoreTest {
+
+    private static final long BASE = 1_700_000_000_000L;
+
+    @TempDir
+    Path directory;
+
+    private final InterfaceLogSettingInfo.InterfaceLogSettingInfoSpec setting =
+        new InterfaceLogSettingInfo.InterfaceLogSettingInfoSpec();
+
+    private final InterfaceLogSettingService settingService = mock(InterfaceLogSettingService.class);
+
+    private SegmentInterfaceLogStore store;
+
+    @BeforeEach
+    void setUp() {
+        setting.getStorage().setBackend(SegmentInterfaceLogStore.NAME)
+            .setSegmentDirectory(directory.toString())
+            .setSegmentSizeBytes(4096)
+            .setIndexIntervalRecords(4);
+        when(settingService.getCurrentSetting()).thenReturn(setting);
+        store = new SegmentInterfaceLogStore(settingService, mock(Environment.class));
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.destroy();
+    }
+
+    @Test
+    void shouldFindSavedSummaryAndDetail() {
+        InterfaceLogDetailInfo detail = new InterfaceLogDetailInfo();
+        detail.setMetadata(new Metadata());
+        detail.getMetadata().setName(nameOf(0));
+        detail.getSpec().setResponseBody("body");
+        store.save(createLog(0, "admin", "/a"), detail).block();
+
+        StepVerifier.create(store.findSummary(nameOf(0)))
+            .assertNext(info -> assertThat(info.getSpec().getPath()).isEqualTo("/a"))
+            .verifyComplete();
+        StepVerifier.create(store.findDetail(nameOf(0)))
+            .assertNext(d -> assertThat(d.getSpec().getResponseBody()).isEqualTo("body"))
+            .verifyComplete();
+        StepVerifier.create(store.findDetail(nameOf(1)))
+            .verifyComplete();
+    }
+
+    @Test
+    void shouldRollSegmentsAndRecoverAfterReopen() throws IOException {
+        for (int i = 0; i < 100; i++) {
+            store.save(createLog(i, "user" + (i % 3), "/p" + i), null).block();
+        }
+        try (Stream<Path> files = Files.walk(directory)) {
+            assertThat(files.filter(p -> p.toString().endsWith(Segment.SUFFIX))).hasSizeGreaterThan(1);
+        }
+
+        store.destroy();
+        store = new SegmentInterfaceLogStore(settingService, mock(Environment.class));
+
+        StepVerifier.create(store.count()).expectNext(100L).verifyComplete();
+        store.save(createLog(100, "user0", "/p100"), null).block();
+        StepVerifier.create(store.count()).expectNext(101L).verifyComplete();
+    }
+
+    @Test
+    void shouldSearchWithFilterAndPaging() {
+        for (int i = 0; i < 50; i++) {
+            store.save(createLog(i, "user" + (i % 2), "/p"), null).block();
+        }
+        InterfaceLogRequest request = new InterfaceLogRequest()
+            .setUsername(List.of("user1"))
+            .setAccessTimes(List.of(String.valueOf(BASE + 10_000), String.valueOf(BASE + 29_000)))
+            .setPage("2")
+            .setSize("3");
+
+        ListResult<InterfaceLogInfo> result = store.search(request).block();
+
+        assertThat(result).isNotNull();
+        // 10..29 秒内 user1 为奇数秒，共 10 条，第二页按时间倒序为 23、21、19
+        assertThat(result.getTotal()).isEqualTo(10);
+        assertThat(result.getItems()).extracting(i -> i.getMetadata().getName())
+            .containsExactly(nameOf(23), nameOf(21), nameOf(19));
+    }
+
+    @Test
+    void shouldSeekPagesByBlockIndexWhenRecordsArriveOutOfOrder() {
+        // 每 5 条倒序写入，相邻块的时间范围互相重叠
+        for (int i = 0; i < 60; i++) {
+            store.save(createLog(i / 5 * 5 + 4 - i % 5, "admin", "/p"), null).block();
+        }
+
+        for (int page = 1; page <= 9; page++) {
+            InterfaceLogRequest request = new InterfaceLogRequest()
+                .setAccessTimes(List.of(String.valueOf(BASE + 3_000),
+                    String.valueOf(BASE + 55_000)))
+                .setPage(String.valueOf(page))
+                .setSize("7");
+
+            ListResult<InterfaceLogInfo> result = store.search(request).block();
+
+            assertThat(result).isNotNull();
+            assertThat(result.getTotal()).isEqualTo(53);
+            int newest = 55 - (page - 1) * 7;
+            int oldest = Math.max(3, newest - 6);
+            assertThat(result.getItems()).extracting(i -> i.getMetadata().getName())
+                .containsExactlyElementsOf(IntStream.iterate(newest, i -> i >= oldest, i -> i - 1)
+                    .mapToObj(SegmentInterfaceLogStoreTest::nameOf).toList());
+        }
+    }
+
+    @Test
+    void shouldDropWholeExpiredPartitions() {
+        setting.getStorage().setPartitionGranularity("HOUR");
+        // 每 10 分钟一条，跨越 6 个小时
+        for (int i = 0; i < 36; i++) {
+            store.save(createLog(i * 600, "admin", "/p"), null).block();
+        }
+        long cutoff = ZonedDateTime.ofInstant(Instant.ofEpochMilli(BASE), ZoneId.systemDefault())
+            .plusHours(3).truncatedTo(ChronoUnit.HOURS).toInstant().toEpochMilli();
+        long expired = (cutoff - BASE + 599_999) / 600_000;
+
+        StepVerifier.create(store.deleteBatch(0, cutoff, 10, 1, 0))
+            .assertNext(batch -> {
+                assertThat(batch.deleted()).isEqualTo(expired);
+                assertThat(batch.checkpoint()).isZero();
+                assertThat(batch.removed().total()).isEqualTo(expired);
+                assertThat(batch.removed().perStatusClass())
+                    .containsExactly(Map.entry("other", expired));
+            })
+            .verifyComplete();
+
+        StepVerifier.create(store.count()).expectNext(36 - expired).verifyComplete();
+        StepVerifier.create(store.findSummary(nameOf(35 * 600))).expectNextCount(1).verifyComplete();
+        StepVerifier.create(store.findSummary(nameOf(0))).verifyComplete();
+    }
+
+    @Test
+    void shouldKeepPartitionThatSpansCutoff() {
+        for (int i = 0; i < 10; i++) {
+            store.save(createLog(i, "admin", "/p"), null).block();
+        }
+
+        StepVerifier.create(store.deleteBatch(0, BASE + 5_000, 10, 1, 0))
+            .assertNext(batch -> assertThat(batch.deleted()).isZero())
+            .verifyComplete();
+        StepVerifier.create(store.count()).expectNext(10L).verifyComplete();
+    }
+
+    @Test
+    void shouldEvictOldestSegmentsButKeepActiveOne() {
+        for (int i = 0; i < 100; i++) {
+            store.save(createLog(i, "admin", "/p"), null).block();
+        }
+        StorageUsage before = store.usage().block();
+        assertThat(before).isNotNull();
+        assertThat(before.records()).isEqualTo(100);
+
+        PurgeBatch batch = store.evictOldest(0, 30, 1, 0).block();
+
+        assertThat(batch).isNotNull();
+        assertThat(batch.deleted()).isGreaterThanOrEqualTo(30);
+        assertThat(batch.removed().total()).isEqualTo(batch.deleted());
+        StepVerifier.create(store.count()).expectNext(100 - batch.deleted()).verifyComplete();
+        StepVerifier.create(store.findSummary(nameOf(0))).verifyComplete();
+
+        PurgeBatch rest = store.evictOldest(0, 1000, 1, 0).block();
+        assertThat(rest).isNotNull();
+        assertThat(rest.removed().total()).isEqualTo(rest.deleted());
+        StepVerifier.create(store.findSummary(nameOf(99))).expectNextCount(1).verifyComplete();
+    }
+
+    @Test
+    void shouldListDistinctFieldValuesByPrefix() {
+        store.save(createLog(0, "alice", "/a"), null).block();
+        store.save(createLog(1, "bob", "/b"), null).block();
+        store.save(createLog(2, "alice", "/c"), null).block();
+
+        StepVerifier.create(store.fieldValues("spec.username", "a"))
+            .expectNext("alice")
+            .verifyComplete();
+    }
+
+    private static String nameOf(int second) {
+        return String.format("%013d-test-%08d", BASE + second * 1000L, second);
+    }
+
+    private static InterfaceLogInfo createLog(int second, String username, String path) {
+        InterfaceLogInfo info = new InterfaceLogInfo();
+        info.setMetadata(new Metadata());
+        info.getMetadata().setName(nameOf(second));
+        InterfaceLogInfo.InterfaceLogInfoSpec spec = new InterfaceLogInfo.InterfaceLogInfoSpec();
+        spec.setAccessTime(new Date(BASE + second * 1000L));
+        spec.setUsername(username);
+        spec.setPath(path);
+        spec.setDurationMicros((long) second);
+        info.setSpec(spec);
+        return info;
+    }
+}
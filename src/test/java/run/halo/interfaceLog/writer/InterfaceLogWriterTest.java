@@ -0,0 +1,277 @@
+package run.halo.interfaceLog.writer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+import run.halo.app.extension.Extension;
+import run.halo.app.extension.Metadata;
+import run.halo.app.extension.ReactiveExtensionClient;
+import run.halo.interfaceLog.codec.BodyCodecRegistry;
+import run.halo.interfaceLog.extension.InterfaceLogDetailInfo;
+import run.halo.interfaceLog.extension.InterfaceLogInfo;
+import run.halo.interfaceLog.extension.InterfaceLogSettingInfo;
+import run.halo.interfaceLog.service.InterfaceLogSettingService;
+import run.halo.interfaceLog.stats.InterfaceLogCounters;
+import run.halo.interfaceLog.stats.InterfaceLogFieldIndex;
+import run.halo.interfaceLog.stats.InterfaceLogRollups;
+import run.halo.interfaceLog.store.ExtensionInterfaceLogStore;
+import run.halo.interfaceLog.store.InterfaceLogStores;
+import run.halo.interfaceLog.vo.InterfaceLogWriterStatsVO;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class InterfaceLogWriterTest {
+
+    @Mock
+    private ReactiveExtensionClient client;
+
+    @Mock
+    private InterfaceLogStores stores;
+
+    @Mock
+    private InterfaceLogSettingService settingService;
+
+    @Mock
+    private PersistenceScheduler persistenceScheduler;
+
+    @Mock
+    private BodyCodecRegistry bodyCodecRegistry;
+
+    @Mock
+    private InterfaceLogCounters counters;
+
+    @Mock
+    private InterfaceLogFieldIndex fieldIndex;
+
+    @Mock
+    private InterfaceLogRollups rollups;
+
+    @InjectMocks
+    private InterfaceLogWriter writer;
+
+    private final InterfaceLogSettingInfo.InterfaceLogSettingInfoSpec setting =
+        new InterfaceLogSettingInfo.InterfaceLogSettingInfoSpec();
+
+    @BeforeEach
+    void setUp() {
+        setting.getWriter().setBatchSize(2).setQueueCapacity(3);
+        lenient().when(settingService.getCurrentSetting()).thenReturn(setting);
+        lenient().when(persistenceScheduler.scheduler()).thenReturn(Schedulers.immediate());
+        lenient().when(stores.current()).thenReturn(new ExtensionInterfaceLogStore(client));
+    }
+
+    @Test
+    void shouldPersistWhenBatchIsFull() {
+        when(client.create(any(InterfaceLogInfo.class)))
+            .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+
+        writer.enqueue(createLog("1"));
+        verify(client, never()).create(any(InterfaceLogInfo.class));
+
+        writer.enqueue(createLog("2"));
+        verify(client, times(2)).create(any(InterfaceLogInfo.class));
+        verify(counters, times(2)).recordWritten(any(InterfaceLogInfo.class));
+        assertThat(writer.stats().getPersisted()).isEqualTo(2);
+        assertThat(writer.stats().getQueueDepth()).isZero();
+        verify(persistenceScheduler).release(Schedulers.immediate());
+    }
+
+    @Test
+    void shouldRejectWhenQueueIsFull() {
+        setting.getWriter().setBatchSize(10);
+
+        assertThat(writer.enqueue(createLog("1"))).isTrue();
+        assertThat(writer.enqueue(createLog("2"))).isTrue();
+        assertThat(writer.enqueue(createLog("3"))).isTrue();
+        assertThat(writer.enqueue(createLog("4"))).isFalse();
+        assertThat(writer.stats().getRejected()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldFlushRemainingLogs() {
+        setting.getWriter().setBatchSize(10);
+        when(client.create(any(InterfaceLogInfo.class)))
+            .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+
+        writer.enqueue(createLog("1"));
+        writer.flush(Duration.ofSeconds(1));
+
+        verify(client).create(any(InterfaceLogInfo.class));
+        assertThat(writer.stats().getQueueDepth()).isZero();
+    }
+
+    @Test
+    void shouldFinishPendingLogBeforePersisting() {
+        setting.getWriter().setBatchSize(1);
+        when(client.create(any(InterfaceLogInfo.class)))
+            .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        when(client.create(any(InterfaceLogDetailInfo.class)))
+            .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        AtomicInteger released = new AtomicInteger();
+        InterfaceLogInfo info = createLog("1");
+        ArgumentCaptor<Extension> created = ArgumentCaptor.forClass(Extension.class);
+
+        writer.enqueue(new PendingInterfaceLog(info,
+            d -> d.getSpec().setResponseBody("body"), released::incrementAndGet));
+
+        verify(client, times(2)).create(created.capture());
+        assertThat(created.getAllValues().get(0)).isSameAs(info);
+        InterfaceLogDetailInfo detail = (InterfaceLogDetailInfo) created.getAllValues().get(1);
+        assertThat(detail.getMetadata().getName()).isEqualTo("1");
+        assertThat(detail.getSpec().getResponseBody()).isEqualTo("body");
+        assertThat(released).hasValue(1);
+    }
+
+    @Test
+    void shouldReleaseRejectedPendingLog() {
+        setting.getWriter().setBatchSize(10).setQueueCapacity(0);
+        AtomicInteger released = new AtomicInteger();
+
+        assertThat(writer.enqueue(new PendingInterfaceLog(createLog("1"), d -> {
+        }, released::incrementAndGet))).isFalse();
+        assertThat(released).hasValue(1);
+    }
+
+    @Test
+    void shouldDropOldestWhenConfigured() {
+        setting.getWriter().setBatchSize(10).setQueueCapacity(1).setOverloadPolicy("DROP_OLDEST");
+        AtomicInteger released = new AtomicInteger();
+
+        writer.enqueue(new PendingInterfaceLog(createLog("1"), d -> {
+        }, released::incrementAndGet));
+
+        assertThat(writer.enqueue(createLog("2"))).isTrue();
+        assertThat(released).hasValue(1);
+        assertThat(writer.dropStats().getDrops())
+            .containsEntry(InterfaceLogWriter.DROP_REASON_OLDEST, 1L);
+    }
+
+    @Test
+    void shouldNotExceedCapacityUnderConcurrentProducers() throws InterruptedException {
+        setting.getWriter().setBatchSize(100_000).setQueueCapacity(100);
+
+        InterfaceLogWriterStatsVO stats = enqueueConcurrently(8, 2000);
+
+        assertThat(stats.getQueueDepth()).isEqualTo(100);
+        assertThat(stats.getEnqueued()).isEqualTo(100);
+        assertThat(stats.getRejected()).isEqualTo(8 * 2000 - 100);
+    }
+
+    @Test
+    void shouldNotExceedCapacityWhenDroppingOldestConcurrently() throws InterruptedException {
+        setting.getWriter().setBatchSize(100_000).setQueueCapacity(100)
+            .setOverloadPolicy("DROP_OLDEST");
+
+        InterfaceLogWriterStatsVO stats = enqueueConcurrently(8, 2000);
+
+        assertThat(stats.getQueueDepth()).isEqualTo(100);
+        assertThat(stats.getEnqueued()).isEqualTo(8 * 2000);
+        assertThat(stats.getRejected()).isEqualTo(8 * 2000 - 100);
+    }
+
+    private InterfaceLogWriterStatsVO enqueueConcurrently(int producers, int perProducer)
+        throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < perProducer; i++) {
+                    writer.enqueue(createLog("log"));
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        return writer.stats();
+    }
+
+    @Test
+    void shouldDropBodiesAboveWatermark() {
+        setting.getWriter().setBatchSize(10).setQueueCapacity(2).setBodyDropRatio(0.5)
+            .setOverloadPolicy("DROP_BODIES");
+        writer.enqueue(createLog("1"));
+        InterfaceLogInfo info = createLog("2");
+
+        assertThat(writer.enqueue(new PendingInterfaceLog(info,
+            d -> d.getSpec().setResponseBody("body"), () -> {
+            }))).isTrue();
+        assertThat(info.getSpec().getSummaryOnly()).isTrue();
+        assertThat(writer.dropStats().getDrops())
+            .containsEntry(InterfaceLogWriter.DROP_REASON_BODY, 1L);
+    }
+
+    @Test
+    void shouldDropAfterBlockTimeout() {
+        setting.getWriter().setBatchSize(10).setQueueCapacity(0).setOverloadPolicy("BLOCK")
+            .setBlockTimeoutMillis(50L);
+        AtomicInteger released = new AtomicInteger();
+
+        StepVerifier.create(writer.submit(new PendingInterfaceLog(createLog("1"), d -> {
+            }, released::incrementAndGet)))
+            .verifyComplete();
+
+        assertThat(released).hasValue(1);
+        assertThat(writer.dropStats().getDrops())
+            .containsEntry(InterfaceLogWriter.DROP_REASON_BLOCK_TIMEOUT, 1L);
+    }
+
+    @Test
+    void shouldRetryFailedSaveOnPersistenceScheduler() {
+        setting.getWriter().setBatchSize(10);
+        PersistenceScheduler realScheduler = new PersistenceScheduler(settingService);
+        InterfaceLogWriter retryingWriter = new InterfaceLogWriter(stores, settingService,
+            realScheduler, bodyCodecRegistry, counters, fieldIndex, rollups);
+        AtomicInteger attempts = new AtomicInteger();
+        when(client.create(any(InterfaceLogInfo.class))).thenAnswer(invocation ->
+            attempts.incrementAndGet() == 1
+                ? Mono.error(new IllegalStateException("store unavailable"))
+                : Mono.just(invocation.getArgument(0)));
+        try {
+            retryingWriter.enqueue(createLog("1"));
+            retryingWriter.flush(Duration.ofSeconds(5));
+
+            assertThat(attempts).hasValue(2);
+            assertThat(retryingWriter.stats().getPersisted()).isEqualTo(1);
+            assertThat(retryingWriter.stats().getFailed()).isZero();
+        } finally {
+            realScheduler.destroy();
+        }
+    }
+
+    private InterfaceLogInfo createLog(String name) {
+        InterfaceLogInfo info = new InterfaceLogInfo();
+        info.setMetadata(new Metadata());
+        info.getMetadata().setName(name);
+        return info;
+    }
+}